@@ -0,0 +1,73 @@
+package at.zierler.gradle;
+
+import java.io.IOException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Number of failures all workers of one validation may report together, before the remaining files are skipped.
+ * <p>
+ * Workers can't share memory in every isolation mode, so the budget is kept in a directory: every failure
+ * atomically creates the next numbered file and the failure which uses up the budget creates a marker,
+ * which workers check before every file until they have seen it once. An unlimited budget is never checked.
+ */
+class FailureBudget {
+
+    private static final String EXHAUSTED_MARKER = "exhausted";
+
+    private final Path directory;
+    private final int maxFailures;
+    private int nextFailureNumber = 1;
+    private boolean exhausted;
+
+    FailureBudget(Path directory, int maxFailures) {
+
+        this.directory = directory;
+        this.maxFailures = maxFailures;
+    }
+
+    boolean isExhausted() {
+
+        if (!exhausted && maxFailures != Integer.MAX_VALUE) {
+            exhausted = Files.exists(directory.resolve(EXHAUSTED_MARKER));
+        }
+        return exhausted;
+    }
+
+    void recordFailure() throws IOException {
+
+        if (maxFailures == Integer.MAX_VALUE) {
+            return;
+        }
+
+        while (!tryToClaimFailureNumber(nextFailureNumber)) {
+            nextFailureNumber++;
+        }
+
+        if (nextFailureNumber >= maxFailures) {
+            markExhausted();
+        }
+    }
+
+    private boolean tryToClaimFailureNumber(int failureNumber) throws IOException {
+
+        try {
+            Files.createFile(directory.resolve(Integer.toString(failureNumber)));
+            return true;
+        } catch (FileAlreadyExistsException e) {
+            return false;
+        }
+    }
+
+    private void markExhausted() throws IOException {
+
+        exhausted = true;
+        try {
+            Files.createFile(directory.resolve(EXHAUSTED_MARKER));
+        } catch (FileAlreadyExistsException e) {
+            // another worker used up the budget at the same time
+        }
+    }
+
+}
@@ -0,0 +1,69 @@
+package at.zierler.gradle;
+
+import at.zierler.yamlvalidator.FileValidationStatistics;
+import at.zierler.yamlvalidator.ValidationFailure;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Result of one batch of YAML files. Workers write it to a file, so it reaches the task independent of the
+ * isolation the workers run with.
+ */
+final class ValidationBatchResult implements Serializable {
+
+    private static final long serialVersionUID = 3L;
+
+    private final List<FileValidationStatistics> statistics;
+    private final List<ValidationFailure> failures;
+    private final int duplicateContents;
+
+    /**
+     * @param duplicateContents how many files took over the result of a file with the same content
+     */
+    ValidationBatchResult(List<FileValidationStatistics> statistics, List<ValidationFailure> failures, int duplicateContents) {
+
+        this.statistics = new ArrayList<>(statistics);
+        this.failures = new ArrayList<>(failures);
+        this.duplicateContents = duplicateContents;
+    }
+
+    List<FileValidationStatistics> getStatistics() {
+
+        return Collections.unmodifiableList(statistics);
+    }
+
+    List<ValidationFailure> getFailures() {
+
+        return Collections.unmodifiableList(failures);
+    }
+
+    int getDuplicateContents() {
+
+        return duplicateContents;
+    }
+
+    void writeTo(Path file) throws IOException {
+
+        try (ObjectOutputStream outputStream = new ObjectOutputStream(Files.newOutputStream(file))) {
+            outputStream.writeObject(this);
+        }
+    }
+
+    static ValidationBatchResult readFrom(Path file) throws IOException {
+
+        try (ObjectInputStream inputStream = new ObjectInputStream(Files.newInputStream(file))) {
+            return (ValidationBatchResult) inputStream.readObject();
+        } catch (ClassNotFoundException e) {
+            throw new IOException(String.format("Couldn't read validation result from %s.", file), e);
+        }
+    }
+
+}
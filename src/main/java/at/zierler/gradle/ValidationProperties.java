@@ -1,17 +1,105 @@
 package at.zierler.gradle;
 
-import lombok.Data;
+import at.zierler.yamlvalidator.ValidationMode;
+import org.gradle.api.provider.ListProperty;
+import org.gradle.api.provider.MapProperty;
+import org.gradle.api.provider.Property;
 
+import java.util.Arrays;
 import java.util.Collections;
-import java.util.List;
 
-@Data
-public class ValidationProperties {
+public abstract class ValidationProperties {
 
     static final String DEFAULT_DIRECTORY = "src/main/resources/";
 
-    private List<String> searchPaths = Collections.singletonList(DEFAULT_DIRECTORY);
-    private boolean allowDuplicates = false;
-    private boolean searchRecursive = false;
+    public abstract ListProperty<String> getSearchPaths();
+
+    public abstract Property<Boolean> getAllowDuplicates();
+
+    public abstract Property<Boolean> getSearchRecursive();
+
+    public abstract ListProperty<String> getFileExtensions();
+
+    public abstract ListProperty<String> getIncludes();
+
+    public abstract ListProperty<String> getExcludes();
+
+    public abstract Property<ValidationMode> getValidationMode();
+
+    public abstract Property<Long> getMaxFileBytes();
+
+    public abstract Property<Integer> getMaxNestingDepth();
+
+    public abstract Property<Integer> getMaxAliasesForCollections();
+
+    public abstract Property<Integer> getMaxCodePoints();
+
+    public abstract Property<Long> getMaxSecondsPerFile();
+
+    public abstract Property<Boolean> getFailFast();
+
+    public abstract Property<Integer> getMaxFailures();
+
+    public abstract Property<Boolean> getResultCache();
+
+    public abstract Property<Integer> getResultCacheMaxEntries();
+
+    public abstract Property<Integer> getMaxParallelism();
+
+    public abstract Property<WorkerIsolation> getWorkerIsolation();
+
+    public abstract Property<Integer> getReportSlowestFiles();
+
+    public abstract Property<Boolean> getParallelDocuments();
+
+    public abstract ListProperty<String> getArchiveExtensions();
+
+    public abstract Property<Long> getParallelDocumentsMinBytes();
+
+    public abstract MapProperty<String, String> getSchemas();
+
+    public abstract MapProperty<String, String> getParserBackends();
+
+    public abstract Property<Boolean> getPrescan();
+
+    public abstract Property<String> getSince();
+
+    public abstract MapProperty<String, String> getKeyGroups();
+
+    public abstract Property<Boolean> getJunitXmlReport();
+
+    public abstract Property<Boolean> getSarifReport();
+
+    public ValidationProperties() {
+
+        getSearchPaths().convention(Collections.singletonList(DEFAULT_DIRECTORY));
+        getAllowDuplicates().convention(false);
+        getSearchRecursive().convention(false);
+        getFileExtensions().convention(Arrays.asList("yaml", "yml"));
+        getIncludes().convention(Collections.emptyList());
+        getExcludes().convention(Collections.emptyList());
+        getValidationMode().convention(ValidationMode.LOAD);
+        getMaxFileBytes().convention(Long.MAX_VALUE);
+        getMaxNestingDepth().convention(50);
+        getMaxAliasesForCollections().convention(50);
+        getMaxCodePoints().convention(Integer.MAX_VALUE);
+        getMaxSecondsPerFile().convention(0L);
+        getFailFast().convention(true);
+        getMaxFailures().convention(Integer.MAX_VALUE);
+        getResultCache().convention(false);
+        getResultCacheMaxEntries().convention(100_000);
+        getMaxParallelism().convention(Runtime.getRuntime().availableProcessors());
+        getWorkerIsolation().convention(WorkerIsolation.NONE);
+        getReportSlowestFiles().convention(10);
+        getParallelDocuments().convention(false);
+        getArchiveExtensions().convention(Collections.emptyList());
+        getParallelDocumentsMinBytes().convention(1024L * 1024L);
+        getSchemas().convention(Collections.emptyMap());
+        getParserBackends().convention(Collections.emptyMap());
+        getPrescan().convention(false);
+        getKeyGroups().convention(Collections.emptyMap());
+        getJunitXmlReport().convention(false);
+        getSarifReport().convention(false);
+    }
 
 }
@@ -0,0 +1,405 @@
+package at.zierler.gradle;
+
+import at.zierler.yamlvalidator.FileValidationStatistics;
+import at.zierler.yamlvalidator.JsonSchema;
+import at.zierler.yamlvalidator.ParserBackendMapping;
+import at.zierler.yamlvalidator.SchemaMapping;
+import at.zierler.yamlvalidator.ValidationFailure;
+import at.zierler.yamlvalidator.ValidationLimits;
+import at.zierler.yamlvalidator.ValidationMode;
+import at.zierler.yamlvalidator.ValidationResultCache;
+import at.zierler.yamlvalidator.YamlFileScanner;
+import at.zierler.yamlvalidator.YamlFileValidator;
+import at.zierler.yamlvalidator.YamlValidationEngine;
+import org.gradle.api.DefaultTask;
+import org.gradle.api.file.ConfigurableFileCollection;
+import org.gradle.api.file.DirectoryProperty;
+import org.gradle.api.provider.ListProperty;
+import org.gradle.api.provider.MapProperty;
+import org.gradle.api.provider.Property;
+import org.gradle.api.tasks.Internal;
+import org.gradle.api.tasks.TaskAction;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Validates all YAML files once and then watches the search paths, validating every changed YAML file again as
+ * soon as it was written. Files are validated by a {@link YamlValidationEngine} run per change, like the workers
+ * of {@code validateYaml} validate them. The validator, the compiled schemas and the results of known contents
+ * stay warm between changes, so the result of a change is printed within milliseconds. Runs until the build is
+ * cancelled, e.g. with Ctrl+C.
+ */
+public abstract class WatchYamlTask extends DefaultTask {
+
+    static final String WATCHING_MESSAGE = "Watching %s director(ies) for changes of YAML files, press Ctrl+C to stop.";
+    static final String VALID_FILE_MESSAGE = "YAML file '%s' is valid (%s ms).";
+    static final String INVALID_FILE_MESSAGE = "YAML file '%s' is invalid (%s ms):";
+    static final String INITIAL_VALIDATION_MESSAGE = "Validated %s YAML file(s), %s invalid.";
+
+    /**
+     * Editors often write a file in several steps, changes within this time are validated once.
+     */
+    private static final long SETTLE_MILLIS = 50;
+
+    private final Map<WatchKey, Path> watchedDirectories = new HashMap<>();
+    private final Map<Path, JsonSchema> compiledSchemas = new HashMap<>();
+    private final Map<ByteBuffer, YamlValidationEngine.KnownContent> knownContents = new HashMap<>();
+    private final Set<Path> schemaFiles = new HashSet<>();
+    private YamlFileScanner scanner;
+    private SchemaMapping schemaMapping;
+    private YamlValidationEngine engine;
+    private YamlFileValidator validator;
+    private ValidationResultCache resultCache;
+
+    public WatchYamlTask() {
+
+        doNotTrackState("Watches the YAML files until it is cancelled.");
+    }
+
+    /**
+     * Files and directories to watch, resolved against the project directory.
+     */
+    @Internal
+    public abstract ConfigurableFileCollection getSearchPaths();
+
+    @Internal
+    public abstract Property<Boolean> getAllowDuplicates();
+
+    @Internal
+    public abstract Property<Boolean> getSearchRecursive();
+
+    @Internal
+    public abstract ListProperty<String> getFileExtensions();
+
+    @Internal
+    public abstract ListProperty<String> getIncludes();
+
+    @Internal
+    public abstract ListProperty<String> getExcludes();
+
+    @Internal
+    public abstract Property<ValidationMode> getValidationMode();
+
+    @Internal
+    public abstract Property<ValidationLimits> getLimits();
+
+    @Internal
+    public abstract ListProperty<String> getArchiveExtensions();
+
+    @Internal
+    public abstract MapProperty<String, String> getSchemas();
+
+    @Internal
+    public abstract MapProperty<String, String> getParserBackends();
+
+    @Internal
+    public abstract Property<Boolean> getPrescan();
+
+    @Internal
+    public abstract DirectoryProperty getProjectDirectory();
+
+    @Internal
+    public abstract Property<Boolean> getResultCache();
+
+    @Internal
+    public abstract Property<Integer> getResultCacheMaxEntries();
+
+    @Internal
+    public abstract DirectoryProperty getGradleUserHome();
+
+    @Internal
+    public abstract Property<Boolean> getParallelDocuments();
+
+    @Internal
+    public abstract Property<Long> getParallelDocumentsMinBytes();
+
+    /**
+     * Number of changes after which watching stops, or 0 to watch until the build is cancelled.
+     */
+    @Internal
+    public abstract Property<Integer> getMaxChanges();
+
+    @TaskAction
+    public void watch() throws IOException {
+
+        scanner = new YamlFileScanner(FileSystems.getDefault(), getFileExtensions().get(), getIncludes().get(), getExcludes().get(),
+                getSearchRecursive().get(), getArchiveExtensions().get());
+        schemaMapping = createSchemaMapping();
+        ParserBackendMapping backendMapping = new ParserBackendMapping(FileSystems.getDefault(),
+                getProjectDirectory().get().getAsFile().toPath().toRealPath(), YamlValidatorTask.parserBackendsOf(getParserBackends().get()));
+        engine = new YamlValidationEngine(scanner, schemaMapping, backendMapping, getAllowDuplicates().get(), getValidationMode().get(),
+                getLimits().get(), getParallelDocuments().get() ? getParallelDocumentsMinBytes().get() : Long.MAX_VALUE, getPrescan().get());
+        validator = new YamlFileValidator(getAllowDuplicates().get(), getValidationMode().get(), getLimits().get(), getPrescan().get());
+        resultCache = getResultCache().get() ? openResultCache() : null;
+
+        try (WatchService watchService = FileSystems.getDefault().newWatchService()) {
+            List<Path> searchPaths = registerSearchPaths(watchService);
+            validateAllFiles(searchPaths);
+            getLogger().lifecycle(String.format(WATCHING_MESSAGE, watchedDirectories.size()));
+            watchForChanges(watchService, searchPaths);
+        } catch (InterruptedException e) {
+            // the build was cancelled
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private ValidationResultCache openResultCache() {
+
+        try {
+            ValidationResultCache cache = ValidationResultCache.forGradleUserHome(getGradleUserHome().get().getAsFile().toPath(),
+                    getResultCacheMaxEntries().get());
+            cache.refresh();
+            return cache;
+        } catch (IOException | RuntimeException e) {
+            getLogger().warn(String.format(YamlValidatorTask.RESULT_CACHE_FAILURE_MESSAGE, e));
+            return null;
+        }
+    }
+
+    private SchemaMapping createSchemaMapping() throws IOException {
+
+        Map<String, File> schemaFiles = new LinkedHashMap<>();
+        getSchemas().get().forEach((pattern, path) -> schemaFiles.put(pattern, getProjectDirectory().file(path).get().getAsFile()));
+        Path projectDirectory = getProjectDirectory().get().getAsFile().toPath().toRealPath();
+
+        return new SchemaMapping(FileSystems.getDefault(), projectDirectory, schemaFiles);
+    }
+
+    /**
+     * Watches each searched directory, its subdirectories when searching recursively, the directory of each
+     * searched file and the directories of the schema files.
+     */
+    private List<Path> registerSearchPaths(WatchService watchService) throws IOException {
+
+        List<Path> searchPaths = new ArrayList<>();
+
+        for (File path : getSearchPaths()) {
+            Path fileOrDirectory = path.toPath().toAbsolutePath().toRealPath();
+            searchPaths.add(fileOrDirectory);
+            if (Files.isDirectory(fileOrDirectory)) {
+                registerDirectory(watchService, fileOrDirectory, fileOrDirectory);
+            } else {
+                register(watchService, fileOrDirectory.getParent());
+            }
+        }
+
+        for (Path schemaFile : schemaMapping.getSchemaFiles()) {
+            Path realSchemaFile = schemaFile.toAbsolutePath().toRealPath();
+            schemaFiles.add(realSchemaFile);
+            register(watchService, realSchemaFile.getParent());
+        }
+
+        return searchPaths;
+    }
+
+    /**
+     * Excluded directories aren't watched, like they aren't scanned, so trees like {@code node_modules} don't use up
+     * the watches of the operating system.
+     *
+     * @param searchPath the searched directory the exclude patterns are relative to
+     */
+    private void registerDirectory(WatchService watchService, Path searchPath, Path directory) throws IOException {
+
+        if (!scanner.isRecursive()) {
+            register(watchService, directory);
+            return;
+        }
+
+        Files.walkFileTree(directory, new SimpleFileVisitor<Path>() {
+
+            @Override
+            public FileVisitResult preVisitDirectory(Path subdirectory, BasicFileAttributes attributes) throws IOException {
+
+                if (scanner.isExcludedDirectory(searchPath, subdirectory)) {
+                    return FileVisitResult.SKIP_SUBTREE;
+                }
+                register(watchService, subdirectory);
+                return FileVisitResult.CONTINUE;
+            }
+
+        });
+    }
+
+    private void register(WatchService watchService, Path directory) throws IOException {
+
+        if (!watchedDirectories.containsValue(directory)) {
+            WatchKey key = directory.register(watchService,
+                    StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+            watchedDirectories.put(key, directory);
+        }
+    }
+
+    private void validateAllFiles(List<Path> searchPaths) throws IOException {
+
+        Set<Path> files = new LinkedHashSet<>();
+
+        for (Path searchPath : searchPaths) {
+            files.addAll(scanner.scan(searchPath));
+        }
+
+        WatchListener listener = validate(files);
+        getLogger().lifecycle(String.format(INITIAL_VALIDATION_MESSAGE, listener.files, listener.invalidFiles));
+    }
+
+    private void watchForChanges(WatchService watchService, List<Path> searchPaths) throws InterruptedException, IOException {
+
+        int maxChanges = getMaxChanges().get();
+
+        for (int changes = 0; maxChanges == 0 || changes < maxChanges; ) {
+            Set<Path> changedFiles = new LinkedHashSet<>();
+            collectChangedFiles(watchService.take(), changedFiles);
+            for (WatchKey key = watchService.poll(SETTLE_MILLIS, TimeUnit.MILLISECONDS); key != null;
+                 key = watchService.poll(SETTLE_MILLIS, TimeUnit.MILLISECONDS)) {
+                collectChangedFiles(key, changedFiles);
+            }
+
+            if (changedFiles.stream().anyMatch(schemaFiles::contains)) {
+                compiledSchemas.clear();
+                knownContents.clear();
+                validateAllFiles(searchPaths);
+                changes++;
+                continue;
+            }
+
+            Set<Path> files = new LinkedHashSet<>();
+            for (Path changedFile : changedFiles) {
+                Path searchPath = Files.isDirectory(changedFile) ? findRecursiveSearchPath(searchPaths, changedFile) : null;
+                if (searchPath != null) {
+                    if (!scanner.isExcludedDirectory(searchPath, changedFile)) {
+                        registerDirectory(watchService, searchPath, changedFile);
+                        for (Path file : scanner.scan(changedFile)) {
+                            if (scanner.isYamlFileIn(searchPath, file)) {
+                                files.add(file);
+                            }
+                        }
+                        changes++;
+                    }
+                } else if (isSearched(searchPaths, changedFile)) {
+                    files.add(changedFile);
+                    changes++;
+                }
+            }
+            validate(files);
+        }
+    }
+
+    private void collectChangedFiles(WatchKey key, Set<Path> changedFiles) {
+
+        Path directory = watchedDirectories.get(key);
+
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (directory != null && event.context() instanceof Path) {
+                changedFiles.add(directory.resolve((Path) event.context()));
+            }
+        }
+
+        if (!key.reset()) {
+            watchedDirectories.remove(key);
+        }
+    }
+
+    /**
+     * @return the recursively searched directory the directory is in, or {@code null}
+     */
+    private Path findRecursiveSearchPath(List<Path> searchPaths, Path directory) {
+
+        if (!scanner.isRecursive()) {
+            return null;
+        }
+        return searchPaths.stream().filter(directory::startsWith).findFirst().orElse(null);
+    }
+
+    private boolean isSearched(List<Path> searchPaths, Path file) {
+
+        if (!Files.isRegularFile(file)) {
+            return false;
+        }
+
+        for (Path searchPath : searchPaths) {
+            if (searchPath.equals(file) || scanner.isYamlFileIn(searchPath, file)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Validates the files in a run of their own, which shares the known contents and the compiled schemas with the
+     * runs before, and adds the contents found valid to the result cache.
+     */
+    private WatchListener validate(Collection<Path> files) {
+
+        YamlValidationEngine.Run run = engine.startRun(validator, knownContents, compiledSchemas, resultCache);
+        WatchListener listener = new WatchListener();
+
+        for (Path file : files) {
+            listener.startNanos = System.nanoTime();
+            run.validate(file, listener);
+        }
+
+        Exception resultCacheFailure = run.rememberValidContents();
+        if (resultCacheFailure != null) {
+            getLogger().warn(String.format(YamlValidatorTask.RESULT_CACHE_FAILURE_MESSAGE, resultCacheFailure));
+        }
+
+        return listener;
+    }
+
+    /**
+     * Prints the result of every file and archive entry, watching never stops because of failures.
+     */
+    private final class WatchListener implements YamlValidationEngine.Listener {
+
+        private long startNanos;
+        private int files;
+        private int invalidFiles;
+
+        @Override
+        public void validated(FileValidationStatistics statistics, ValidationFailure failure) {
+
+            // an archive which couldn't be read has no statistics
+            String file = statistics != null ? statistics.getFile() : failure.getFile();
+            long millis = TimeUnit.NANOSECONDS.toMillis(statistics != null ? statistics.getNanos() : System.nanoTime() - startNanos);
+            files++;
+
+            if (failure == null) {
+                getLogger().lifecycle(String.format(VALID_FILE_MESSAGE, file, millis));
+                return;
+            }
+
+            invalidFiles++;
+            getLogger().error(String.format(INVALID_FILE_MESSAGE, file, millis) + System.lineSeparator() + "    "
+                    + failure.describeProblem().trim().replace("\n", System.lineSeparator() + "    "));
+        }
+
+        @Override
+        public boolean isFailureBudgetExhausted() {
+
+            return false;
+        }
+
+    }
+
+}
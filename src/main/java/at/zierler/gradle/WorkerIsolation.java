@@ -0,0 +1,16 @@
+package at.zierler.gradle;
+
+public enum WorkerIsolation {
+
+    /**
+     * Validate in the Gradle daemon with the classloader of the plugin.
+     */
+    NONE,
+
+    /**
+     * Validate in the Gradle daemon with an isolated classloader, so the SnakeYAML version
+     * of this plugin can't clash with the one of other plugins.
+     */
+    CLASSLOADER
+
+}
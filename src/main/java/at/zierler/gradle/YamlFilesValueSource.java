@@ -0,0 +1,87 @@
+package at.zierler.gradle;
+
+import at.zierler.yamlvalidator.YamlFileScanner;
+import org.gradle.api.file.ConfigurableFileCollection;
+import org.gradle.api.provider.ListProperty;
+import org.gradle.api.provider.Property;
+import org.gradle.api.provider.ValueSource;
+import org.gradle.api.provider.ValueSourceParameters;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Scans the search paths for YAML files, except for the files in skipped paths. Used as a task input only, so the
+ * configuration cache stores the search itself instead of its result and files added after the cache entry was
+ * written are still found.
+ */
+public abstract class YamlFilesValueSource implements ValueSource<List<File>, YamlFilesValueSource.Parameters> {
+
+    public interface Parameters extends ValueSourceParameters {
+
+        ConfigurableFileCollection getSearchPaths();
+
+        ConfigurableFileCollection getSkippedPaths();
+
+        ListProperty<String> getFileExtensions();
+
+        ListProperty<String> getIncludes();
+
+        ListProperty<String> getExcludes();
+
+        Property<Boolean> getSearchRecursive();
+
+        ListProperty<String> getArchiveExtensions();
+
+    }
+
+    @Override
+    public List<File> obtain() {
+
+        Parameters parameters = getParameters();
+        YamlFileScanner scanner = new YamlFileScanner(
+                FileSystems.getDefault(),
+                parameters.getFileExtensions().get(),
+                parameters.getIncludes().get(),
+                parameters.getExcludes().get(),
+                parameters.getSearchRecursive().get(),
+                parameters.getArchiveExtensions().get());
+        List<File> files = new ArrayList<>();
+
+        try {
+            List<Path> skippedPaths = realPathsOf(parameters.getSkippedPaths());
+            for (File path : parameters.getSearchPaths()) {
+                Path fileOrDirectory = path.toPath();
+                if (Files.exists(fileOrDirectory)) {
+                    scanner.scan(fileOrDirectory.toRealPath()).stream()
+                            .filter(file -> skippedPaths.stream().noneMatch(file::startsWith))
+                            .forEach(file -> files.add(file.toFile()));
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        return files;
+    }
+
+    private static List<Path> realPathsOf(Iterable<File> paths) throws IOException {
+
+        List<Path> realPaths = new ArrayList<>();
+
+        for (File path : paths) {
+            if (path.exists()) {
+                realPaths.add(path.toPath().toRealPath());
+            }
+        }
+
+        return realPaths;
+    }
+
+}
@@ -0,0 +1,102 @@
+package at.zierler.gradle;
+
+import at.zierler.yamlvalidator.JsonSchema;
+import at.zierler.yamlvalidator.ValidationLimits;
+import at.zierler.yamlvalidator.ValidationMode;
+import at.zierler.yamlvalidator.YamlFileValidator;
+import at.zierler.yamlvalidator.YamlValidationEngine;
+import org.gradle.api.provider.Property;
+import org.gradle.api.services.BuildService;
+import org.gradle.api.services.BuildServiceParameters;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Shared by all {@code validateYaml} tasks of a build. It pools the validators, so every worker doesn't have to
+ * set up its own parser, compiles every schema only once, remembers the result of every content by its hash, which
+ * includes the settings, so files pulled into several projects and byte-identical files are parsed only once per
+ * build, and limits how many files are validated at the same time.
+ * <p>
+ * Only used by workers without isolation, isolated workers can't share objects with the build.
+ */
+public abstract class YamlValidationService implements BuildService<YamlValidationService.Parameters>, AutoCloseable {
+
+    static final String SERVICE_NAME = "yamlValidation";
+
+    public interface Parameters extends BuildServiceParameters {
+
+        Property<Integer> getMaxConcurrentValidations();
+
+    }
+
+    private final Map<String, Queue<YamlFileValidator>> validators = new ConcurrentHashMap<>();
+    private final Map<ByteBuffer, YamlValidationEngine.KnownContent> knownContents = new ConcurrentHashMap<>();
+    private final Map<Path, JsonSchema> schemas = new ConcurrentHashMap<>();
+    private final Semaphore validations;
+
+    public YamlValidationService() {
+
+        this.validations = new Semaphore(Math.max(1, getParameters().getMaxConcurrentValidations().get()));
+    }
+
+    YamlFileValidator borrowValidator(boolean allowDuplicates, ValidationMode validationMode, ValidationLimits limits, boolean prescan) {
+
+        YamlFileValidator validator = validatorsFor(YamlFileValidator.describeSettings(allowDuplicates, validationMode, limits), prescan).poll();
+
+        return validator != null ? validator : new YamlFileValidator(allowDuplicates, validationMode, limits, prescan);
+    }
+
+    void returnValidator(YamlFileValidator validator) {
+
+        validatorsFor(validator.describeSettings(), validator.isPrescan()).offer(validator);
+    }
+
+    /**
+     * @return the schemas compiled in this build by their file, so every schema is compiled only once
+     */
+    Map<Path, JsonSchema> getSchemas() {
+
+        return schemas;
+    }
+
+    void acquireValidation() throws InterruptedException {
+
+        validations.acquire();
+    }
+
+    void releaseValidation() {
+
+        validations.release();
+    }
+
+    /**
+     * @return the results of the contents validated in this build, by the hash of the content and the settings
+     */
+    Map<ByteBuffer, YamlValidationEngine.KnownContent> getKnownContents() {
+
+        return knownContents;
+    }
+
+    @Override
+    public void close() {
+
+        validators.clear();
+        knownContents.clear();
+        schemas.clear();
+    }
+
+    /**
+     * Whether a validator pre-scans doesn't change any result, so it isn't part of the settings, but of the pool.
+     */
+    private Queue<YamlFileValidator> validatorsFor(String settings, boolean prescan) {
+
+        return validators.computeIfAbsent(settings + ", prescan=" + prescan, key -> new ConcurrentLinkedQueue<>());
+    }
+
+}
@@ -0,0 +1,323 @@
+package at.zierler.gradle;
+
+import at.zierler.yamlvalidator.FileValidationStatistics;
+import at.zierler.yamlvalidator.ParserBackend;
+import at.zierler.yamlvalidator.ParserBackendMapping;
+import at.zierler.yamlvalidator.SchemaMapping;
+import at.zierler.yamlvalidator.ValidationFailure;
+import at.zierler.yamlvalidator.ValidationLimits;
+import at.zierler.yamlvalidator.ValidationMode;
+import at.zierler.yamlvalidator.ValidationResultCache;
+import at.zierler.yamlvalidator.YamlFileScanner;
+import at.zierler.yamlvalidator.YamlFileValidator;
+import at.zierler.yamlvalidator.YamlValidationEngine;
+import org.gradle.api.file.ConfigurableFileCollection;
+import org.gradle.api.file.DirectoryProperty;
+import org.gradle.api.file.RegularFileProperty;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.api.provider.ListProperty;
+import org.gradle.api.provider.MapProperty;
+import org.gradle.api.provider.Property;
+import org.gradle.workers.WorkAction;
+import org.gradle.workers.WorkParameters;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static at.zierler.gradle.YamlValidatorTask.CACHED_FILE_MESSAGE;
+import static at.zierler.gradle.YamlValidatorTask.DOCUMENT_SUCCESS_MESSAGE;
+import static at.zierler.gradle.YamlValidatorTask.DUPLICATE_CONTENT_MESSAGE;
+import static at.zierler.gradle.YamlValidatorTask.FILE_FAILURE_MESSAGE;
+import static at.zierler.gradle.YamlValidatorTask.FILE_SUCCESS_MESSAGE;
+import static at.zierler.gradle.YamlValidatorTask.RESULT_CACHE_FAILURE_MESSAGE;
+import static at.zierler.gradle.YamlValidatorTask.STARTING_FILE_MESSAGE;
+
+/**
+ * Validates one batch of YAML files with the {@link YamlValidationEngine} and writes a {@link ValidationBatchResult}.
+ * The batch stops as soon as the {@link FailureBudget} shared by all batches is exhausted. Files with the content of a file validated before
+ * with the same settings take over its result, within the build if the workers share the {@link YamlValidationService},
+ * within the batch otherwise.
+ */
+public abstract class YamlValidationWorkAction implements WorkAction<YamlValidationWorkAction.Parameters> {
+
+    private static final Logger LOGGER = Logging.getLogger(YamlValidationWorkAction.class);
+
+    public interface Parameters extends WorkParameters {
+
+        ConfigurableFileCollection getYamlFiles();
+
+        Property<Boolean> getAllowDuplicates();
+
+        Property<ValidationMode> getValidationMode();
+
+        Property<ValidationLimits> getLimits();
+
+        DirectoryProperty getFailureBudgetDirectory();
+
+        Property<Integer> getMaxFailures();
+
+        RegularFileProperty getResultFile();
+
+        /**
+         * Only present when the persistent result cache is enabled.
+         */
+        DirectoryProperty getGradleUserHome();
+
+        Property<Integer> getResultCacheMaxEntries();
+
+        /**
+         * Only present when the workers run without isolation.
+         */
+        Property<YamlValidationService> getValidationService();
+
+        /**
+         * Schema files by the glob pattern of the YAML files they apply to.
+         */
+        MapProperty<String, File> getSchemaFiles();
+
+        /**
+         * Parser backends by the glob pattern of the YAML files they apply to.
+         */
+        MapProperty<String, ParserBackend> getParserBackends();
+
+        DirectoryProperty getProjectDirectory();
+
+        /**
+         * Whether obviously broken files are rejected by the pre-scanner before they are parsed.
+         */
+        Property<Boolean> getPrescan();
+
+        /**
+         * Size from which the documents of a file are validated in parallel.
+         */
+        Property<Long> getParallelDocumentsMinBytes();
+
+        /**
+         * Extensions of archives whose entries are validated, the other filters apply to the entries.
+         */
+        ListProperty<String> getArchiveExtensions();
+
+        ListProperty<String> getFileExtensions();
+
+        ListProperty<String> getIncludes();
+
+        ListProperty<String> getExcludes();
+
+    }
+
+    private YamlValidationService service;
+    private FailureBudget failureBudget;
+    private final List<FileValidationStatistics> statistics = new ArrayList<>();
+    private final List<ValidationFailure> failures = new ArrayList<>();
+    private int duplicateContents;
+
+    @Override
+    public void execute() {
+
+        service = getParameters().getValidationService().getOrNull();
+        YamlFileValidator validator = borrowValidator();
+        failureBudget = new FailureBudget(
+                getParameters().getFailureBudgetDirectory().get().getAsFile().toPath(),
+                getParameters().getMaxFailures().get());
+
+        try {
+            YamlValidationEngine.Run run = startRun(validator);
+            BatchListener listener = new BatchListener();
+
+            for (File file : getParameters().getYamlFiles()) {
+                if (failureBudget.isExhausted()) {
+                    break;
+                }
+                Path path = file.toPath();
+                withinConcurrencyLimit(path, () -> run.validate(path, listener));
+            }
+
+            Exception resultCacheFailure = run.rememberValidContents();
+            if (resultCacheFailure != null) {
+                LOGGER.warn(String.format(RESULT_CACHE_FAILURE_MESSAGE, resultCacheFailure));
+            }
+
+            new ValidationBatchResult(statistics, failures, duplicateContents).writeTo(getParameters().getResultFile().get().getAsFile().toPath());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            if (service != null) {
+                service.returnValidator(validator);
+            }
+        }
+    }
+
+    /**
+     * Contents and schemas are known to all batches of the build if the workers share the service, to the
+     * batch only otherwise.
+     */
+    private YamlValidationEngine.Run startRun(YamlFileValidator validator) throws IOException {
+
+        YamlFileScanner scanner = new YamlFileScanner(
+                FileSystems.getDefault(),
+                getParameters().getFileExtensions().get(),
+                getParameters().getIncludes().get(),
+                getParameters().getExcludes().get(),
+                false,
+                getParameters().getArchiveExtensions().get());
+        YamlValidationEngine engine = new YamlValidationEngine(scanner, createSchemaMapping(), createParserBackendMapping(),
+                getParameters().getAllowDuplicates().get(), getParameters().getValidationMode().get(), getParameters().getLimits().get(),
+                getParameters().getParallelDocumentsMinBytes().get(), getParameters().getPrescan().getOrElse(false));
+        ValidationResultCache resultCache = openResultCache();
+
+        return service != null
+                ? engine.startRun(validator, service.getKnownContents(), service.getSchemas(), resultCache)
+                : engine.startRun(validator, new HashMap<>(), new HashMap<>(), resultCache);
+    }
+
+    private SchemaMapping createSchemaMapping() throws IOException {
+
+        Map<String, File> schemaFiles = getParameters().getSchemaFiles().getOrElse(Collections.emptyMap());
+        Path projectDirectory = schemaFiles.isEmpty() ? null : getParameters().getProjectDirectory().get().getAsFile().toPath().toRealPath();
+
+        return new SchemaMapping(FileSystems.getDefault(), projectDirectory, schemaFiles);
+    }
+
+    private ParserBackendMapping createParserBackendMapping() throws IOException {
+
+        Map<String, ParserBackend> backends = getParameters().getParserBackends().getOrElse(Collections.emptyMap());
+        Path projectDirectory = backends.isEmpty() ? null : getParameters().getProjectDirectory().get().getAsFile().toPath().toRealPath();
+
+        return new ParserBackendMapping(FileSystems.getDefault(), projectDirectory, backends);
+    }
+
+    private YamlFileValidator borrowValidator() {
+
+        boolean allowDuplicates = getParameters().getAllowDuplicates().get();
+        ValidationMode validationMode = getParameters().getValidationMode().get();
+        ValidationLimits limits = getParameters().getLimits().get();
+        boolean prescan = getParameters().getPrescan().getOrElse(false);
+
+        return service != null
+                ? service.borrowValidator(allowDuplicates, validationMode, limits, prescan)
+                : new YamlFileValidator(allowDuplicates, validationMode, limits, prescan);
+    }
+
+    private void withinConcurrencyLimit(Path file, Validation validation) throws IOException {
+
+        if (service == null) {
+            validation.run();
+            return;
+        }
+
+        try {
+            service.acquireValidation();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException(String.format("Interrupted while waiting to validate %s.", file));
+        }
+
+        try {
+            validation.run();
+        } finally {
+            service.releaseValidation();
+        }
+    }
+
+    /**
+     * Formats the message only if it is going to be logged, so validating pays nothing for it when INFO is disabled.
+     */
+    private static void logInfo(String format, Object... arguments) {
+
+        if (LOGGER.isInfoEnabled()) {
+            LOGGER.info(String.format(format, arguments));
+        }
+    }
+
+    /**
+     * @return the persistent result cache, or {@code null} if it is disabled or can't be opened
+     */
+    private ValidationResultCache openResultCache() {
+
+        if (!getParameters().getGradleUserHome().isPresent()) {
+            return null;
+        }
+
+        try {
+            ValidationResultCache resultCache = ValidationResultCache.forGradleUserHome(
+                    getParameters().getGradleUserHome().get().getAsFile().toPath(),
+                    getParameters().getResultCacheMaxEntries().get());
+            resultCache.refresh();
+            return resultCache;
+        } catch (IOException | RuntimeException e) {
+            LOGGER.warn(String.format(RESULT_CACHE_FAILURE_MESSAGE, e));
+            return null;
+        }
+    }
+
+    /**
+     * Logs the progress of the batch, collects its results and counts its failures towards the failure budget
+     * shared by all batches.
+     */
+    private final class BatchListener implements YamlValidationEngine.Listener {
+
+        @Override
+        public void starting(String file) {
+
+            logInfo(STARTING_FILE_MESSAGE, file);
+        }
+
+        @Override
+        public void documentValidated(String file, int documentIndex) {
+
+            logInfo(DOCUMENT_SUCCESS_MESSAGE, documentIndex, file);
+        }
+
+        @Override
+        public void duplicateContent(String file, String knownFile) {
+
+            logInfo(DUPLICATE_CONTENT_MESSAGE, file, knownFile);
+            duplicateContents++;
+        }
+
+        @Override
+        public void validated(FileValidationStatistics fileStatistics, ValidationFailure failure) {
+
+            if (fileStatistics != null) {
+                statistics.add(fileStatistics);
+                if (fileStatistics.getResult() == FileValidationStatistics.Result.CACHED) {
+                    logInfo(CACHED_FILE_MESSAGE, fileStatistics.getFile());
+                }
+                logInfo(failure != null ? FILE_FAILURE_MESSAGE : FILE_SUCCESS_MESSAGE, fileStatistics.getFile());
+            }
+
+            if (failure != null) {
+                failures.add(failure);
+                try {
+                    failureBudget.recordFailure();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        }
+
+        @Override
+        public boolean isFailureBudgetExhausted() {
+
+            return failureBudget.isExhausted();
+        }
+
+    }
+
+    private interface Validation {
+
+        void run() throws IOException;
+
+    }
+
+}
@@ -1,31 +1,190 @@
 package at.zierler.gradle;
 
+import at.zierler.yamlvalidator.ValidationLimits;
 import org.gradle.api.Plugin;
 import org.gradle.api.Project;
 import org.gradle.api.Task;
+import org.gradle.api.file.FileCollection;
+import org.gradle.api.file.RegularFile;
+import org.gradle.api.plugins.JavaBasePlugin;
+import org.gradle.api.plugins.JavaPluginExtension;
+import org.gradle.api.provider.Provider;
+import org.gradle.api.tasks.SourceSet;
 import org.gradle.api.tasks.TaskContainer;
+import org.gradle.api.tasks.TaskProvider;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.Locale;
+import java.util.Map;
 
 public class YamlValidatorPlugin implements Plugin<Project> {
 
     static final String VALIDATE_YAML_TASK_NAME = "validateYaml";
-
-    private YamlValidatorTask yamlValidatorTask;
+    static final String VALIDATE_SOURCE_SET_YAML_TASK_NAME = "validate%sYaml";
+    static final String WATCH_YAML_TASK_NAME = "watchYaml";
+    static final String MAX_CONCURRENT_VALIDATIONS_PROPERTY = "yamlValidator.maxConcurrentValidations";
+    static final String SINCE_PROPERTY = "yamlValidator.since";
 
     @Override
     public void apply(Project project) {
 
-        project.getExtensions().create("yamlValidator", ValidationProperties.class);
+        ValidationProperties validationProperties = project.getExtensions().create("yamlValidator", ValidationProperties.class);
+        validationProperties.getSince().convention(project.getProviders().gradleProperty(SINCE_PROPERTY));
 
         TaskContainer tasks = project.getTasks();
 
-        yamlValidatorTask = tasks.create(VALIDATE_YAML_TASK_NAME, YamlValidatorTask.class);
+        Provider<YamlValidationService> validationService = registerValidationService(project);
+
+        TaskProvider<YamlValidatorTask> yamlValidatorTask = tasks.register(VALIDATE_YAML_TASK_NAME, YamlValidatorTask.class, task -> {
+            task.getSearchPaths().from(validationProperties.getSearchPaths());
+            configureYamlValidatorTask(project, validationProperties, validationService, task);
+        });
+
+        TaskProvider<WatchYamlTask> watchYamlTask = tasks.register(WATCH_YAML_TASK_NAME, WatchYamlTask.class,
+                task -> configureWatchYamlTask(project, validationProperties, task));
+
+        tasks.configureEach(task -> makeTaskDependOnYamlValidatorTaskIfTaskNameIsCheck(task, yamlValidatorTask));
+
+        project.getPlugins().withType(JavaBasePlugin.class, plugin -> {
+            // the resources of the source sets replace the default search path, explicit search paths stay with validateYaml
+            validationProperties.getSearchPaths().convention(Collections.emptyList());
+            project.getExtensions().getByType(JavaPluginExtension.class).getSourceSets().configureEach(sourceSet ->
+                    registerSourceSetTask(project, validationProperties, validationService, sourceSet, yamlValidatorTask, watchYamlTask));
+        });
+    }
+
+    /**
+     * Registers a task which validates the processed resources of the source set, as they end up in the jar, so Gradle
+     * can run and cache the tasks of all source sets independently. {@code validateYaml} depends on all of them and
+     * skips their resource directories if its search paths contain them. {@code watchYaml} watches the resource
+     * directories themselves, since the processed resources only change when the resources are processed again.
+     */
+    private void registerSourceSetTask(Project project, ValidationProperties validationProperties, Provider<YamlValidationService> validationService,
+                                       SourceSet sourceSet, TaskProvider<YamlValidatorTask> yamlValidatorTask, TaskProvider<WatchYamlTask> watchYamlTask) {
+
+        String name = sourceSet.getName();
+        String taskName = String.format(VALIDATE_SOURCE_SET_YAML_TASK_NAME, name.substring(0, 1).toUpperCase(Locale.ROOT) + name.substring(1));
+        FileCollection resourceDirectories = sourceSet.getResources().getSourceDirectories().filter(File::exists);
+
+        TaskProvider<YamlValidatorTask> sourceSetTask = project.getTasks().register(taskName, YamlValidatorTask.class, task -> {
+            task.setDescription(String.format("Validates the YAML files of the processed %s resources.", name));
+            // the output directory doesn't exist if there are no resources to process
+            task.getSearchPaths().from(project.files(project.getTasks().named(sourceSet.getProcessResourcesTaskName())).filter(File::exists));
+            configureYamlValidatorTask(project, validationProperties, validationService, task);
+        });
+
+        yamlValidatorTask.configure(task -> {
+            task.dependsOn(sourceSetTask);
+            task.getSkippedPaths().from(project.provider(() -> sourceSet.getResources().getSrcDirs()));
+        });
+        watchYamlTask.configure(task -> task.getSearchPaths().from(resourceDirectories));
+    }
+
+    /**
+     * Registers the service shared by all projects of the build, or returns it if another project already did.
+     * The limit of files validated at the same time can be set with the Gradle property
+     * {@value #MAX_CONCURRENT_VALIDATIONS_PROPERTY}.
+     */
+    private Provider<YamlValidationService> registerValidationService(Project project) {
+
+        Provider<Integer> maxConcurrentValidations = project.getProviders().gradleProperty(MAX_CONCURRENT_VALIDATIONS_PROPERTY)
+                .map(Integer::valueOf)
+                .orElse(Runtime.getRuntime().availableProcessors());
+
+        return project.getGradle().getSharedServices().registerIfAbsent(YamlValidationService.SERVICE_NAME, YamlValidationService.class,
+                spec -> spec.getParameters().getMaxConcurrentValidations().set(maxConcurrentValidations));
+    }
+
+    /**
+     * Captures everything the task needs while the build is configured, so its action never touches the project
+     * and the task graph can be stored in the configuration cache.
+     */
+    private void configureYamlValidatorTask(Project project, ValidationProperties validationProperties,
+                                            Provider<YamlValidationService> validationService, YamlValidatorTask task) {
+
+        task.getAllowDuplicates().set(validationProperties.getAllowDuplicates());
+        task.getSearchRecursive().set(validationProperties.getSearchRecursive());
+        task.getFileExtensions().set(validationProperties.getFileExtensions());
+        task.getIncludes().set(validationProperties.getIncludes());
+        task.getExcludes().set(validationProperties.getExcludes());
+        task.getValidationMode().set(validationProperties.getValidationMode());
+        task.getLimits().set(project.provider(() -> limitsOf(validationProperties)));
+        task.getSchemas().set(validationProperties.getSchemas());
+        task.getSchemaFiles().from(validationProperties.getSchemas().map(Map::values));
+        task.getParserBackends().set(validationProperties.getParserBackends());
+        task.getPrescan().set(validationProperties.getPrescan());
+        task.getProjectDirectory().set(project.getLayout().getProjectDirectory());
+        task.getFailFast().set(validationProperties.getFailFast());
+        task.getMaxFailures().set(validationProperties.getMaxFailures());
+        task.getResultCache().set(validationProperties.getResultCache());
+        task.getResultCacheMaxEntries().set(validationProperties.getResultCacheMaxEntries());
+        task.getMaxParallelism().set(validationProperties.getMaxParallelism());
+        task.getWorkerIsolation().set(validationProperties.getWorkerIsolation());
+        task.getParallelDocuments().set(validationProperties.getParallelDocuments());
+        task.getArchiveExtensions().set(validationProperties.getArchiveExtensions());
+        task.getSince().set(validationProperties.getSince());
+        task.getKeyGroups().set(validationProperties.getKeyGroups());
+        task.getKeyIndexFile().set(project.getLayout().getBuildDirectory()
+                .file(String.format(YamlValidatorTask.KEY_INDEX_FILE_PATH, task.getName())));
+        task.getParallelDocumentsMinBytes().set(validationProperties.getParallelDocumentsMinBytes());
+        task.getGradleUserHome().set(project.getGradle().getGradleUserHomeDir());
+        task.getMarkerFile().set(project.getLayout().getBuildDirectory()
+                .file(String.format(YamlValidatorTask.MARKER_FILE_PATH, task.getName())));
+        task.getReportSlowestFiles().set(validationProperties.getReportSlowestFiles());
+        task.getReportFile().set(project.getLayout().getBuildDirectory()
+                .file(String.format(YamlValidatorTask.REPORT_FILE_PATH, task.getName())));
+        task.getJunitXmlReportFile().set(reportFileIfEnabled(project, validationProperties.getJunitXmlReport(),
+                String.format(YamlValidatorTask.JUNIT_XML_REPORT_FILE_PATH, task.getName())));
+        task.getSarifReportFile().set(reportFileIfEnabled(project, validationProperties.getSarifReport(),
+                String.format(YamlValidatorTask.SARIF_REPORT_FILE_PATH, task.getName())));
+        task.getValidationService().set(validationService);
+        task.usesService(validationService);
+    }
+
+    private static Provider<RegularFile> reportFileIfEnabled(Project project, Provider<Boolean> enabled, String path) {
+
+        return enabled.flatMap(isEnabled -> isEnabled
+                ? project.getLayout().getBuildDirectory().file(path)
+                : project.getProviders().provider(() -> null));
+    }
+
+    private void configureWatchYamlTask(Project project, ValidationProperties validationProperties, WatchYamlTask task) {
+
+        task.getSearchPaths().from(validationProperties.getSearchPaths());
+        task.getAllowDuplicates().set(validationProperties.getAllowDuplicates());
+        task.getSearchRecursive().set(validationProperties.getSearchRecursive());
+        task.getFileExtensions().set(validationProperties.getFileExtensions());
+        task.getIncludes().set(validationProperties.getIncludes());
+        task.getExcludes().set(validationProperties.getExcludes());
+        task.getValidationMode().set(validationProperties.getValidationMode());
+        task.getLimits().set(project.provider(() -> limitsOf(validationProperties)));
+        task.getArchiveExtensions().set(validationProperties.getArchiveExtensions());
+        task.getSchemas().set(validationProperties.getSchemas());
+        task.getParserBackends().set(validationProperties.getParserBackends());
+        task.getPrescan().set(validationProperties.getPrescan());
+        task.getProjectDirectory().set(project.getLayout().getProjectDirectory());
+        task.getResultCache().set(validationProperties.getResultCache());
+        task.getResultCacheMaxEntries().set(validationProperties.getResultCacheMaxEntries());
+        task.getGradleUserHome().set(project.getGradle().getGradleUserHomeDir());
+        task.getParallelDocuments().set(validationProperties.getParallelDocuments());
+        task.getParallelDocumentsMinBytes().set(validationProperties.getParallelDocumentsMinBytes());
+        task.getMaxChanges().convention(0);
+    }
+
+    private static ValidationLimits limitsOf(ValidationProperties validationProperties) {
 
-        tasks.whenTaskAdded(this::makeTaskDependOnYamlValidatorTaskIfTaskNameIsCheck);
+        return new ValidationLimits(
+                validationProperties.getMaxFileBytes().get(),
+                validationProperties.getMaxNestingDepth().get(),
+                validationProperties.getMaxAliasesForCollections().get(),
+                validationProperties.getMaxCodePoints().get(),
+                validationProperties.getMaxSecondsPerFile().get());
     }
 
-    private void makeTaskDependOnYamlValidatorTaskIfTaskNameIsCheck(Task task) {
+    private void makeTaskDependOnYamlValidatorTaskIfTaskNameIsCheck(Task task, TaskProvider<YamlValidatorTask> yamlValidatorTask) {
 
-        if ("check".equals(task.getName()) && yamlValidatorTask != null) {
+        if ("check".equals(task.getName())) {
             task.dependsOn(yamlValidatorTask);
         }
     }
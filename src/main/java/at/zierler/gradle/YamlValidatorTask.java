@@ -1,137 +1,695 @@
 package at.zierler.gradle;
 
+import at.zierler.yamlvalidator.FileValidationStatistics;
+import at.zierler.yamlvalidator.GitChangedFiles;
+import at.zierler.yamlvalidator.JUnitXmlReportWriter;
+import at.zierler.yamlvalidator.KeyConflict;
+import at.zierler.yamlvalidator.KeyIndex;
+import at.zierler.yamlvalidator.ParserBackend;
+import at.zierler.yamlvalidator.ParserBackendMapping;
+import at.zierler.yamlvalidator.SarifReportWriter;
+import at.zierler.yamlvalidator.ValidationFailure;
+import at.zierler.yamlvalidator.ValidationLimits;
+import at.zierler.yamlvalidator.ValidationMode;
+import at.zierler.yamlvalidator.ValidationReport;
+import at.zierler.yamlvalidator.ValidationReportWriter;
+import at.zierler.yamlvalidator.YamlFileScanner;
 import org.gradle.api.DefaultTask;
 import org.gradle.api.GradleException;
+import org.gradle.api.file.ConfigurableFileCollection;
+import org.gradle.api.file.DirectoryProperty;
+import org.gradle.api.file.FileType;
+import org.gradle.api.file.RegularFileProperty;
+import org.gradle.api.provider.ListProperty;
+import org.gradle.api.provider.MapProperty;
+import org.gradle.api.provider.Property;
+import org.gradle.api.provider.ProviderFactory;
+import org.gradle.api.tasks.CacheableTask;
+import org.gradle.api.tasks.Input;
+import org.gradle.api.tasks.InputFiles;
+import org.gradle.api.tasks.Internal;
+import org.gradle.api.tasks.LocalState;
+import org.gradle.api.tasks.Optional;
+import org.gradle.api.tasks.OutputFile;
+import org.gradle.api.tasks.PathSensitive;
+import org.gradle.api.tasks.PathSensitivity;
 import org.gradle.api.tasks.TaskAction;
-import org.yaml.snakeyaml.LoaderOptions;
+import org.gradle.work.ChangeType;
+import org.gradle.work.FileChange;
+import org.gradle.work.Incremental;
+import org.gradle.work.InputChanges;
+import org.gradle.workers.WorkQueue;
+import org.gradle.workers.WorkerExecutor;
 import org.yaml.snakeyaml.Yaml;
 
+import javax.inject.Inject;
+import java.io.File;
 import java.io.IOException;
-import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
 import java.nio.file.Files;
 import java.nio.file.Path;
-
-public class YamlValidatorTask extends DefaultTask {
+import java.nio.file.PathMatcher;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+@CacheableTask
+public abstract class YamlValidatorTask extends DefaultTask {
 
     static final String STARTING_DIRECTORY_MESSAGE = "Starting validation of YAML files in directory '%s'.";
     static final String STARTING_DIRECTORY_RECURSIVE_MESSAGE = "Starting validation of YAML files in directory '%s' recursively.";
     static final String STARTING_FILE_MESSAGE = "Starting validation of YAML file '%s'.";
+    static final String STARTING_INCREMENTAL_MESSAGE = "Starting incremental validation of %s changed YAML file(s).";
+    static final String STARTING_CHANGED_SINCE_MESSAGE = "Starting validation of %s of %s YAML file(s), which changed since '%s'.";
+    static final String GIT_UNAVAILABLE_MESSAGE = "Couldn't ask git for the files changed since '%s', validating all YAML files: %s";
     static final String DOCUMENT_SUCCESS_MESSAGE = "Validation of document #%s in file %s successful.";
     static final String FILE_SUCCESS_MESSAGE = "Validation of YAML file '%s' successful.";
     static final String FILE_FAILURE_MESSAGE = "Validation of YAML file '%s' failed.";
-
-    private final ValidationProperties validationProperties;
-    private Yaml yaml;
+    static final String CACHED_FILE_MESSAGE = "Content of YAML file '%s' is known to be valid, skipped parsing.";
+    static final String DUPLICATE_CONTENT_MESSAGE = "Content of YAML file '%s' was already validated in '%s', skipped parsing.";
+    static final String DUPLICATE_PATHS_MESSAGE = "Found %s YAML file(s) in more than one search path, validating them once.";
+    static final String SAVED_VALIDATIONS_MESSAGE = "Skipped %s validation(s) of YAML files found more than once or with the content of another file.";
+    static final String RESULT_CACHE_FAILURE_MESSAGE = "Couldn't use the YAML validation result cache: %s";
+    static final String FAILURES_MESSAGE = "Validation of YAML files failed for %s file(s):";
+    static final String UNKNOWN_PARSER_BACKEND_MESSAGE = "Unknown parser backend '%s' for pattern '%s', expected one of %s.";
+    static final String KEY_INDEX_MESSAGE = "Indexed the keys of %s changed YAML file(s) of key groups.";
+    static final String KEY_CONFLICTS_MESSAGE = "Keys of YAML files conflict in %s case(s):";
+    static final String SKIPPED_FILES_MESSAGE = "Validation stopped after reaching the maximum number of failures, %s YAML file(s) were not validated.";
+
+    static final String MARKER_FILE_PATH = "yaml-validator/%s.marker";
+    static final String REPORT_FILE_PATH = "reports/yaml-validator/%s.json";
+    static final String JUNIT_XML_REPORT_FILE_PATH = "test-results/yaml-validator/TEST-%s.xml";
+    static final String SARIF_REPORT_FILE_PATH = "reports/yaml-validator/%s.sarif";
+    static final String KEY_INDEX_FILE_PATH = "yaml-validator/%s-key-index.bin";
+    private static final String RESULTS_DIRECTORY = "results";
+    private static final String FAILURE_BUDGET_DIRECTORY = "failure-budget";
+    private static final String RESULT_FILE_NAME = "batch-%s.bin";
 
     public YamlValidatorTask() {
 
-        this.validationProperties = getProject().getExtensions().findByType(ValidationProperties.class);
+        getYamlFiles().from(getProviderFactory().of(YamlFilesValueSource.class, spec -> spec.parameters(parameters -> {
+            parameters.getSearchPaths().from(getSearchPaths());
+            parameters.getSkippedPaths().from(getSkippedPaths());
+            parameters.getFileExtensions().set(getFileExtensions());
+            parameters.getIncludes().set(getIncludes());
+            parameters.getExcludes().set(getExcludes());
+            parameters.getSearchRecursive().set(getSearchRecursive());
+            parameters.getArchiveExtensions().set(getArchiveExtensions());
+        })));
+        // search paths may be outputs of other tasks, like the archive of a jar task
+        dependsOn(getSearchPaths());
+        // validating only the files changed since a revision doesn't prove the other files valid
+        getOutputs().upToDateWhen(task -> !getSince().isPresent());
+        getOutputs().cacheIf("all YAML files are validated", task -> !getSince().isPresent());
     }
 
+    /**
+     * Files and directories to search for YAML files, resolved against the project directory.
+     */
+    @Internal
+    public abstract ConfigurableFileCollection getSearchPaths();
+
+    /**
+     * Files and directories which other tasks validate, like the resources of source sets. Their YAML files aren't
+     * validated again if a search path contains them.
+     */
+    @Internal
+    public abstract ConfigurableFileCollection getSkippedPaths();
+
+    /**
+     * All YAML files found in the configured search paths. Gradle tracks their contents between runs,
+     * which allows the task to be up-to-date and to re-validate only the files that changed.
+     * Only relative paths and contents are part of the build cache key, so results can be shared between machines.
+     */
+    @Incremental
+    @InputFiles
+    @PathSensitive(PathSensitivity.RELATIVE)
+    public abstract ConfigurableFileCollection getYamlFiles();
+
+    @Input
+    public abstract Property<Boolean> getAllowDuplicates();
+
+    @Input
+    public abstract Property<Boolean> getSearchRecursive();
+
+    @Input
+    public abstract ListProperty<String> getFileExtensions();
+
+    @Input
+    public abstract ListProperty<String> getIncludes();
+
+    @Input
+    public abstract ListProperty<String> getExcludes();
+
+    @Input
+    public abstract Property<ValidationMode> getValidationMode();
+
+    @Input
+    public abstract Property<ValidationLimits> getLimits();
+
+    /**
+     * Paths of JSON Schema files, relative to the project directory, by the glob pattern of the YAML files they apply to.
+     */
+    @Input
+    public abstract MapProperty<String, String> getSchemas();
+
+    /**
+     * Contents of all schema files, a changed schema validates all YAML files again.
+     */
+    @InputFiles
+    @PathSensitive(PathSensitivity.RELATIVE)
+    public abstract ConfigurableFileCollection getSchemaFiles();
+
+    /**
+     * Names of {@link ParserBackend}s by the glob pattern of the YAML files they apply to, the others use SnakeYAML's own types.
+     */
+    @Input
+    public abstract MapProperty<String, String> getParserBackends();
+
+    /**
+     * Whether obviously broken files are rejected by a pre-scanner before they are parsed, which doesn't change the result.
+     */
+    @Internal
+    public abstract Property<Boolean> getPrescan();
+
+    @Internal
+    public abstract DirectoryProperty getProjectDirectory();
+
+    @Internal
+    public abstract Property<Boolean> getFailFast();
+
+    @Internal
+    public abstract Property<Integer> getMaxFailures();
+
+    @Internal
+    public abstract Property<Boolean> getResultCache();
+
+    @Internal
+    public abstract Property<Integer> getResultCacheMaxEntries();
+
+    @Internal
+    public abstract Property<Integer> getMaxParallelism();
+
+    @Internal
+    public abstract Property<WorkerIsolation> getWorkerIsolation();
+
+    /**
+     * Whether the documents of a single large file are split and validated in parallel, which doesn't change the result.
+     */
+    @Internal
+    public abstract Property<Boolean> getParallelDocuments();
+
+    @Internal
+    public abstract Property<Long> getParallelDocumentsMinBytes();
+
+    /**
+     * Extensions of archives whose YAML entries are validated without extracting them.
+     */
+    @Input
+    public abstract ListProperty<String> getArchiveExtensions();
+
+    /**
+     * Git revision, e.g. {@code origin/main}. If set, only the YAML files changed since the merge base with it are validated.
+     */
+    @Input
+    @Optional
+    public abstract Property<String> getSince();
+
+    /**
+     * Glob patterns, relative to the project directory, by the name of the group of YAML files they select.
+     * The flattened keys of all files of a group must not conflict, like {@code application.yml} and its profiles.
+     */
+    @Input
+    public abstract MapProperty<String, String> getKeyGroups();
+
+    /**
+     * Flattened keys of the files of all key groups, only files changed since the last run are parsed again.
+     */
+    @LocalState
+    public abstract RegularFileProperty getKeyIndexFile();
+
+    /**
+     * Service shared by all tasks of the build, used by workers without isolation.
+     */
+    @Internal
+    public abstract Property<YamlValidationService> getValidationService();
+
+    /**
+     * Gradle user home, which holds the result cache shared by all builds of a machine.
+     */
+    @Internal
+    public abstract DirectoryProperty getGradleUserHome();
+
+    /**
+     * Written after every successful validation. It only exists so that Gradle has an output to check
+     * the task against, a failed run removes it to force a full validation on the next run.
+     */
+    @OutputFile
+    public abstract RegularFileProperty getMarkerFile();
+
+    /**
+     * Number of files listed as the slowest ones in the report.
+     */
+    @Input
+    public abstract Property<Integer> getReportSlowestFiles();
+
+    /**
+     * JSON report with the bytes, documents, parse time and result of every file validated by the last run.
+     */
+    @OutputFile
+    public abstract RegularFileProperty getReportFile();
+
+    /**
+     * JUnit XML report with a test case for every file validated by the last run, if enabled.
+     */
+    @OutputFile
+    @Optional
+    public abstract RegularFileProperty getJunitXmlReportFile();
+
+    /**
+     * SARIF log with the location of every failure of the last run, if enabled.
+     */
+    @OutputFile
+    @Optional
+    public abstract RegularFileProperty getSarifReportFile();
+
+    @Inject
+    protected abstract WorkerExecutor getWorkerExecutor();
+
+    @Inject
+    protected abstract ProviderFactory getProviderFactory();
+
+    private int duplicatePaths;
+
     @TaskAction
-    public void validateAllProvidedFilesAndDirectories() throws IOException {
+    public void validateAllProvidedFilesAndDirectories(InputChanges inputChanges) throws IOException {
 
-        for (String path : validationProperties.getSearchPaths()) {
-            Path fileOrDirectory = resolveFileOrDirectoryByPath(path);
-            checkFileOrDirectory(fileOrDirectory);
+        Path marker = getMarkerFile().get().getAsFile().toPath();
+        Files.deleteIfExists(marker);
+        duplicatePaths = 0;
+
+        if (getSince().isPresent()) {
+            validateYamlFiles(findYamlFilesChangedSince(getSince().get()), false);
+        } else if (inputChanges.isIncremental()) {
+            validateYamlFiles(findChangedYamlFiles(inputChanges), true);
+        } else {
+            validateYamlFiles(findYamlFilesInAllSearchPaths(), false);
         }
+
+        checkKeyGroups();
+        writeMarkerFile(marker);
     }
 
-    private Path resolveFileOrDirectoryByPath(String path) throws IOException {
+    /**
+     * Takes the files {@link YamlFilesValueSource} found for the task input instead of scanning the search paths
+     * again. Search paths may overlap, like a directory and a file in it, the input holds every real path once.
+     */
+    private List<Path> findYamlFilesInAllSearchPaths() throws IOException {
+
+        List<Path> searchPaths = checkSearchPaths();
+        searchPaths.stream().filter(Files::isDirectory).forEach(this::logStartingDirectory);
+
+        YamlFileScanner scanner = createScanner();
+        List<Path> files = new ArrayList<>();
+
+        for (File yamlFile : getYamlFiles().getFiles()) {
+            Path file = yamlFile.toPath();
+            long containingSearchPaths = searchPaths.stream()
+                    .filter(searchPath -> searchPath.equals(file) || scanner.isYamlFileIn(searchPath, file))
+                    .count();
+            duplicatePaths += Math.max(0, containingSearchPaths - 1);
+            files.add(file);
+        }
+
+        if (duplicatePaths > 0) {
+            logInfo(DUPLICATE_PATHS_MESSAGE, duplicatePaths);
+        }
 
-        return getProject().file(path).toPath().toAbsolutePath().toRealPath();
+        return files;
     }
 
-    private void checkFileOrDirectory(Path fileOrDirectory) throws IOException {
+    /**
+     * Falls back to all YAML files if git can't tell which files changed.
+     */
+    private List<Path> findYamlFilesChangedSince(String revision) throws IOException {
 
-        if (Files.isDirectory(fileOrDirectory)) {
-            validateDirectory(fileOrDirectory);
-        } else if (Files.isRegularFile(fileOrDirectory)) {
-            validateSingleFile(fileOrDirectory);
-        } else {
-            throw new IOException(String.format("File at path %s is neither a file nor a directory.", fileOrDirectory));
+        List<Path> files = findYamlFilesInAllSearchPaths();
+        Set<Path> changedFiles;
+
+        try {
+            changedFiles = GitChangedFiles.since(getProjectDirectory().get().getAsFile().toPath(), revision);
+        } catch (IOException e) {
+            getLogger().warn(String.format(GIT_UNAVAILABLE_MESSAGE, revision, e.getMessage()));
+            return files;
         }
+
+        List<Path> changedYamlFiles = files.stream().filter(changedFiles::contains).collect(Collectors.toList());
+
+        logInfo(STARTING_CHANGED_SINCE_MESSAGE, changedYamlFiles.size(), files.size(), revision);
+
+        return changedYamlFiles;
     }
 
-    private void validateSingleFile(Path file) {
+    private List<Path> findChangedYamlFiles(InputChanges inputChanges) throws IOException {
+
+        checkSearchPaths();
+
+        List<Path> changedYamlFiles = new ArrayList<>();
 
-        if (isYamlFile(file)) {
-            validateYamlFile(file);
+        for (FileChange change : inputChanges.getFileChanges(getYamlFiles())) {
+            if (change.getFileType() == FileType.FILE && change.getChangeType() != ChangeType.REMOVED) {
+                changedYamlFiles.add(change.getFile().toPath().toRealPath());
+            }
         }
+
+        logInfo(STARTING_INCREMENTAL_MESSAGE, changedYamlFiles.size());
+
+        return changedYamlFiles;
     }
 
-    private void validateDirectory(Path directory) throws IOException {
+    private void validateYamlFiles(List<Path> files, boolean incremental) throws IOException {
+
+        Path resultsDirectory = createEmptyTemporaryDirectory(RESULTS_DIRECTORY);
+        Path failureBudgetDirectory = createEmptyTemporaryDirectory(FAILURE_BUDGET_DIRECTORY);
+        int maxFailures = getFailFast().get() ? 1 : getMaxFailures().get();
+        Map<String, File> schemaFiles = resolveSchemaFiles();
+        Map<String, ParserBackend> parserBackends = parserBackendsOf(getParserBackends().get());
+
+        WorkQueue workQueue = createWorkQueue();
+        List<List<Path>> batches = splitIntoBatches(files);
+
+        for (int i = 0; i < batches.size(); i++) {
+            List<Path> batch = batches.get(i);
+            File resultFile = resultsDirectory.resolve(String.format(RESULT_FILE_NAME, i)).toFile();
+            workQueue.submit(YamlValidationWorkAction.class, parameters -> {
+                parameters.getYamlFiles().from(batch);
+                parameters.getAllowDuplicates().set(getAllowDuplicates());
+                parameters.getValidationMode().set(getValidationMode());
+                parameters.getLimits().set(getLimits());
+                parameters.getFailureBudgetDirectory().set(failureBudgetDirectory.toFile());
+                parameters.getMaxFailures().set(maxFailures);
+                parameters.getResultFile().set(resultFile);
+                parameters.getSchemaFiles().set(schemaFiles);
+                parameters.getParserBackends().set(parserBackends);
+                parameters.getPrescan().set(getPrescan());
+                parameters.getArchiveExtensions().set(getArchiveExtensions());
+                parameters.getFileExtensions().set(getFileExtensions());
+                parameters.getIncludes().set(getIncludes());
+                parameters.getExcludes().set(getExcludes());
+                parameters.getParallelDocumentsMinBytes().set(getParallelDocuments().get() ? getParallelDocumentsMinBytes().get() : Long.MAX_VALUE);
+                if (!schemaFiles.isEmpty() || !parserBackends.isEmpty()) {
+                    parameters.getProjectDirectory().set(getProjectDirectory());
+                }
+                if (getWorkerIsolation().get() == WorkerIsolation.NONE && getValidationService().isPresent()) {
+                    parameters.getValidationService().set(getValidationService());
+                }
+                if (getResultCache().get()) {
+                    parameters.getGradleUserHome().set(getGradleUserHome().get().getAsFile());
+                    parameters.getResultCacheMaxEntries().set(getResultCacheMaxEntries());
+                }
+            });
+        }
 
-        boolean shouldSearchForYamlFilesRecursively = validationProperties.isSearchRecursive();
+        workQueue.await();
 
-        if (shouldSearchForYamlFilesRecursively) {
-            validateYamlFilesInDirectoryRecursively(directory);
-        } else {
-            validateYamlFilesOnlyDirectlyInDirectory(directory);
+        checkResults(resultsDirectory, batches.size(), files.size(), incremental);
+    }
+
+    private Map<String, File> resolveSchemaFiles() {
+
+        Map<String, File> schemaFiles = new LinkedHashMap<>();
+        getSchemas().get().forEach((pattern, path) -> schemaFiles.put(pattern, getProjectDirectory().file(path).get().getAsFile()));
+        return schemaFiles;
+    }
+
+    static Map<String, ParserBackend> parserBackendsOf(Map<String, String> backendNames) {
+
+        Map<String, ParserBackend> parserBackends = new LinkedHashMap<>();
+        backendNames.forEach((pattern, name) -> {
+            try {
+                parserBackends.put(pattern, ParserBackend.valueOf(name));
+            } catch (IllegalArgumentException e) {
+                throw new GradleException(String.format(UNKNOWN_PARSER_BACKEND_MESSAGE, name, pattern, Arrays.toString(ParserBackend.values())));
+            }
+        });
+        return parserBackends;
+    }
+
+    /**
+     * Hands the result of one batch after the other to the reports, so only the failures are kept for all files.
+     */
+    private void checkResults(Path resultsDirectory, int numberOfBatches, int numberOfFiles, boolean incremental) throws IOException {
+
+        List<ValidationFailure> failures = new ArrayList<>();
+        int validatedFiles = 0;
+        int duplicateContents = 0;
+
+        try (ValidationReport report = ValidationReport.open(getReportFile().get().getAsFile().toPath(), incremental, getReportSlowestFiles().get());
+             ValidationReportWriter junitXmlReport = openJunitXmlReport();
+             ValidationReportWriter sarifReport = openSarifReport()) {
+            for (int i = 0; i < numberOfBatches; i++) {
+                ValidationBatchResult result = ValidationBatchResult.readFrom(resultsDirectory.resolve(String.format(RESULT_FILE_NAME, i)));
+                List<FileValidationStatistics> statistics = new ArrayList<>(result.getStatistics());
+                statistics.sort(Comparator.comparing(FileValidationStatistics::getFile));
+                for (FileValidationStatistics file : statistics) {
+                    report.write(file, null);
+                }
+                if (junitXmlReport != null) {
+                    ValidationReportWriter.writeAll(junitXmlReport, statistics, result.getFailures());
+                }
+                if (sarifReport != null) {
+                    ValidationReportWriter.writeAll(sarifReport, statistics, result.getFailures());
+                }
+                failures.addAll(result.getFailures());
+                validatedFiles += statistics.size();
+                duplicateContents += result.getDuplicateContents();
+            }
+            report.count(numberOfFiles - validatedFiles, duplicatePaths, duplicateContents);
+        }
+
+        if (duplicatePaths + duplicateContents > 0) {
+            logInfo(SAVED_VALIDATIONS_MESSAGE, duplicatePaths + duplicateContents);
+        }
+
+        if (!failures.isEmpty()) {
+            throw new GradleException(describeFailures(failures, numberOfFiles - validatedFiles));
         }
     }
 
-    private void validateYamlFilesOnlyDirectlyInDirectory(Path directory) throws IOException {
+    /**
+     * @return the JUnit XML report, or {@code null} if it isn't enabled
+     */
+    private ValidationReportWriter openJunitXmlReport() throws IOException {
 
-        getLogger().info(String.format(STARTING_DIRECTORY_MESSAGE, directory));
-        Files.list(directory).filter(this::isYamlFile).forEach(this::validateYamlFile);
+        if (!getJunitXmlReportFile().isPresent()) {
+            return null;
+        }
+        return JUnitXmlReportWriter.open(getJunitXmlReportFile().get().getAsFile().toPath(), getName());
     }
 
-    private void validateYamlFilesInDirectoryRecursively(Path directory) throws IOException {
+    /**
+     * @return the SARIF report, or {@code null} if it isn't enabled
+     */
+    private ValidationReportWriter openSarifReport() throws IOException {
 
-        getLogger().info(String.format(STARTING_DIRECTORY_RECURSIVE_MESSAGE, directory));
-        Files.walk(directory).filter(this::isYamlFile).forEach(this::validateYamlFile);
+        if (!getSarifReportFile().isPresent()) {
+            return null;
+        }
+        Path projectDirectory = getProjectDirectory().get().getAsFile().toPath().toRealPath();
+        return SarifReportWriter.open(getSarifReportFile().get().getAsFile().toPath(), projectDirectory);
     }
 
-    private boolean isYamlFile(Path file) {
+    private static String describeFailures(List<ValidationFailure> failures, int skippedFiles) {
 
-        Path fileNameAsPath = file.getFileName();
+        StringBuilder description = new StringBuilder(String.format(FAILURES_MESSAGE, failures.size()));
 
-        if (fileNameAsPath == null) {
-            throw new IllegalStateException(String.format("Couldn't extract file name from %s.", file));
+        failures.stream()
+                .sorted(Comparator.comparing(ValidationFailure::getFile))
+                .forEach(failure -> description
+                        .append(System.lineSeparator())
+                        .append(String.format(FILE_FAILURE_MESSAGE, failure.getFile()))
+                        .append(System.lineSeparator())
+                        .append("    ")
+                        .append(failure.describeProblem().trim().replace("\n", System.lineSeparator() + "    ")));
+
+        if (skippedFiles > 0) {
+            description.append(System.lineSeparator()).append(String.format(SKIPPED_FILES_MESSAGE, skippedFiles));
         }
 
-        String fileName = fileNameAsPath.toString();
+        return description.toString();
+    }
+
+    private Path createEmptyTemporaryDirectory(String name) throws IOException {
+
+        Path directory = getTemporaryDir().toPath().resolve(name);
 
-        return fileName.endsWith(".yaml") || fileName.endsWith(".yml");
+        if (Files.exists(directory)) {
+            try (Stream<Path> paths = Files.walk(directory)) {
+                for (Path path : paths.sorted(Comparator.reverseOrder()).collect(Collectors.toList())) {
+                    Files.delete(path);
+                }
+            }
+        }
+
+        return Files.createDirectories(directory);
+    }
+
+    private WorkQueue createWorkQueue() {
+
+        if (getWorkerIsolation().get() == WorkerIsolation.CLASSLOADER) {
+            return getWorkerExecutor().classLoaderIsolation(spec -> spec.getClasspath().from(
+                    codeSourceOf(YamlValidationWorkAction.class),
+                    codeSourceOf(Yaml.class)));
+        }
+        return getWorkerExecutor().noIsolation();
     }
 
-    private void validateYamlFile(Path file) {
+    private List<List<Path>> splitIntoBatches(List<Path> files) {
 
-        getLogger().info(String.format(STARTING_FILE_MESSAGE, file));
+        int numberOfBatches = Math.max(1, Math.min(getMaxParallelism().get(), files.size()));
+        List<List<Path>> batches = new ArrayList<>(numberOfBatches);
 
-        try (InputStream yamlFileInputStream = Files.newInputStream(file)) {
-            validateAllDocuments(yamlFileInputStream, file);
-        } catch (Exception e) {
-            throw new GradleException(String.format(FILE_FAILURE_MESSAGE, file), e);
+        for (int i = 0; i < numberOfBatches; i++) {
+            batches.add(new ArrayList<>());
+        }
+        for (int i = 0; i < files.size(); i++) {
+            batches.get(i % numberOfBatches).add(files.get(i));
         }
 
-        getLogger().info(String.format(FILE_SUCCESS_MESSAGE, file));
+        return batches;
+    }
+
+    private static File codeSourceOf(Class<?> type) {
+
+        try {
+            return new File(type.getProtectionDomain().getCodeSource().getLocation().toURI());
+        } catch (URISyntaxException e) {
+            throw new IllegalStateException(String.format("Couldn't locate classpath entry of %s.", type.getName()), e);
+        }
+    }
+
+    /**
+     * Always looks at all files of a group, a conflict may be caused by a file which didn't change.
+     */
+    private void checkKeyGroups() throws IOException {
+
+        if (getKeyGroups().get().isEmpty()) {
+            return;
+        }
+
+        Path projectDirectory = getProjectDirectory().get().getAsFile().toPath().toRealPath();
+        Map<String, List<Path>> filesByGroup = new LinkedHashMap<>();
+        getKeyGroups().get().forEach((group, pattern) -> {
+            List<PathMatcher> matchers = YamlFileScanner.compile(FileSystems.getDefault(), Collections.singletonList(pattern));
+            filesByGroup.put(group, getYamlFiles().getFiles().stream()
+                    .map(File::toPath)
+                    .filter(file -> matchers.stream().anyMatch(matcher -> matcher.matches(relativize(projectDirectory, file))))
+                    .sorted()
+                    .collect(Collectors.toList()));
+        });
+
+        Path indexFile = getKeyIndexFile().get().getAsFile().toPath();
+        KeyIndex keyIndex = KeyIndex.load(indexFile, getLimits().get());
+        ParserBackendMapping backendMapping = new ParserBackendMapping(FileSystems.getDefault(), projectDirectory,
+                parserBackendsOf(getParserBackends().get()));
+        int indexedFiles = keyIndex.update(filesByGroup.values().stream().flatMap(List::stream).collect(Collectors.toSet()), backendMapping);
+        keyIndex.writeTo(indexFile);
+        logInfo(KEY_INDEX_MESSAGE, indexedFiles);
+
+        List<KeyConflict> errors = new ArrayList<>();
+        filesByGroup.forEach((group, files) -> {
+            for (KeyConflict conflict : keyIndex.findConflicts(group, files)) {
+                if (conflict.isError()) {
+                    errors.add(conflict);
+                } else {
+                    getLogger().warn(conflict.getDescription());
+                }
+            }
+        });
+
+        if (!errors.isEmpty()) {
+            String descriptions = errors.stream().map(KeyConflict::getDescription).collect(Collectors.joining(System.lineSeparator()));
+            throw new GradleException(String.format(KEY_CONFLICTS_MESSAGE, errors.size()) + System.lineSeparator() + descriptions);
+        }
+    }
+
+    private static Path relativize(Path directory, Path file) {
+
+        return file.startsWith(directory) ? directory.relativize(file) : file;
+    }
+
+    private void writeMarkerFile(Path marker) throws IOException {
+
+        Files.createDirectories(marker.getParent());
+        String content = String.format("%s YAML file(s) validated.%n", getYamlFiles().getFiles().size());
+        Files.write(marker, content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private YamlFileScanner createScanner() {
+
+        return new YamlFileScanner(
+                FileSystems.getDefault(),
+                getFileExtensions().get(),
+                getIncludes().get(),
+                getExcludes().get(),
+                getSearchRecursive().get(),
+                getArchiveExtensions().get());
     }
 
-    @SuppressWarnings("unused")
-    private void validateAllDocuments(InputStream yamlFileInputStream, Path file) {
+    private Path resolveFileOrDirectoryByPath(File path) throws IOException {
 
-        int documentIndex = 0;
+        return path.toPath().toAbsolutePath().toRealPath();
+    }
 
-        for(Object document : yamlLoader().loadAll(yamlFileInputStream)){
-            getLogger().info(String.format(DOCUMENT_SUCCESS_MESSAGE, ++documentIndex, file));
+    private void checkFileOrDirectoryExists(Path fileOrDirectory) throws IOException {
+
+        if (!Files.isDirectory(fileOrDirectory) && !Files.isRegularFile(fileOrDirectory)) {
+            throw new IOException(String.format("File at path %s is neither a file nor a directory.", fileOrDirectory));
         }
     }
 
-    private Yaml yamlLoader() {
+    /**
+     * @return the real paths of all search paths
+     */
+    private List<Path> checkSearchPaths() throws IOException {
 
-        if (yaml == null) {
-            createYamlLoader();
+        List<Path> searchPaths = new ArrayList<>();
+
+        for (File path : getSearchPaths()) {
+            Path fileOrDirectory = resolveFileOrDirectoryByPath(path);
+            checkFileOrDirectoryExists(fileOrDirectory);
+            searchPaths.add(fileOrDirectory);
         }
-        return yaml;
+
+        return searchPaths;
     }
 
-    private void createYamlLoader() {
+    /**
+     * Formats the message only if it is going to be logged.
+     */
+    private void logInfo(String format, Object... arguments) {
 
-        LoaderOptions loaderOptions = new LoaderOptions();
-        loaderOptions.setAllowDuplicateKeys(validationProperties.isAllowDuplicates());
-        yaml = new Yaml(loaderOptions);
+        if (getLogger().isInfoEnabled()) {
+            getLogger().info(String.format(format, arguments));
+        }
+    }
+
+    private void logStartingDirectory(Path directory) {
+
+        if (getSearchRecursive().get()) {
+            logInfo(STARTING_DIRECTORY_RECURSIVE_MESSAGE, directory);
+        } else {
+            logInfo(STARTING_DIRECTORY_MESSAGE, directory);
+        }
     }
 
 }
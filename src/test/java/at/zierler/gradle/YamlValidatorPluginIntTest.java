@@ -1,18 +1,43 @@
 package at.zierler.gradle;
 
+import at.zierler.yamlvalidator.GitChangedFiles;
+import at.zierler.yamlvalidator.KeyConflict;
+import at.zierler.yamlvalidator.ValidationFailure;
+import at.zierler.yamlvalidator.YamlLimitExceededException;
+import at.zierler.yamlvalidator.YamlPrescanner;
+import org.gradle.testkit.runner.BuildResult;
 import org.gradle.testkit.runner.GradleRunner;
+import org.gradle.testkit.runner.TaskOutcome;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.TemporaryFolder;
+import org.w3c.dom.Element;
 
+import javax.xml.parsers.DocumentBuilderFactory;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
 
 import static at.zierler.gradle.YamlValidatorPlugin.VALIDATE_YAML_TASK_NAME;
-import static org.gradle.util.GFileUtils.writeFile;
 import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.core.IsNot.not;
 
@@ -24,226 +49,1174 @@ public class YamlValidatorPluginIntTest {
     @Rule
     public final TemporaryFolder testProjectDir = new TemporaryFolder();
 
+    @Rule
+    public final TemporaryFolder otherTestProjectDir = new TemporaryFolder();
+
     private File buildFile;
 
     private File defaultYamlDirectory;
     private File anyYamlDirectory;
 
-    private File yamlFileInDefaultYamlDirectory;
-    private File yamlFileInAnyYamlDirectory;
+    private File yamlFileInDefaultYamlDirectory;
+    private File yamlFileInAnyYamlDirectory;
+
+    @Before
+    public void setupTestProject() throws IOException {
+
+        this.buildFile = testProjectDir.newFile("build.gradle");
+
+        this.defaultYamlDirectory = testProjectDir.newFolder(DEFAULT_YAML_DIRECTORY_RELATIVE_PATH.split("/"));
+        this.anyYamlDirectory = testProjectDir.newFolder(ANY_YAML_DIRECTORY_RELATIVE_PATH.split("/"));
+
+        this.yamlFileInDefaultYamlDirectory = testProjectDir.newFile(DEFAULT_YAML_DIRECTORY_RELATIVE_PATH + "file.yaml");
+        this.yamlFileInAnyYamlDirectory = testProjectDir.newFile(ANY_YAML_DIRECTORY_RELATIVE_PATH + "file.yml");
+    }
+
+    @Test
+    public void shouldUseDefaultSearchPathsWhenNonDefined() throws IOException {
+
+        writeBuildFileWithoutProperties();
+
+        expectBuildSuccessAndDirectorySearchStartMessage(defaultYamlDirectory);
+    }
+
+    @Test
+    public void shouldUseDefinedSearchPaths() throws IOException {
+
+        writeBuildFileWithAnyYamlDirectoryAsOnlyDefinedSearchPath();
+
+        expectBuildSuccessAndDirectorySearchStartMessage(anyYamlDirectory);
+    }
+
+    @Test
+    public void shouldSucceedForEmptyYaml() throws IOException {
+
+        writeBuildFileWithoutProperties();
+
+        expectBuildSuccessAndSuccessMessageForDefaultYamlFile();
+    }
+
+    @Test
+    public void shouldNotAllowYamlWithDuplicateKeyWhenAllowDuplicatesIsFalse() throws IOException {
+
+        writeBuildFileWhichDoesNotAllowDuplicateKeys();
+        writeYamlFileWithDuplicateKey();
+
+        expectBuildFailureAndFailureMessageForDefaultYamlFile();
+    }
+
+    @Test
+    public void shouldAllowYamlWithDuplicateKeyWhenAllowDuplicatesIsTrue() throws IOException {
+
+        writeBuildFileWhichDoesAllowDuplicateKeys();
+        writeYamlFileWithDuplicateKey();
+
+        expectBuildSuccessAndSuccessMessageForDefaultYamlFile();
+    }
+
+    @Test
+    public void shouldAllowValidYaml() throws IOException {
+
+        writeBuildFileWithoutProperties();
+        writeValidYamlFile();
+
+        expectBuildSuccessAndSuccessMessageForDefaultYamlFile();
+    }
+    
+    @Test
+    public void shouldAllowValidYamlWithMultipleDocuments() throws IOException {
+
+        writeBuildFileWithoutProperties();
+        writeValidYamlFileWithMultipleDocuments();
+
+        expectBuildSuccessAndSuccessMessageForYamlWithMulipleDocuments();
+    }
+    
+    @Test
+    public void shouldNotAllowYamlWithMultipleDocumentsWithErrorInFirstDocument() throws IOException {
+
+    	writeBuildFileWithoutProperties();
+    	writeInvalidValidYamlFileWithMultipleDocumentsWithErrorInFirstDocument();
+
+        expectBuildFailureAndFailureMessageForDefaultYamlFile();
+    }
+    
+    @Test
+    public void shouldNotAllowYamlWithMultipleDocumentsWithErrorInSecondDocument() throws IOException {
+
+    	writeBuildFileWithoutProperties();
+    	writeInvalidValidYamlFileWithMultipleDocumentsWithErrorInSecondDocument();
+
+    	expectBuildFailureAndFailureMessageForYamlWithMulipleDocumentsWithErrorInSecondDocument();
+    }
+    
+    @Test
+    public void shouldNotAllowYamlWithMultipleDocumentsWithErrorInLastDocument() throws IOException {
+
+    	writeBuildFileWithoutProperties();
+    	writeInvalidValidYamlFileWithMultipleDocumentsWithErrorInLastDocument();
+
+    	expectBuildFailureAndFailureMessageForYamlWithMulipleDocumentsWithErrorInLastDocument();
+    }
+
+    @Test
+    public void shouldSearchInMultipleFoldersWhenDefined() throws IOException {
+
+        writeBuildFileWhichDefinesTwoDirectories();
+        writeValidYamlFileWithMultipleDocuments();
+
+        expectBuildSuccessAndStartingMessageForBothDirectories();
+    }
+
+    @Test
+    public void shouldSearchInMultipleFoldersRecursivelyWhenDefined() throws IOException {
+
+        writeBuildFileWhichDefinesTwoDirectoriesAndActivatesRecursiveSearch();
+
+        expectBuildSuccessAndRecursiveStartingMessageForBothDirectories();
+    }
+
+    @Test
+    public void shouldBeAbleToFindYamlsInFolderAsWellAsYamlsDefined() throws IOException {
+
+        writeBuildFileWhichDefinesOneYamlFileAndOneDirectoryContainingAnohterYamlFile();
+
+        expectBuildSuccessAndSuccessMessageForBothFiles();
+    }
+
+    @Test
+    public void shouldBeAbleToFindYamlsInFoldersRecursivelyWhenActivated() throws IOException {
+
+        File yamlFileInSubdirectoryOfDefaultYamlDirectory = createAndGetYamlFileInSubdirectoryOfDefaultYamlDirectory();
+        writeBuildFileWithDefaultYamlDirectoryAndRecursiveSearchActivated();
+
+        expectBuildSuccessAndSuccessMessageForDefaultFileAndFileInSubdirectory(yamlFileInSubdirectoryOfDefaultYamlDirectory);
+    }
+
+    @Test
+    public void shouldNotBeAbleToFindYamlsInFoldersRecursivelyWhenDeactivated() throws IOException {
+
+        File yamlFileInSubdirectoryOfDefaultYamlDirectory = createAndGetYamlFileInSubdirectoryOfDefaultYamlDirectory();
+        writeBuildFileWithDefaultYamlDirectoryAndRecursiveSearchDeactivated();
+
+        expectBuildSuccessAndSuccessMessageForDefaultFileAndNoMessageForFileInSubdirectory(yamlFileInSubdirectoryOfDefaultYamlDirectory);
+    }
+
+    @Test
+    public void shouldNotValidateFileWithNonYamlEnding() throws IOException {
+
+        File nonYamlFile = createAndGetNonYamlFileInDefaultYamlDirectory();
+        writeBuildFileWithNonYamlFileAsSearchPath(nonYamlFile);
+
+        expectBuildSuccessAndNoStartingMessageForNonYamlFile(nonYamlFile);
+    }
+
+    @Test
+    public void shouldNotValidateFileWithNonYamlEndingButValidateYamlFileInSameDirectory() throws IOException {
+
+        File nonYamlFile = createAndGetNonYamlFileInDefaultYamlDirectory();
+        writeBuildFileWithoutProperties();
+
+        expectBuildSuccessAndStartingFileMessageForYamlFileButNoStartingMessageForNonYamlFile(nonYamlFile);
+    }
+
+    @Test
+    public void shouldNotValidateNonYamlFileRecursivelyWhenActivated() throws IOException {
+
+        File nonYamlFileInSubdirectoryOfDefaultYamlDirectory = createAndGetNonYamlFileInSubdirectoryOfDefaultYamlDirectory();
+        writeBuildFileWithDefaultYamlDirectoryAndRecursiveSearchActivated();
+
+        expectBuildSuccessAndStartingFileMessageForYamlFileButNoStartingMessageForNonYamlFileInSubdirectory(nonYamlFileInSubdirectoryOfDefaultYamlDirectory);
+    }
+
+    @Test
+    public void shouldRunYamlValidationDuringCheckPhase() throws IOException {
+
+        writeFile(
+                "plugins { id 'at.zierler.yamlvalidator' }\n" +
+                        "apply plugin: 'java'",
+                buildFile);
+
+        String expectedLineInOutput = String.format(YamlValidatorTask.STARTING_DIRECTORY_MESSAGE,
+                testProjectDir.getRoot().toPath().toRealPath().resolve("build/resources/main"));
+
+        String output = GradleRunner
+                .create()
+                .withProjectDir(testProjectDir.getRoot())
+                .withPluginClasspath()
+                .withArguments("check", "--info")
+                .build()
+                .getOutput();
+
+        assertThat(output, containsString(expectedLineInOutput));
+    }
+
+    @Test
+    public void shouldValidateResourcesOfEverySourceSetInATaskOfItsOwn() throws IOException {
+
+        writeFile(
+                "plugins { id 'at.zierler.yamlvalidator' }\n" +
+                        "apply plugin: 'java'",
+                buildFile);
+        File invalidTestYamlFile = testProjectDir.newFile(ANY_YAML_DIRECTORY_RELATIVE_PATH + "invalid.yaml");
+        writeFile("key: value\nkey: value", invalidTestYamlFile);
+
+        BuildResult result = GradleRunner
+                .create()
+                .withProjectDir(testProjectDir.getRoot())
+                .withPluginClasspath()
+                .withArguments(VALIDATE_YAML_TASK_NAME, "--continue", "--configuration-cache")
+                .buildAndFail();
+
+        assertThat(result.task(":" + String.format(YamlValidatorPlugin.VALIDATE_SOURCE_SET_YAML_TASK_NAME, "Main")).getOutcome(),
+                is(TaskOutcome.SUCCESS));
+        assertThat(result.task(":" + String.format(YamlValidatorPlugin.VALIDATE_SOURCE_SET_YAML_TASK_NAME, "Test")).getOutcome(),
+                is(TaskOutcome.FAILED));
+        assertThat(result.getOutput(), containsString(String.format(YamlValidatorTask.FILE_FAILURE_MESSAGE,
+                testProjectDir.getRoot().toPath().toRealPath().resolve("build/resources/test/invalid.yaml"))));
+    }
+
+    @Test
+    public void shouldValidateResourcesOfSourceSetAfterProcessingThem() throws IOException {
+
+        writeFile(
+                "plugins { id 'at.zierler.yamlvalidator' }\n" +
+                        "apply plugin: 'java'\n" +
+                        "processResources { expand(value: '[never closed') }",
+                buildFile);
+        writeFile("key: ${value}", yamlFileInDefaultYamlDirectory);
+
+        String output = runYamlValidateTaskExpectedToFailAndGetOutput();
+
+        assertThat(output, containsString(String.format(YamlValidatorTask.FILE_FAILURE_MESSAGE,
+                testProjectDir.getRoot().toPath().toRealPath().resolve("build/resources/main/file.yaml"))));
+    }
+
+    @Test
+    public void shouldNotValidateResourcesOfSourceSetAgainInSearchPathsOfValidateYaml() throws IOException {
+
+        writeFile(
+                "plugins { id 'at.zierler.yamlvalidator' }\n" +
+                        "apply plugin: 'java'\n" +
+                        "yamlValidator {\n" +
+                        "\tsearchPaths = ['src']\n" +
+                        "\tsearchRecursive = true\n" +
+                        "}",
+                buildFile);
+        File otherYamlFile = new File(testProjectDir.newFolder("src", "config"), "other.yaml");
+        writeFile("key: value", otherYamlFile);
+
+        String output = runYamlValidateTaskAndGetOutput();
+
+        assertThat(output, containsString(String.format(YamlValidatorTask.FILE_SUCCESS_MESSAGE, otherYamlFile.toPath().toRealPath())));
+        assertThat(output, containsString(String.format(YamlValidatorTask.FILE_SUCCESS_MESSAGE,
+                testProjectDir.getRoot().toPath().toRealPath().resolve("build/resources/main/file.yaml"))));
+        assertThat(output, not(containsString(String.format(YamlValidatorTask.STARTING_FILE_MESSAGE, yamlFileInDefaultYamlDirectory.toPath().toRealPath()))));
+    }
+
+    @Test
+    public void shouldNotLogWhenLogLevelIsLifecycle() throws IOException {
+
+        writeFile(
+                "plugins { id 'at.zierler.yamlvalidator' }\n" +
+                        "apply plugin: 'java'",
+                buildFile);
+
+        String startingFileMessage = String.format(YamlValidatorTask.STARTING_FILE_MESSAGE, yamlFileInDefaultYamlDirectory.toPath().toRealPath());
+        String startingDirectoryMessage = String.format(YamlValidatorTask.STARTING_DIRECTORY_MESSAGE, defaultYamlDirectory.toPath().toRealPath());
+        String fileSuccessMessage = String.format(YamlValidatorTask.FILE_SUCCESS_MESSAGE, yamlFileInDefaultYamlDirectory.toPath().toRealPath());
+
+        String output = GradleRunner
+                .create()
+                .withProjectDir(testProjectDir.getRoot())
+                .withPluginClasspath()
+                .build()
+                .getOutput();
+
+        assertThat(output, not(containsString(startingDirectoryMessage)));
+        assertThat(output, not(containsString(startingFileMessage)));
+        assertThat(output, not(containsString(fileSuccessMessage)));
+    }
+
+    @Test
+    public void shouldBeUpToDateWhenNoYamlFileChanged() {
+
+        writeBuildFileWithoutProperties();
+        writeValidYamlFile();
+
+        runYamlValidateTaskAndGetOutput();
+        BuildResult secondResult = createGradleRunnerForYamlValidateTask().build();
+
+        assertThat(secondResult.task(":" + VALIDATE_YAML_TASK_NAME).getOutcome(), is(TaskOutcome.UP_TO_DATE));
+    }
+
+    @Test
+    public void shouldOnlyValidateChangedYamlFilesWhenRunIncrementally() throws IOException {
+
+        File otherYamlFileInDefaultYamlDirectory = testProjectDir.newFile(DEFAULT_YAML_DIRECTORY_RELATIVE_PATH + "other.yaml");
+        writeBuildFileWithoutProperties();
+        writeValidYamlFile();
+
+        runYamlValidateTaskAndGetOutput();
+        writeFile("changed: value", otherYamlFileInDefaultYamlDirectory);
+
+        String expectedLineInOutput = String.format(YamlValidatorTask.STARTING_FILE_MESSAGE, otherYamlFileInDefaultYamlDirectory.toPath().toRealPath());
+        String unexpectedLineInOutput = String.format(YamlValidatorTask.STARTING_FILE_MESSAGE, yamlFileInDefaultYamlDirectory.toPath().toRealPath());
+
+        expectBuildSuccessAndOutputButNotOtherOutput(expectedLineInOutput, unexpectedLineInOutput);
+    }
+
+    @Test
+    public void shouldValidateAllYamlFilesAgainAfterFailedRun() throws IOException {
+
+        writeBuildFileWithoutProperties();
+        writeYamlFileWithDuplicateKey();
+
+        runYamlValidateTaskExpectedToFailAndGetOutput();
+
+        expectBuildFailureAndFailureMessageForDefaultYamlFile();
+    }
+
+    @Test
+    public void shouldReuseConfigurationCache() {
+
+        writeBuildFileWithoutProperties();
+        writeValidYamlFile();
+
+        createGradleRunnerForYamlValidateTaskWithConfigurationCache().build();
+        BuildResult secondResult = createGradleRunnerForYamlValidateTaskWithConfigurationCache().build();
+
+        assertThat(secondResult.getOutput(), containsString("Reusing configuration cache."));
+        assertThat(secondResult.task(":" + VALIDATE_YAML_TASK_NAME).getOutcome(), is(TaskOutcome.UP_TO_DATE));
+    }
+
+    @Test
+    public void shouldFindNewYamlFilesWhenReusingConfigurationCache() throws IOException {
+
+        File otherYamlFileInDefaultYamlDirectory = testProjectDir.newFile(DEFAULT_YAML_DIRECTORY_RELATIVE_PATH + "other.yaml");
+        writeBuildFileWithoutProperties();
+        writeValidYamlFile();
+        writeFile("key: value", otherYamlFileInDefaultYamlDirectory);
+
+        createGradleRunnerForYamlValidateTaskWithConfigurationCache().build();
+        Files.delete(otherYamlFileInDefaultYamlDirectory.toPath());
+        File newYamlFileInDefaultYamlDirectory = testProjectDir.newFile(DEFAULT_YAML_DIRECTORY_RELATIVE_PATH + "new.yaml");
+        writeFile("key: value\nkey: value", newYamlFileInDefaultYamlDirectory);
+        BuildResult secondResult = createGradleRunnerForYamlValidateTaskWithConfigurationCache().buildAndFail();
+
+        assertThat(secondResult.getOutput(), containsString("Reusing configuration cache."));
+        assertThat(secondResult.getOutput(), containsString(
+                String.format(YamlValidatorTask.FILE_FAILURE_MESSAGE, newYamlFileInDefaultYamlDirectory.toPath().toRealPath())));
+    }
+
+    @Test
+    public void shouldLoadValidationResultFromBuildCacheInRelocatedProject() throws IOException {
+
+        File buildCacheDirectory = otherTestProjectDir.newFolder("build-cache");
+        File relocatedProjectDir = otherTestProjectDir.newFolder("relocated");
+
+        writeBuildFileWithoutProperties();
+        writeValidYamlFile();
+        writeSettingsFileWithLocalBuildCache(testProjectDir.getRoot(), buildCacheDirectory);
+        createGradleRunnerForYamlValidateTaskWithBuildCache(testProjectDir.getRoot()).build();
+
+        copyDirectory(testProjectDir.getRoot().toPath(), relocatedProjectDir.toPath());
+        BuildResult relocatedResult = createGradleRunnerForYamlValidateTaskWithBuildCache(relocatedProjectDir).build();
+
+        assertThat(relocatedResult.task(":" + VALIDATE_YAML_TASK_NAME).getOutcome(), is(TaskOutcome.FROM_CACHE));
+    }
+
+    @Test
+    public void shouldReportFailuresOfAllFilesInOneFailureWhenFailFastIsFalse() throws IOException {
+
+        File otherYamlFileInDefaultYamlDirectory = testProjectDir.newFile(DEFAULT_YAML_DIRECTORY_RELATIVE_PATH + "other.yaml");
+        writeFile(
+                "plugins { id 'at.zierler.yamlvalidator' }\n" +
+                        "yamlValidator {\n" +
+                        "\tfailFast = false\n" +
+                        "\tmaxParallelism = 2\n" +
+                        "}",
+                buildFile);
+        writeYamlFileWithDuplicateKey();
+        writeFile("key: value\n  other: value", otherYamlFileInDefaultYamlDirectory);
+
+        String expectedLineInOutput1 = String.format(YamlValidatorTask.FAILURES_MESSAGE, 2);
+        String expectedLineInOutput2 = String.format(YamlValidatorTask.FILE_FAILURE_MESSAGE, yamlFileInDefaultYamlDirectory.toPath().toRealPath());
+        String expectedLineInOutput3 = String.format(ValidationFailure.LOCATED_PROBLEM_MESSAGE, 4, 1, "found duplicate key framework");
+        String expectedLineInOutput4 = String.format(YamlValidatorTask.FILE_FAILURE_MESSAGE, otherYamlFileInDefaultYamlDirectory.toPath().toRealPath());
+        String expectedLineInOutput5 = String.format(ValidationFailure.LOCATED_PROBLEM_MESSAGE, 2, 8, "mapping values are not allowed here");
+
+        expectBuildFailureWithLinesInOutput(expectedLineInOutput1, expectedLineInOutput2, expectedLineInOutput3, expectedLineInOutput4, expectedLineInOutput5);
+    }
+
+    @Test
+    public void shouldStopAfterFirstFailureByDefault() throws IOException {
+
+        writeFile("key: value\n  other: value", testProjectDir.newFile(DEFAULT_YAML_DIRECTORY_RELATIVE_PATH + "other.yaml"));
+        writeFile(
+                "plugins { id 'at.zierler.yamlvalidator' }\n" +
+                        "yamlValidator { maxParallelism = 1 }",
+                buildFile);
+        writeYamlFileWithDuplicateKey();
+
+        String expectedLineInOutput1 = String.format(YamlValidatorTask.FAILURES_MESSAGE, 1);
+        String expectedLineInOutput2 = String.format(YamlValidatorTask.SKIPPED_FILES_MESSAGE, 1);
+
+        expectBuildFailureWithLinesInOutput(expectedLineInOutput1, expectedLineInOutput2);
+    }
+
+    @Test
+    public void shouldStopAfterMaxFailuresWhenFailFastIsFalse() throws IOException {
+
+        writeFile("key: value\n  other: value", testProjectDir.newFile(DEFAULT_YAML_DIRECTORY_RELATIVE_PATH + "other1.yaml"));
+        writeFile("key: value\n  other: value", testProjectDir.newFile(DEFAULT_YAML_DIRECTORY_RELATIVE_PATH + "other2.yaml"));
+        writeFile(
+                "plugins { id 'at.zierler.yamlvalidator' }\n" +
+                        "yamlValidator {\n" +
+                        "\tfailFast = false\n" +
+                        "\tmaxFailures = 2\n" +
+                        "\tmaxParallelism = 1\n" +
+                        "}",
+                buildFile);
+        writeYamlFileWithDuplicateKey();
+
+        String expectedLineInOutput1 = String.format(YamlValidatorTask.FAILURES_MESSAGE, 2);
+        String expectedLineInOutput2 = String.format(YamlValidatorTask.SKIPPED_FILES_MESSAGE, 1);
+
+        expectBuildFailureWithLinesInOutput(expectedLineInOutput1, expectedLineInOutput2);
+    }
+
+    @Test
+    public void shouldWriteReportWithStatisticsOfEveryValidatedFile() throws IOException {
+
+        File invalidYamlFile = testProjectDir.newFile(DEFAULT_YAML_DIRECTORY_RELATIVE_PATH + "invalid.yaml");
+        writeFile("key: value\n  other: value", invalidYamlFile);
+        writeFile(
+                "plugins { id 'at.zierler.yamlvalidator' }\n" +
+                        "yamlValidator { failFast = false }",
+                buildFile);
+        writeValidYamlFileWithMultipleDocuments();
+
+        runYamlValidateTaskExpectedToFailAndGetOutput();
+        Path reportFile = testProjectDir.getRoot().toPath().resolve("build/reports/yaml-validator/" + VALIDATE_YAML_TASK_NAME + ".json");
+        String report = new String(Files.readAllBytes(reportFile), StandardCharsets.UTF_8);
+
+        assertThat(report, containsString("\"files\": 2,"));
+        assertThat(report, containsString("\"invalidFiles\": 1,"));
+        assertThat(report, containsString("\"documents\": 2,"));
+        assertThat(report, containsString("\"result\": \"INVALID\""));
+        assertThat(report, containsString("\"slowestFiles\": ["));
+    }
+
+    @Test
+    public void shouldWriteJunitXmlAndSarifReportsWhenEnabled() throws Exception {
+
+        File invalidYamlFile = testProjectDir.newFile(DEFAULT_YAML_DIRECTORY_RELATIVE_PATH + "invalid.yaml");
+        writeFile("key: value\n  other: value", invalidYamlFile);
+        writeFile(
+                "plugins { id 'at.zierler.yamlvalidator' }\n" +
+                        "yamlValidator {\n" +
+                        "\tfailFast = false\n" +
+                        "\tjunitXmlReport = true\n" +
+                        "\tsarifReport = true\n" +
+                        "}",
+                buildFile);
+        writeValidYamlFile();
+
+        runYamlValidateTaskExpectedToFailAndGetOutput();
+        Path buildDirectory = testProjectDir.getRoot().toPath().resolve("build");
+        Element testSuite = DocumentBuilderFactory.newInstance().newDocumentBuilder()
+                .parse(buildDirectory.resolve("test-results/yaml-validator/TEST-" + VALIDATE_YAML_TASK_NAME + ".xml").toFile())
+                .getDocumentElement();
+        String sarif = new String(Files.readAllBytes(buildDirectory.resolve("reports/yaml-validator/" + VALIDATE_YAML_TASK_NAME + ".sarif")),
+                StandardCharsets.UTF_8);
+
+        assertThat(testSuite.getAttribute("tests"), is("2"));
+        assertThat(testSuite.getAttribute("failures"), is("1"));
+        assertThat(testSuite.getElementsByTagName("failure").item(0).getTextContent(),
+                containsString("line 2, column 8: mapping values are not allowed here"));
+        assertThat(sarif, containsString("\"uri\": \"" + DEFAULT_YAML_DIRECTORY_RELATIVE_PATH + "invalid.yaml\", \"uriBaseId\": \"SRCROOT\""));
+        assertThat(sarif, containsString("\"region\": {\"startLine\": 2, \"startColumn\": 8}"));
+    }
+
+    @Test
+    public void shouldParseFilesSharedBetweenProjectsOnlyOnce() throws IOException {
+
+        testProjectDir.newFolder("common");
+        testProjectDir.newFolder("first");
+        testProjectDir.newFolder("second");
+        File sharedYamlFile = testProjectDir.newFile("common/shared.yaml");
+        writeFile("key: value", sharedYamlFile);
+        writeFile("include 'first', 'second'", testProjectDir.newFile("settings.gradle"));
+        String subprojectBuildFile =
+                "plugins { id 'at.zierler.yamlvalidator' }\n" +
+                        "yamlValidator { searchPaths = ['../common'] }";
+        writeFile(subprojectBuildFile, testProjectDir.newFile("first/build.gradle"));
+        writeFile(subprojectBuildFile, testProjectDir.newFile("second/build.gradle"));
+
+        String output = createGradleRunnerForYamlValidateTask().build().getOutput();
+
+        String parsedLine = String.format(YamlValidatorTask.DOCUMENT_SUCCESS_MESSAGE, 1, sharedYamlFile.toPath().toRealPath());
+        String cachedLine = String.format(YamlValidatorTask.CACHED_FILE_MESSAGE, sharedYamlFile.toPath().toRealPath());
+        assertThat(output.split(Pattern.quote(parsedLine), -1).length - 1, is(1));
+        assertThat(output, containsString(cachedLine));
+    }
+
+    @Test
+    public void shouldValidateOverlappingSearchPathsAndIdenticalContentsOnlyOnce() throws IOException {
+
+        writeFile(
+                "plugins { id 'at.zierler.yamlvalidator' }\n" +
+                        "yamlValidator { searchPaths = ['" + DEFAULT_YAML_DIRECTORY_RELATIVE_PATH + "', '" + DEFAULT_YAML_DIRECTORY_RELATIVE_PATH + "file.yaml'] }",
+                buildFile);
+        File copyOfYamlFile = testProjectDir.newFile(DEFAULT_YAML_DIRECTORY_RELATIVE_PATH + "copy.yaml");
+        writeFile("key: value", yamlFileInDefaultYamlDirectory);
+        writeFile("key: value", copyOfYamlFile);
+
+        String output = createGradleRunnerForYamlValidateTask().build().getOutput();
+        Path reportFile = testProjectDir.getRoot().toPath().resolve("build/reports/yaml-validator/" + VALIDATE_YAML_TASK_NAME + ".json");
+        String report = new String(Files.readAllBytes(reportFile), StandardCharsets.UTF_8);
+
+        assertThat(output, containsString(String.format(YamlValidatorTask.DUPLICATE_PATHS_MESSAGE, 1)));
+        assertThat(output, containsString(String.format(YamlValidatorTask.SAVED_VALIDATIONS_MESSAGE, 2)));
+        String parsedLine = String.format(YamlValidatorTask.DOCUMENT_SUCCESS_MESSAGE, 1, yamlFileInDefaultYamlDirectory.toPath().toRealPath());
+        String parsedCopyLine = String.format(YamlValidatorTask.DOCUMENT_SUCCESS_MESSAGE, 1, copyOfYamlFile.toPath().toRealPath());
+        assertThat(output.split(Pattern.quote(parsedLine), -1).length + output.split(Pattern.quote(parsedCopyLine), -1).length - 2, is(1));
+        assertThat(report, containsString("\"files\": 2,"));
+        assertThat(report, containsString("\"duplicatePaths\": 1,"));
+        assertThat(report, containsString("\"duplicateContents\": 1,"));
+        assertThat(report, containsString("\"result\": \"DUPLICATE\""));
+    }
+
+    @Test
+    public void shouldNotAllowYamlNotMatchingItsSchema() throws IOException {
+
+        writeBuildFileWithSchemaForDefaultYamlDirectory("LOAD");
+        writeSchemaFile();
+        writeFile(
+                "server:\n" +
+                        "  port: eighty\n" +
+                        "  unknown: value",
+                yamlFileInDefaultYamlDirectory);
+
+        String output = runYamlValidateTaskExpectedToFailAndGetOutput();
+
+        assertThat(output, containsString("line 2, column 9: document #1 doesn't match schema config.json: $.server.port: expected integer, found string"));
+        assertThat(output, containsString("line 3, column 3: $.server.unknown: property 'unknown' is not allowed"));
+    }
+
+    @Test
+    public void shouldReportLineOfErrorInLaterDocumentWhenValidatingDocumentsInParallel() throws IOException {
+
+        writeFile(
+                "plugins { id 'at.zierler.yamlvalidator' }\n" +
+                        "yamlValidator {\n" +
+                        "\tparallelDocuments = true\n" +
+                        "\tparallelDocumentsMinBytes = 0\n" +
+                        "}",
+                buildFile);
+        writeFile(
+                "first: document\n" +
+                        "---\n" +
+                        "script: |\n" +
+                        "  echo '---'\n" +
+                        "  ---\n" +
+                        "quoted: \"multi\n" +
+                        "  line\"\n" +
+                        "---\n" +
+                        "key: value\n" +
+                        "key: other",
+                yamlFileInDefaultYamlDirectory);
+
+        String expectedLineInOutput = String.format(ValidationFailure.LOCATED_PROBLEM_MESSAGE, 10, 1, "found duplicate key key");
+
+        expectBuildFailureWithLinesInOutput(expectedLineInOutput);
+    }
+
+    @Test
+    public void shouldReportDocumentIndexOfSchemaViolationWhenValidatingDocumentsInParallel() throws IOException {
+
+        writeFile(
+                "plugins { id 'at.zierler.yamlvalidator' }\n" +
+                        "yamlValidator {\n" +
+                        "\tparallelDocuments = true\n" +
+                        "\tparallelDocumentsMinBytes = 0\n" +
+                        "\tschemas = ['" + DEFAULT_YAML_DIRECTORY_RELATIVE_PATH + "*.yaml': 'schemas/config.json']\n" +
+                        "}",
+                buildFile);
+        writeSchemaFile();
+        writeFile(
+                "server:\n" +
+                        "  port: 80\n" +
+                        "---\n" +
+                        "server:\n" +
+                        "  port: 81\n" +
+                        "---\n" +
+                        "server:\n" +
+                        "  port: eighty\n" +
+                        "  unknown: value",
+                yamlFileInDefaultYamlDirectory);
+
+        String output = runYamlValidateTaskExpectedToFailAndGetOutput();
+
+        assertThat(output, containsString("line 8, column 9: document #3 doesn't match schema config.json: $.server.port: expected integer, found string"));
+        assertThat(output, containsString("line 9, column 3: $.server.unknown: property 'unknown' is not allowed"));
+    }
+
+    @Test
+    public void shouldAllowYamlMatchingItsSchemaInSyntaxValidationMode() throws IOException {
+
+        writeBuildFileWithSchemaForDefaultYamlDirectory("SYNTAX");
+        writeSchemaFile();
+        writeFile(
+                "defaults: &defaults\n" +
+                        "  port: 8080\n" +
+                        "server:\n" +
+                        "  <<: *defaults\n" +
+                        "  name: main",
+                yamlFileInDefaultYamlDirectory);
+
+        expectBuildSuccessAndSuccessMessageForDefaultYamlFile();
+    }
+
+    @Test
+    public void shouldValidateWithClassloaderIsolation() throws IOException {
+
+        writeFile(
+                "plugins { id 'at.zierler.yamlvalidator' }\n" +
+                        "yamlValidator { workerIsolation = 'CLASSLOADER' }",
+                buildFile);
+        writeValidYamlFileWithMultipleDocuments();
+
+        expectBuildSuccessAndSuccessMessageForYamlWithMulipleDocuments();
+    }
+
+    @Test
+    public void shouldNotAllowYamlWithDuplicateKeyInSyntaxValidationMode() throws IOException {
+
+        writeBuildFileWithSyntaxValidationMode(false);
+        writeYamlFileWithDuplicateKey();
+
+        expectBuildFailureAndFailureMessageForDefaultYamlFile();
+    }
+
+    @Test
+    public void shouldAllowYamlWithDuplicateKeyInSyntaxValidationModeWhenAllowDuplicatesIsTrue() throws IOException {
+
+        writeBuildFileWithSyntaxValidationMode(true);
+        writeYamlFileWithDuplicateKey();
+
+        expectBuildSuccessAndSuccessMessageForDefaultYamlFile();
+    }
+
+    @Test
+    public void shouldAllowValidYamlWithMultipleDocumentsInSyntaxValidationMode() throws IOException {
+
+        writeBuildFileWithSyntaxValidationMode(false);
+        writeValidYamlFileWithMultipleDocuments();
+
+        expectBuildSuccessAndSuccessMessageForYamlWithMulipleDocuments();
+    }
+
+    @Test
+    public void shouldNotAllowYamlWithErrorInSecondDocumentInSyntaxValidationMode() throws IOException {
+
+        writeBuildFileWithSyntaxValidationMode(false);
+        writeInvalidValidYamlFileWithMultipleDocumentsWithErrorInSecondDocument();
+
+        expectBuildFailureAndFailureMessageForYamlWithMulipleDocumentsWithErrorInSecondDocument();
+    }
+
+    @Test
+    public void shouldNotAllowAliasBomb() throws IOException {
+
+        writeBuildFileWithoutProperties();
+        writeYamlFileWithAliasBomb();
+
+        expectBuildFailureAndFailureMessageForDefaultYamlFile();
+    }
+
+    @Test
+    public void shouldNotAllowAliasBombInSyntaxValidationMode() throws IOException {
+
+        writeBuildFileWithSyntaxValidationMode(false);
+        writeYamlFileWithAliasBomb();
+
+        String expectedLineInOutput1 = String.format(YamlValidatorTask.FILE_FAILURE_MESSAGE, yamlFileInDefaultYamlDirectory.toPath().toRealPath());
+        String expectedLineInOutput2 = String.format(YamlLimitExceededException.TOO_MANY_ALIASES_MESSAGE, 50);
+
+        expectBuildFailureWithLinesInOutput(expectedLineInOutput1, expectedLineInOutput2);
+    }
+
+    @Test
+    public void shouldNotAllowYamlNestedDeeperThanMaxNestingDepth() throws IOException {
+
+        writeFile(
+                "plugins { id 'at.zierler.yamlvalidator' }\n" +
+                        "yamlValidator { maxNestingDepth = 2 }",
+                buildFile);
+        writeFile("a:\n  b:\n    c: value", yamlFileInDefaultYamlDirectory);
+
+        expectBuildFailureAndFailureMessageForDefaultYamlFile();
+    }
 
-    @Before
-    public void setupTestProject() throws IOException {
+    @Test
+    public void shouldDetectEncodingFromByteOrderMark() throws IOException {
 
-        this.buildFile = testProjectDir.newFile("build.gradle");
+        writeBuildFileWithoutProperties();
+        byte[] content = "framework:\n  key: v\u00e4lue\nframework: other".getBytes(StandardCharsets.UTF_16LE);
+        byte[] byteOrderMark = {(byte) 0xFF, (byte) 0xFE};
+        Files.write(yamlFileInDefaultYamlDirectory.toPath(), byteOrderMark);
+        Files.write(yamlFileInDefaultYamlDirectory.toPath(), content, StandardOpenOption.APPEND);
 
-        this.defaultYamlDirectory = testProjectDir.newFolder(DEFAULT_YAML_DIRECTORY_RELATIVE_PATH.split("/"));
-        this.anyYamlDirectory = testProjectDir.newFolder(ANY_YAML_DIRECTORY_RELATIVE_PATH.split("/"));
+        String expectedLineInOutput = String.format(ValidationFailure.LOCATED_PROBLEM_MESSAGE, 3, 1, "found duplicate key framework");
 
-        this.yamlFileInDefaultYamlDirectory = testProjectDir.newFile(DEFAULT_YAML_DIRECTORY_RELATIVE_PATH + "file.yaml");
-        this.yamlFileInAnyYamlDirectory = testProjectDir.newFile(ANY_YAML_DIRECTORY_RELATIVE_PATH + "file.yml");
+        expectBuildFailureWithLinesInOutput(expectedLineInOutput);
     }
 
     @Test
-    public void shouldUseDefaultSearchPathsWhenNonDefined() throws IOException {
+    public void shouldReportLineOfErrorInFileLargerThanOneMegabyte() throws IOException {
 
         writeBuildFileWithoutProperties();
+        String entries = IntStream.range(0, 100_000)
+                .mapToObj(i -> "key" + i + ": value\n")
+                .collect(Collectors.joining());
+        writeFile(entries + "key0: duplicate", yamlFileInDefaultYamlDirectory);
 
-        expectBuildSuccessAndDirectorySearchStartMessage(defaultYamlDirectory);
+        String expectedLineInOutput = String.format(ValidationFailure.LOCATED_PROBLEM_MESSAGE, 100_001, 1, "found duplicate key key0");
+
+        expectBuildFailureWithLinesInOutput(expectedLineInOutput);
     }
 
     @Test
-    public void shouldUseDefinedSearchPaths() throws IOException {
+    public void shouldValidateYamlEntriesOfNestedArchives() throws IOException {
+
+        testProjectDir.newFolder("libs");
+        File archive = testProjectDir.newFile("libs/app.jar");
+        byte[] library = zip(
+                "application.yml", "framework:\n  key: value\nframework: other");
+        Files.write(archive.toPath(), zip(
+                "config/valid.yaml", "key: value",
+                "config/readme.txt", "key: value\nkey: other",
+                "BOOT-INF/lib/library.jar", new String(library, StandardCharsets.ISO_8859_1)));
+        writeFile(
+                "plugins { id 'at.zierler.yamlvalidator' }\n" +
+                        "yamlValidator {\n" +
+                        "\tsearchPaths = ['libs/app.jar']\n" +
+                        "\tarchiveExtensions = ['jar']\n" +
+                        "}",
+                buildFile);
 
-        writeBuildFileWithAnyYamlDirectoryAsOnlyDefinedSearchPath();
+        String archivePath = archive.toPath().toRealPath().toString();
+        String expectedLineInOutput1 = String.format(YamlValidatorTask.FILE_FAILURE_MESSAGE, archivePath + "!/BOOT-INF/lib/library.jar!/application.yml");
+        String expectedLineInOutput2 = String.format(ValidationFailure.LOCATED_PROBLEM_MESSAGE, 3, 1, "found duplicate key framework");
+        String expectedLineInOutput3 = String.format(YamlValidatorTask.FILE_SUCCESS_MESSAGE, archivePath + "!/config/valid.yaml");
 
-        expectBuildSuccessAndDirectorySearchStartMessage(anyYamlDirectory);
+        expectBuildFailureWithLinesInOutput(expectedLineInOutput1, expectedLineInOutput2, expectedLineInOutput3);
     }
 
     @Test
-    public void shouldSucceedForEmptyYaml() throws IOException {
+    public void shouldValidateArchiveBuiltByOtherTask() throws IOException {
 
-        writeBuildFileWithoutProperties();
+        writeFile(
+                "plugins { id 'at.zierler.yamlvalidator' }\n" +
+                        "def bundle = tasks.register('bundle', Zip) {\n" +
+                        "\tfrom '" + DEFAULT_YAML_DIRECTORY_RELATIVE_PATH + "'\n" +
+                        "\tarchiveFileName = 'bundle.zip'\n" +
+                        "\tdestinationDirectory = layout.buildDirectory.dir('distributions')\n" +
+                        "}\n" +
+                        "yamlValidator { archiveExtensions = ['zip'] }\n" +
+                        "tasks.named('validateYaml') { searchPaths.from(bundle) }",
+                buildFile);
+        writeValidYamlFile();
 
-        expectBuildSuccessAndSuccessMessageForDefaultYamlFile();
+        BuildResult result = createGradleRunnerForYamlValidateTask().build();
+
+        assertThat(result.task(":bundle").getOutcome(), is(TaskOutcome.SUCCESS));
+        assertThat(result.getOutput(), containsString(String.format(YamlValidatorTask.FILE_SUCCESS_MESSAGE,
+                testProjectDir.getRoot().toPath().toRealPath().resolve("build/distributions/bundle.zip") + "!/file.yaml")));
     }
 
     @Test
-    public void shouldNotAllowYamlWithDuplicateKeyWhenAllowDuplicatesIsFalse() throws IOException {
+    public void shouldValidateChangedYamlFileWhileWatching() throws Exception {
 
-        writeBuildFileWhichDoesNotAllowDuplicateKeys();
+        writeFile(
+                "plugins { id 'at.zierler.yamlvalidator' }\n" +
+                        "tasks.named('watchYaml') { maxChanges = 1 }",
+                buildFile);
+        writeValidYamlFile();
+        StringWriter output = new StringWriter();
+        GradleRunner runner = GradleRunner
+                .create()
+                .withProjectDir(testProjectDir.getRoot())
+                .withPluginClasspath()
+                .withArguments(YamlValidatorPlugin.WATCH_YAML_TASK_NAME)
+                .forwardStdOutput(output)
+                .forwardStdError(output);
+        CompletableFuture<BuildResult> build = CompletableFuture.supplyAsync(runner::build);
+
+        String watchingMessage = String.format(WatchYamlTask.WATCHING_MESSAGE, 1);
+        for (int i = 0; i < 600 && !output.toString().contains(watchingMessage) && !build.isDone(); i++) {
+            Thread.sleep(100);
+        }
         writeYamlFileWithDuplicateKey();
 
-        expectBuildFailureAndFailureMessageForDefaultYamlFile();
+        build.get(60, TimeUnit.SECONDS);
+
+        String file = yamlFileInDefaultYamlDirectory.toPath().toRealPath().toString();
+        assertThat(output.toString(), containsString(String.format(WatchYamlTask.INITIAL_VALIDATION_MESSAGE, 1, 0)));
+        String invalidFileMessage = "\\Q" + String.format(WatchYamlTask.INVALID_FILE_MESSAGE, file, "\\E\\d+\\Q") + "\\E";
+        assertThat(Pattern.compile(invalidFileMessage).matcher(output.toString()).find(), is(true));
+        assertThat(output.toString(), containsString(String.format(ValidationFailure.LOCATED_PROBLEM_MESSAGE, 4, 1, "found duplicate key framework")));
     }
 
     @Test
-    public void shouldAllowYamlWithDuplicateKeyWhenAllowDuplicatesIsTrue() throws IOException {
+    public void shouldNotWatchExcludedDirectoriesButValidateArchivesWhileWatching() throws Exception {
 
-        writeBuildFileWhichDoesAllowDuplicateKeys();
+        String excludedDirectoryRelativePath = DEFAULT_YAML_DIRECTORY_RELATIVE_PATH + "node_modules/";
+        testProjectDir.newFolder(excludedDirectoryRelativePath.split("/"));
+        writeFile("key: value", testProjectDir.newFile(excludedDirectoryRelativePath + "module.yaml"));
+        Files.write(testProjectDir.newFile(DEFAULT_YAML_DIRECTORY_RELATIVE_PATH + "bundle.zip").toPath(), zip(
+                "file.yaml", "framework:\n  key: value\nframework: other"));
+        writeFile(
+                "plugins { id 'at.zierler.yamlvalidator' }\n" +
+                        "yamlValidator {\n" +
+                        "\tsearchRecursive = true\n" +
+                        "\texcludes = ['**/node_modules']\n" +
+                        "\tarchiveExtensions = ['zip']\n" +
+                        "}\n" +
+                        "tasks.named('watchYaml') { maxChanges = 1 }",
+                buildFile);
+        writeValidYamlFile();
+        StringWriter output = new StringWriter();
+        GradleRunner runner = GradleRunner
+                .create()
+                .withProjectDir(testProjectDir.getRoot())
+                .withPluginClasspath()
+                .withArguments(YamlValidatorPlugin.WATCH_YAML_TASK_NAME)
+                .forwardStdOutput(output)
+                .forwardStdError(output);
+        CompletableFuture<BuildResult> build = CompletableFuture.supplyAsync(runner::build);
+
+        String watchingMessage = String.format(WatchYamlTask.WATCHING_MESSAGE, 1);
+        for (int i = 0; i < 600 && !output.toString().contains(watchingMessage) && !build.isDone(); i++) {
+            Thread.sleep(100);
+        }
         writeYamlFileWithDuplicateKey();
 
-        expectBuildSuccessAndSuccessMessageForDefaultYamlFile();
+        build.get(60, TimeUnit.SECONDS);
+
+        assertThat(output.toString(), containsString(watchingMessage));
+        assertThat(output.toString(), containsString(String.format(WatchYamlTask.INITIAL_VALIDATION_MESSAGE, 2, 1)));
+        assertThat(output.toString(), containsString(String.format(ValidationFailure.LOCATED_PROBLEM_MESSAGE, 3, 1, "found duplicate key framework")));
     }
 
     @Test
-    public void shouldAllowValidYaml() throws IOException {
+    public void shouldOnlyValidateYamlFilesChangedSinceGitRevision() throws Exception {
 
         writeBuildFileWithoutProperties();
-        writeValidYamlFile();
+        writeYamlFileWithDuplicateKey();
+        git("init", "--quiet");
+        git("add", ".");
+        git("-c", "user.name=test", "-c", "user.email=test@example.com", "commit", "--quiet", "--message", "base");
+        File changedYamlFile = testProjectDir.newFile(DEFAULT_YAML_DIRECTORY_RELATIVE_PATH + "changed.yaml");
+        writeFile("key: value", changedYamlFile);
+
+        String output = createGradleRunnerForYamlValidateTask()
+                .withArguments(VALIDATE_YAML_TASK_NAME, "--info", "-P" + YamlValidatorPlugin.SINCE_PROPERTY + "=HEAD")
+                .build()
+                .getOutput();
 
-        expectBuildSuccessAndSuccessMessageForDefaultYamlFile();
+        assertThat(output, containsString(String.format(YamlValidatorTask.STARTING_CHANGED_SINCE_MESSAGE, 1, 2, "HEAD")));
+        assertThat(output, containsString(String.format(YamlValidatorTask.FILE_SUCCESS_MESSAGE, changedYamlFile.toPath().toRealPath())));
+        assertThat(output, not(containsString(String.format(YamlValidatorTask.STARTING_FILE_MESSAGE, yamlFileInDefaultYamlDirectory.toPath().toRealPath()))));
     }
-    
+
     @Test
-    public void shouldAllowValidYamlWithMultipleDocuments() throws IOException {
+    public void shouldValidateUntrackedYamlFilesOfSubprojectChangedSinceGitRevision() throws Exception {
+
+        writeFile("include 'sub'", testProjectDir.newFile("settings.gradle"));
+        testProjectDir.newFolder(("sub/" + DEFAULT_YAML_DIRECTORY_RELATIVE_PATH).split("/"));
+        writeFile("plugins { id 'at.zierler.yamlvalidator' }", testProjectDir.newFile("sub/build.gradle"));
+        writeFile("key: value", testProjectDir.newFile("sub/" + DEFAULT_YAML_DIRECTORY_RELATIVE_PATH + "committed.yaml"));
+        git("init", "--quiet");
+        git("add", ".");
+        git("-c", "user.name=test", "-c", "user.email=test@example.com", "commit", "--quiet", "--message", "base");
+        File untrackedYamlFile = testProjectDir.newFile("sub/" + DEFAULT_YAML_DIRECTORY_RELATIVE_PATH + "untracked.yaml");
+        writeFile("key: value\n  other: value", untrackedYamlFile);
+
+        String output = createGradleRunnerForYamlValidateTask()
+                .withArguments(":sub:" + VALIDATE_YAML_TASK_NAME, "--info", "-P" + YamlValidatorPlugin.SINCE_PROPERTY + "=HEAD")
+                .buildAndFail()
+                .getOutput();
 
-        writeBuildFileWithoutProperties();
-        writeValidYamlFileWithMultipleDocuments();
+        assertThat(output, containsString(String.format(YamlValidatorTask.STARTING_CHANGED_SINCE_MESSAGE, 1, 2, "HEAD")));
+        assertThat(output, containsString(String.format(YamlValidatorTask.FILE_FAILURE_MESSAGE, untrackedYamlFile.toPath().toRealPath())));
+    }
 
-        expectBuildSuccessAndSuccessMessageForYamlWithMulipleDocuments();
+    @Test
+    public void shouldValidateAllYamlFilesWhenGitCantTellChangedFiles() throws IOException {
+
+        writeFile(
+                "plugins { id 'at.zierler.yamlvalidator' }\n" +
+                        "yamlValidator { since = 'origin/main' }",
+                buildFile);
+        writeValidYamlFile();
+
+        String output = runYamlValidateTaskAndGetOutput();
+
+        assertThat(output, containsString(String.format(YamlValidatorTask.GIT_UNAVAILABLE_MESSAGE, "origin/main", "")));
+        assertThat(output, containsString(String.format(YamlValidatorTask.FILE_SUCCESS_MESSAGE, yamlFileInDefaultYamlDirectory.toPath().toRealPath())));
     }
-    
+
     @Test
-    public void shouldNotAllowYamlWithMultipleDocumentsWithErrorInFirstDocument() throws IOException {
+    public void shouldNotPassRevisionLookingLikeAnOptionToGit() throws Exception {
 
-    	writeBuildFileWithoutProperties();
-    	writeInvalidValidYamlFileWithMultipleDocumentsWithErrorInFirstDocument();
+        writeBuildFileWithoutProperties();
+        writeValidYamlFile();
+        git("init", "--quiet");
+        git("add", ".");
+        git("-c", "user.name=test", "-c", "user.email=test@example.com", "commit", "--quiet", "--message", "base");
 
-        expectBuildFailureAndFailureMessageForDefaultYamlFile();
+        String output = createGradleRunnerForYamlValidateTask()
+                .withArguments(VALIDATE_YAML_TASK_NAME, "--info", "-P" + YamlValidatorPlugin.SINCE_PROPERTY + "=--output=injected.txt")
+                .build()
+                .getOutput();
+
+        assertThat(output, containsString(String.format(YamlValidatorTask.GIT_UNAVAILABLE_MESSAGE, "--output=injected.txt",
+                String.format(GitChangedFiles.INVALID_REVISION_MESSAGE, "--output=injected.txt"))));
+        assertThat(output, containsString(String.format(YamlValidatorTask.FILE_SUCCESS_MESSAGE, yamlFileInDefaultYamlDirectory.toPath().toRealPath())));
+        assertThat(new File(testProjectDir.getRoot(), "injected.txt").exists(), is(false));
     }
-    
+
     @Test
-    public void shouldNotAllowYamlWithMultipleDocumentsWithErrorInSecondDocument() throws IOException {
+    public void shouldNotAllowConflictingKeysInFilesOfKeyGroup() throws IOException {
 
-    	writeBuildFileWithoutProperties();
-    	writeInvalidValidYamlFileWithMultipleDocumentsWithErrorInSecondDocument();
+        writeBuildFileWithKeyGroupForApplicationFiles();
+        File applicationYamlFile = testProjectDir.newFile(DEFAULT_YAML_DIRECTORY_RELATIVE_PATH + "application.yml");
+        File profileYamlFile = testProjectDir.newFile(DEFAULT_YAML_DIRECTORY_RELATIVE_PATH + "application-dev.yml");
+        writeFile("server:\n  port: 8080\nlogging: info", applicationYamlFile);
+        writeFile("server:\n  port: eighty\nlogging:\n  level: debug", profileYamlFile);
 
-    	expectBuildFailureAndFailureMessageForYamlWithMulipleDocumentsWithErrorInSecondDocument();
+        String output = runYamlValidateTaskExpectedToFailAndGetOutput();
+
+        String applicationSource = String.format("'%s'", applicationYamlFile.toPath().toRealPath());
+        String profileSource = String.format("'%s'", profileYamlFile.toPath().toRealPath());
+        assertThat(output, containsString(String.format(YamlValidatorTask.KEY_CONFLICTS_MESSAGE, 1)));
+        assertThat(output, containsString(String.format(KeyConflict.TYPE_MISMATCH_MESSAGE,
+                "server.port", "string", profileSource + " (line 2)", "number", applicationSource + " (line 2)")));
+        assertThat(output, containsString(String.format(KeyConflict.NESTED_KEYS_MESSAGE,
+                "logging", applicationSource + " (line 3)", profileSource + " (line 4)")));
     }
-    
+
     @Test
-    public void shouldNotAllowYamlWithMultipleDocumentsWithErrorInLastDocument() throws IOException {
+    public void shouldNotTakePlaceholdersForValuesOfOtherTypeInFilesOfKeyGroup() throws IOException {
 
-    	writeBuildFileWithoutProperties();
-    	writeInvalidValidYamlFileWithMultipleDocumentsWithErrorInLastDocument();
+        writeBuildFileWithKeyGroupForApplicationFiles();
+        File applicationYamlFile = testProjectDir.newFile(DEFAULT_YAML_DIRECTORY_RELATIVE_PATH + "application.yml");
+        File profileYamlFile = testProjectDir.newFile(DEFAULT_YAML_DIRECTORY_RELATIVE_PATH + "application-dev.yml");
+        writeFile("server:\n  port: 8080", applicationYamlFile);
+        writeFile("server:\n  port: ${PORT:8081}", profileYamlFile);
 
-    	expectBuildFailureAndFailureMessageForYamlWithMulipleDocumentsWithErrorInLastDocument();
+        String output = runYamlValidateTaskAndGetOutput();
+
+        assertThat(output, containsString(String.format(KeyConflict.SHADOWED_MESSAGE, "server.port",
+                String.format("'%s' (line 2)", profileYamlFile.toPath().toRealPath()),
+                String.format("'%s' (line 2)", applicationYamlFile.toPath().toRealPath()))));
+        assertThat(output, not(containsString("is of type")));
     }
 
     @Test
-    public void shouldSearchInMultipleFoldersWhenDefined() throws IOException {
+    public void shouldWarnAboutShadowedKeysAndReindexOnlyChangedFilesOfKeyGroup() throws IOException {
 
-        writeBuildFileWhichDefinesTwoDirectories();
-        writeValidYamlFileWithMultipleDocuments();
+        writeBuildFileWithKeyGroupForApplicationFiles();
+        File applicationYamlFile = testProjectDir.newFile(DEFAULT_YAML_DIRECTORY_RELATIVE_PATH + "application.yml");
+        File profileYamlFile = testProjectDir.newFile(DEFAULT_YAML_DIRECTORY_RELATIVE_PATH + "application-dev.yml");
+        writeFile("server:\n  port: 8080", applicationYamlFile);
+        writeFile("server:\n  port: 8081", profileYamlFile);
 
-        expectBuildSuccessAndStartingMessageForBothDirectories();
+        String firstOutput = runYamlValidateTaskAndGetOutput();
+        writeFile("server:\n  port: 8082", profileYamlFile);
+        String secondOutput = runYamlValidateTaskAndGetOutput();
+
+        assertThat(firstOutput, containsString(String.format(YamlValidatorTask.KEY_INDEX_MESSAGE, 2)));
+        assertThat(firstOutput, containsString(String.format(KeyConflict.SHADOWED_MESSAGE, "server.port",
+                String.format("'%s' (line 2)", profileYamlFile.toPath().toRealPath()),
+                String.format("'%s' (line 2)", applicationYamlFile.toPath().toRealPath()))));
+        assertThat(secondOutput, containsString(String.format(YamlValidatorTask.KEY_INDEX_MESSAGE, 1)));
     }
 
     @Test
-    public void shouldSearchInMultipleFoldersRecursivelyWhenDefined() throws IOException {
+    public void shouldTypeValuesLikeYaml12OnlyInFilesOfYaml12ParserBackend() throws IOException {
 
-        writeBuildFileWhichDefinesTwoDirectoriesAndActivatesRecursiveSearch();
+        writeFile(
+                "plugins { id 'at.zierler.yamlvalidator' }\n" +
+                        "yamlValidator { parserBackends = ['" + DEFAULT_YAML_DIRECTORY_RELATIVE_PATH + "workflow.yaml': 'YAML_1_2'] }",
+                buildFile);
+        File workflowYamlFile = testProjectDir.newFile(DEFAULT_YAML_DIRECTORY_RELATIVE_PATH + "workflow.yaml");
+        writeFile("on: push\nyes: merge", workflowYamlFile);
+        writeFile("on: push\nyes: merge", yamlFileInDefaultYamlDirectory);
 
-        expectBuildSuccessAndRecursiveStartingMessageForBothDirectories();
+        String output = runYamlValidateTaskExpectedToFailAndGetOutput();
+
+        assertThat(output, containsString(String.format(YamlValidatorTask.FILE_FAILURE_MESSAGE, yamlFileInDefaultYamlDirectory.toPath().toRealPath())));
+        assertThat(output, containsString(String.format(ValidationFailure.LOCATED_PROBLEM_MESSAGE, 2, 1, "found duplicate key true")));
+        assertThat(output, not(containsString(String.format(YamlValidatorTask.FILE_FAILURE_MESSAGE, workflowYamlFile.toPath().toRealPath()))));
     }
 
     @Test
-    public void shouldBeAbleToFindYamlsInFolderAsWellAsYamlsDefined() throws IOException {
+    public void shouldRejectTabInIndentationBeforeParsingWhenPrescanIsEnabled() throws IOException {
 
-        writeBuildFileWhichDefinesOneYamlFileAndOneDirectoryContainingAnohterYamlFile();
+        writeFile(
+                "plugins { id 'at.zierler.yamlvalidator' }\n" +
+                        "yamlValidator { prescan = true }",
+                buildFile);
+        writeFile("server:\n  port: 8080\n\thost: localhost", yamlFileInDefaultYamlDirectory);
 
-        expectBuildSuccessAndSuccessMessageForBothFiles();
+        String expectedLineInOutput1 = String.format(YamlValidatorTask.FILE_FAILURE_MESSAGE, yamlFileInDefaultYamlDirectory.toPath().toRealPath());
+        String expectedLineInOutput2 = String.format(ValidationFailure.LOCATED_PROBLEM_MESSAGE, 3, 1, YamlPrescanner.TAB_INDENTATION_MESSAGE);
+
+        expectBuildFailureWithLinesInOutput(expectedLineInOutput1, expectedLineInOutput2);
     }
 
     @Test
-    public void shouldBeAbleToFindYamlsInFoldersRecursivelyWhenActivated() throws IOException {
+    public void shouldNotAllowYamlFileLargerThanMaxFileBytes() throws IOException {
 
-        File yamlFileInSubdirectoryOfDefaultYamlDirectory = createAndGetYamlFileInSubdirectoryOfDefaultYamlDirectory();
-        writeBuildFileWithDefaultYamlDirectoryAndRecursiveSearchActivated();
+        writeFile(
+                "plugins { id 'at.zierler.yamlvalidator' }\n" +
+                        "yamlValidator { maxFileBytes = 10 }",
+                buildFile);
+        writeValidYamlFile();
 
-        expectBuildSuccessAndSuccessMessageForDefaultFileAndFileInSubdirectory(yamlFileInSubdirectoryOfDefaultYamlDirectory);
+        String expectedLineInOutput1 = String.format(YamlValidatorTask.FILE_FAILURE_MESSAGE, yamlFileInDefaultYamlDirectory.toPath().toRealPath());
+        String expectedLineInOutput2 = String.format(YamlLimitExceededException.FILE_TOO_LARGE_MESSAGE, yamlFileInDefaultYamlDirectory.length(), 10);
+
+        expectBuildFailureWithLinesInOutput(expectedLineInOutput1, expectedLineInOutput2);
     }
 
     @Test
-    public void shouldNotBeAbleToFindYamlsInFoldersRecursivelyWhenDeactivated() throws IOException {
+    public void shouldSkipParsingOfContentKnownToBeValidWhenResultCacheIsEnabled() throws IOException {
 
-        File yamlFileInSubdirectoryOfDefaultYamlDirectory = createAndGetYamlFileInSubdirectoryOfDefaultYamlDirectory();
-        writeBuildFileWithDefaultYamlDirectoryAndRecursiveSearchDeactivated();
+        writeFile(
+                "plugins { id 'at.zierler.yamlvalidator' }\n" +
+                        "yamlValidator { resultCache = true }",
+                buildFile);
+        writeValidYamlFile();
 
-        expectBuildSuccessAndSuccessMessageForDefaultFileAndNoMessageForFileInSubdirectory(yamlFileInSubdirectoryOfDefaultYamlDirectory);
+        runYamlValidateTaskAndGetOutput();
+        String output = createGradleRunnerForYamlValidateTask().withArguments(VALIDATE_YAML_TASK_NAME, "--info", "--rerun-tasks").build().getOutput();
+
+        String expectedLineInOutput1 = String.format(YamlValidatorTask.CACHED_FILE_MESSAGE, yamlFileInDefaultYamlDirectory.toPath().toRealPath());
+        String expectedLineInOutput2 = String.format(YamlValidatorTask.FILE_SUCCESS_MESSAGE, yamlFileInDefaultYamlDirectory.toPath().toRealPath());
+
+        expectLinesInOutput(output, new String[]{expectedLineInOutput1, expectedLineInOutput2});
     }
 
     @Test
-    public void shouldNotValidateFileWithNonYamlEnding() throws IOException {
+    public void shouldNotDescendIntoExcludedDirectories() throws IOException {
 
-        File nonYamlFile = createAndGetNonYamlFileInDefaultYamlDirectory();
-        writeBuildFileWithNonYamlFileAsSearchPath(nonYamlFile);
+        String excludedDirectoryRelativePath = DEFAULT_YAML_DIRECTORY_RELATIVE_PATH + "node_modules/";
+        testProjectDir.newFolder(excludedDirectoryRelativePath.split("/"));
+        writeFile("key: value\n  other: value", testProjectDir.newFile(excludedDirectoryRelativePath + "broken.yaml"));
+        writeFile(
+                "plugins { id 'at.zierler.yamlvalidator' }\n" +
+                        "yamlValidator {\n" +
+                        "\tsearchRecursive = true\n" +
+                        "\texcludes = ['**/node_modules']\n" +
+                        "}",
+                buildFile);
 
-        expectBuildSuccessAndNoStartingMessageForNonYamlFile(nonYamlFile);
+        expectBuildSuccessAndSuccessMessageForDefaultYamlFile();
     }
 
     @Test
-    public void shouldNotValidateFileWithNonYamlEndingButValidateYamlFileInSameDirectory() throws IOException {
+    public void shouldValidateSymbolicLinksToYamlFiles() throws IOException {
 
-        File nonYamlFile = createAndGetNonYamlFileInDefaultYamlDirectory();
+        File linkedFile = new File(testProjectDir.newFolder("shared"), "broken.yaml");
+        writeFile("key: value\n  other: value", linkedFile);
+        Path link = testProjectDir.getRoot().toPath().toRealPath().resolve(DEFAULT_YAML_DIRECTORY_RELATIVE_PATH + "linked.yaml");
+        Files.createSymbolicLink(link, linkedFile.toPath());
         writeBuildFileWithoutProperties();
 
-        expectBuildSuccessAndStartingFileMessageForYamlFileButNoStartingMessageForNonYamlFile(nonYamlFile);
+        expectBuildFailureAndOutput(String.format(YamlValidatorTask.FILE_FAILURE_MESSAGE, link));
     }
 
     @Test
-    public void shouldNotValidateNonYamlFileRecursivelyWhenActivated() throws IOException {
+    public void shouldOnlyValidateIncludedYamlFiles() throws IOException {
 
-        File nonYamlFileInSubdirectoryOfDefaultYamlDirectory = createAndGetNonYamlFileInSubdirectoryOfDefaultYamlDirectory();
-        writeBuildFileWithDefaultYamlDirectoryAndRecursiveSearchActivated();
+        File yamlFileInSubdirectoryOfDefaultYamlDirectory = createAndGetYamlFileInSubdirectoryOfDefaultYamlDirectory();
+        writeFile(
+                "plugins { id 'at.zierler.yamlvalidator' }\n" +
+                        "yamlValidator {\n" +
+                        "\tsearchRecursive = true\n" +
+                        "\tincludes = ['subdir/*']\n" +
+                        "}",
+                buildFile);
 
-        expectBuildSuccessAndStartingFileMessageForYamlFileButNoStartingMessageForNonYamlFileInSubdirectory(nonYamlFileInSubdirectoryOfDefaultYamlDirectory);
+        String expectedLineInOutput = String.format(YamlValidatorTask.FILE_SUCCESS_MESSAGE, yamlFileInSubdirectoryOfDefaultYamlDirectory.toPath().toRealPath());
+        String unexpectedLineInOutput = String.format(YamlValidatorTask.FILE_SUCCESS_MESSAGE, yamlFileInDefaultYamlDirectory.toPath().toRealPath());
+
+        expectBuildSuccessAndOutputButNotOtherOutput(expectedLineInOutput, unexpectedLineInOutput);
     }
 
     @Test
-    public void shouldRunYamlValidationDuringCheckPhase() throws IOException {
+    public void shouldValidateFilesWithConfiguredExtensions() throws IOException {
 
+        File jsonFileInDefaultYamlDirectory = testProjectDir.newFile(DEFAULT_YAML_DIRECTORY_RELATIVE_PATH + "file.json");
+        writeFile("{\"key\": \"value\"}", jsonFileInDefaultYamlDirectory);
         writeFile(
                 "plugins { id 'at.zierler.yamlvalidator' }\n" +
-                        "apply plugin: 'java'",
+                        "yamlValidator { fileExtensions = ['json'] }",
                 buildFile);
 
-        String expectedLineInOutput = String.format(YamlValidatorTask.STARTING_DIRECTORY_MESSAGE, defaultYamlDirectory.toPath().toRealPath());
-
-        String output = GradleRunner
-                .create()
-                .withProjectDir(testProjectDir.getRoot())
-                .withPluginClasspath()
-                .withArguments("check", "--info")
-                .build()
-                .getOutput();
+        String expectedLineInOutput = String.format(YamlValidatorTask.FILE_SUCCESS_MESSAGE, jsonFileInDefaultYamlDirectory.toPath().toRealPath());
+        String unexpectedLineInOutput = String.format(YamlValidatorTask.FILE_SUCCESS_MESSAGE, yamlFileInDefaultYamlDirectory.toPath().toRealPath());
 
-        assertThat(output, containsString(expectedLineInOutput));
+        expectBuildSuccessAndOutputButNotOtherOutput(expectedLineInOutput, unexpectedLineInOutput);
     }
 
-    @Test
-    public void shouldNotLogWhenLogLevelIsLifecycle() throws IOException {
+    private void writeBuildFileWithKeyGroupForApplicationFiles() {
 
         writeFile(
                 "plugins { id 'at.zierler.yamlvalidator' }\n" +
-                        "apply plugin: 'java'",
+                        "yamlValidator { keyGroups = ['application': '**/application*.yml'] }",
                 buildFile);
+    }
 
-        String startingFileMessage = String.format(YamlValidatorTask.STARTING_FILE_MESSAGE, yamlFileInDefaultYamlDirectory.toPath().toRealPath());
-        String startingDirectoryMessage = String.format(YamlValidatorTask.STARTING_DIRECTORY_MESSAGE, defaultYamlDirectory.toPath().toRealPath());
-        String fileSuccessMessage = String.format(YamlValidatorTask.FILE_SUCCESS_MESSAGE, yamlFileInDefaultYamlDirectory.toPath().toRealPath());
+    private void writeBuildFileWithSchemaForDefaultYamlDirectory(String validationMode) {
 
-        String output = GradleRunner
-                .create()
-                .withProjectDir(testProjectDir.getRoot())
-                .withPluginClasspath()
-                .build()
-                .getOutput();
+        writeFile(
+                "plugins { id 'at.zierler.yamlvalidator' }\n" +
+                        "yamlValidator {\n" +
+                        "\tvalidationMode = '" + validationMode + "'\n" +
+                        "\tschemas = ['" + DEFAULT_YAML_DIRECTORY_RELATIVE_PATH + "*.yaml': 'schemas/config.json']\n" +
+                        "}",
+                buildFile);
+    }
 
-        assertThat(output, not(containsString(startingDirectoryMessage)));
-        assertThat(output, not(containsString(startingFileMessage)));
-        assertThat(output, not(containsString(fileSuccessMessage)));
+    private void writeSchemaFile() throws IOException {
+
+        testProjectDir.newFolder("schemas");
+        writeFile(
+                "{\n" +
+                        "  \"type\": \"object\",\n" +
+                        "  \"properties\": {\n" +
+                        "    \"defaults\": { \"$ref\": \"#/definitions/server\" },\n" +
+                        "    \"server\": { \"$ref\": \"#/definitions/server\" }\n" +
+                        "  },\n" +
+                        "  \"definitions\": {\n" +
+                        "    \"server\": {\n" +
+                        "      \"type\": \"object\",\n" +
+                        "      \"required\": [\"port\"],\n" +
+                        "      \"properties\": {\n" +
+                        "        \"port\": { \"type\": \"integer\", \"minimum\": 1, \"maximum\": 65535 },\n" +
+                        "        \"name\": { \"type\": \"string\" }\n" +
+                        "      },\n" +
+                        "      \"additionalProperties\": false\n" +
+                        "    }\n" +
+                        "  }\n" +
+                        "}",
+                testProjectDir.newFile("schemas/config.json"));
     }
 
     private void writeBuildFileWithoutProperties() {
@@ -279,6 +1252,17 @@ public class YamlValidatorPluginIntTest {
     }
 
 
+    private void writeBuildFileWithSyntaxValidationMode(boolean allowDuplicates) {
+
+        writeFile(
+                "plugins { id 'at.zierler.yamlvalidator' }\n" +
+                        "yamlValidator {\n" +
+                        "\tvalidationMode = 'SYNTAX'\n" +
+                        "\tallowDuplicates = " + allowDuplicates + "\n" +
+                        "}",
+                buildFile);
+    }
+
     private void writeBuildFileWhichDefinesTwoDirectories() {
 
         writeFile("plugins { id 'at.zierler.yamlvalidator' }\n" +
@@ -341,6 +1325,20 @@ public class YamlValidatorPluginIntTest {
     }
 
 
+    private void writeYamlFileWithAliasBomb() {
+
+        StringBuilder yaml = new StringBuilder("a0: &a0 [lol, lol, lol, lol, lol, lol, lol, lol, lol]\n");
+
+        for (int level = 1; level < 10; level++) {
+            String alias = "*a" + (level - 1);
+            yaml.append("a").append(level).append(": &a").append(level).append(" [")
+                    .append(String.join(", ", Collections.nCopies(9, alias)))
+                    .append("]\n");
+        }
+
+        writeFile(yaml.toString(), yamlFileInDefaultYamlDirectory);
+    }
+
     private void writeValidYamlFile() {
 
         writeFile(
@@ -613,6 +1611,42 @@ public class YamlValidatorPluginIntTest {
         return createGradleRunnerForYamlValidateTask().buildAndFail().getOutput();
     }
 
+    private GradleRunner createGradleRunnerForYamlValidateTaskWithBuildCache(File projectDir) {
+
+        return GradleRunner
+                .create()
+                .withProjectDir(projectDir)
+                .withPluginClasspath()
+                .withArguments(VALIDATE_YAML_TASK_NAME, "--build-cache");
+    }
+
+    private GradleRunner createGradleRunnerForYamlValidateTaskWithConfigurationCache() {
+
+        return createGradleRunnerForYamlValidateTask()
+                .withArguments(VALIDATE_YAML_TASK_NAME, "--info", "--configuration-cache");
+    }
+
+    private void writeSettingsFileWithLocalBuildCache(File projectDir, File buildCacheDirectory) {
+
+        writeFile(
+                "buildCache { local { directory = '" + buildCacheDirectory.toURI() + "' } }",
+                new File(projectDir, "settings.gradle"));
+    }
+
+    private static void copyDirectory(Path source, Path target) throws IOException {
+
+        try (Stream<Path> paths = Files.walk(source)) {
+            for (Path path : paths.filter(path -> !path.startsWith(source.resolve(".gradle"))).collect(Collectors.toList())) {
+                Path targetPath = target.resolve(source.relativize(path).toString());
+                if (Files.isDirectory(path)) {
+                    Files.createDirectories(targetPath);
+                } else if (!path.startsWith(source.resolve("build"))) {
+                    Files.copy(path, targetPath);
+                }
+            }
+        }
+    }
+
     private GradleRunner createGradleRunnerForYamlValidateTask() {
 
         return GradleRunner
@@ -622,4 +1656,39 @@ public class YamlValidatorPluginIntTest {
                 .withArguments(VALIDATE_YAML_TASK_NAME, "--info");
     }
 
+    /**
+     * @param namesAndContents name of each entry followed by its content, binary content as ISO-8859-1
+     */
+    private static byte[] zip(String... namesAndContents) throws IOException {
+
+        ByteArrayOutputStream archive = new ByteArrayOutputStream();
+
+        try (ZipOutputStream entries = new ZipOutputStream(archive)) {
+            for (int i = 0; i < namesAndContents.length; i += 2) {
+                entries.putNextEntry(new ZipEntry(namesAndContents[i]));
+                entries.write(namesAndContents[i + 1].getBytes(StandardCharsets.ISO_8859_1));
+                entries.closeEntry();
+            }
+        }
+
+        return archive.toByteArray();
+    }
+
+    private void git(String... arguments) throws IOException, InterruptedException {
+
+        String[] command = Stream.concat(Stream.of("git"), Arrays.stream(arguments)).toArray(String[]::new);
+        Process process = new ProcessBuilder(command).directory(testProjectDir.getRoot()).inheritIO().start();
+
+        assertThat(process.waitFor(), is(0));
+    }
+
+    private static void writeFile(String content, File file) {
+
+        try {
+            Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
 }
@@ -0,0 +1,432 @@
+package at.zierler.yamlvalidator.cli;
+
+import at.zierler.yamlvalidator.FileValidationStatistics;
+import at.zierler.yamlvalidator.GitChangedFiles;
+import at.zierler.yamlvalidator.JUnitXmlReportWriter;
+import at.zierler.yamlvalidator.ParserBackend;
+import at.zierler.yamlvalidator.ParserBackendMapping;
+import at.zierler.yamlvalidator.SarifReportWriter;
+import at.zierler.yamlvalidator.SchemaMapping;
+import at.zierler.yamlvalidator.ValidationFailure;
+import at.zierler.yamlvalidator.ValidationLimits;
+import at.zierler.yamlvalidator.ValidationMode;
+import at.zierler.yamlvalidator.ValidationReport;
+import at.zierler.yamlvalidator.ValidationReportWriter;
+import at.zierler.yamlvalidator.ValidationResultCache;
+import at.zierler.yamlvalidator.YamlFileScanner;
+import at.zierler.yamlvalidator.YamlValidationEngine;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * Validates YAML files from the command line with the same engine and settings as the Gradle plugin, for hooks
+ * and jobs which shouldn't pay for starting a Gradle daemon. Exits with {@value #EXIT_VALID} if all files are
+ * valid, {@value #EXIT_INVALID} if any file is invalid and {@value #EXIT_USAGE} if the arguments are wrong.
+ */
+public final class YamlValidatorCli {
+
+    static final int EXIT_VALID = 0;
+    static final int EXIT_INVALID = 1;
+    static final int EXIT_USAGE = 2;
+
+    static final String USAGE_MESSAGE = String.join(System.lineSeparator(),
+            "Usage: yaml-validator [options] <file or directory>...",
+            "Options:",
+            "  --recursive                      search directories recursively",
+            "  --allow-duplicates               allow duplicate keys",
+            "  --extension <extension>          extension of YAML files, repeatable (default: yaml, yml)",
+            "  --include <pattern>              only validate files matching the pattern, repeatable",
+            "  --exclude <pattern>              skip files matching the pattern, repeatable",
+            "  --archive-extension <extension>  validate the YAML entries of archives with the extension, repeatable",
+            "  --validation-mode <LOAD|SYNTAX>  how deeply files are validated (default: LOAD)",
+            "  --schema <pattern>=<file>        validate files matching the pattern against a JSON Schema, repeatable",
+            "  --parser-backend <pattern>=<SNAKEYAML|YAML_1_2>",
+            "                                   type the values of files matching the pattern like the backend, repeatable",
+            "  --prescan                        reject obviously broken files before they are parsed",
+            "  --base-directory <directory>     directory patterns and schema files are relative to (default: .)",
+            "  --max-file-bytes <n>             limits every file has to stay within",
+            "  --max-nesting-depth <n>",
+            "  --max-aliases-for-collections <n>",
+            "  --max-code-points <n>",
+            "  --max-seconds-per-file <n>",
+            "  --max-failures <n>               stop after this number of invalid files",
+            "  --threads <n>                    number of files validated at the same time (default: number of processors)",
+            "  --parallel-documents             validate the documents of large files in parallel",
+            "  --result-cache                   skip contents known to be valid, shared with the Gradle plugin",
+            "  --gradle-user-home <directory>   Gradle user home of the result cache (default: GRADLE_USER_HOME or ~/.gradle)",
+            "  --report <file>                  write a JSON report of the validated files",
+            "  --junit-xml <file>               write a JUnit XML report with a test case for every validated file",
+            "  --sarif <file>                   write a SARIF log with the location of every failure",
+            "  --since <revision>               only validate files changed since the merge base with the git revision",
+            "  --help                           print this message");
+    static final String UNKNOWN_OPTION_MESSAGE = "Unknown option '%s'.";
+    static final String MISSING_VALUE_MESSAGE = "Option '%s' requires a value.";
+    static final String INVALID_VALUE_MESSAGE = "Invalid value '%s' of option '%s'.";
+    static final String NO_SEARCH_PATHS_MESSAGE = "No file or directory to validate given.";
+    static final String MISSING_SEARCH_PATH_MESSAGE = "File or directory '%s' doesn't exist.";
+    static final String FILE_FAILURE_MESSAGE = "Validation of YAML file '%s' failed.";
+    static final String SUMMARY_MESSAGE = "Validated %s YAML file(s), %s invalid.";
+    static final String SAVED_VALIDATIONS_MESSAGE = "Skipped %s validation(s) of YAML files found more than once or with the content of another file.";
+    static final String SKIPPED_FILES_MESSAGE = "Validation stopped after reaching the maximum number of failures, %s YAML file(s) were not validated.";
+    static final String RESULT_CACHE_FAILURE_MESSAGE = "Couldn't use the YAML validation result cache: %s";
+    static final String GIT_UNAVAILABLE_MESSAGE = "Couldn't ask git for the files changed since '%s', validating all YAML files: %s";
+
+    private static final long PARALLEL_DOCUMENTS_MIN_BYTES = 1024 * 1024;
+    private static final int RESULT_CACHE_MAX_ENTRIES = 100_000;
+
+    private final PrintStream out;
+    private final PrintStream err;
+
+    private final List<Path> searchPaths = new ArrayList<>();
+    private boolean recursive = false;
+    private boolean allowDuplicates = false;
+    private final List<String> fileExtensions = new ArrayList<>();
+    private final List<String> includes = new ArrayList<>();
+    private final List<String> excludes = new ArrayList<>();
+    private final List<String> archiveExtensions = new ArrayList<>();
+    private ValidationMode validationMode = ValidationMode.LOAD;
+    private final Map<String, String> schemas = new LinkedHashMap<>();
+    private final Map<String, ParserBackend> parserBackends = new LinkedHashMap<>();
+    private boolean prescan = false;
+    private Path baseDirectory = Paths.get("");
+    private long maxFileBytes = Long.MAX_VALUE;
+    private int maxNestingDepth = 50;
+    private int maxAliasesForCollections = 50;
+    private int maxCodePoints = Integer.MAX_VALUE;
+    private long maxSecondsPerFile = 0;
+    private int maxFailures = Integer.MAX_VALUE;
+    private int threads = Runtime.getRuntime().availableProcessors();
+    private boolean parallelDocuments = false;
+    private boolean resultCache = false;
+    private Path gradleUserHome;
+    private Path reportFile;
+    private Path junitXmlReportFile;
+    private Path sarifReportFile;
+    private String since;
+    private boolean help = false;
+
+    private YamlValidatorCli(PrintStream out, PrintStream err) {
+
+        this.out = out;
+        this.err = err;
+    }
+
+    public static void main(String[] args) {
+
+        System.exit(run(args, System.out, System.err));
+    }
+
+    /**
+     * @return the exit code
+     */
+    static int run(String[] args, PrintStream out, PrintStream err) {
+
+        YamlValidatorCli cli = new YamlValidatorCli(out, err);
+
+        try {
+            cli.parse(args);
+        } catch (IllegalArgumentException e) {
+            err.println(e.getMessage());
+            err.println(USAGE_MESSAGE);
+            return EXIT_USAGE;
+        }
+
+        if (cli.help) {
+            out.println(USAGE_MESSAGE);
+            return EXIT_VALID;
+        }
+
+        try {
+            return cli.validate();
+        } catch (IOException | RuntimeException e) {
+            err.println(e.getMessage());
+            return EXIT_USAGE;
+        }
+    }
+
+    private void parse(String[] args) {
+
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+
+            if (!arg.startsWith("--")) {
+                searchPaths.add(Paths.get(arg));
+                continue;
+            }
+
+            switch (arg) {
+                case "--help":
+                    help = true;
+                    return;
+                case "--recursive":
+                    recursive = true;
+                    break;
+                case "--allow-duplicates":
+                    allowDuplicates = true;
+                    break;
+                case "--parallel-documents":
+                    parallelDocuments = true;
+                    break;
+                case "--result-cache":
+                    resultCache = true;
+                    break;
+                case "--extension":
+                    fileExtensions.add(valueOf(args, ++i, arg));
+                    break;
+                case "--include":
+                    includes.add(valueOf(args, ++i, arg));
+                    break;
+                case "--exclude":
+                    excludes.add(valueOf(args, ++i, arg));
+                    break;
+                case "--archive-extension":
+                    archiveExtensions.add(valueOf(args, ++i, arg));
+                    break;
+                case "--validation-mode":
+                    validationMode = parse(args, ++i, arg, value -> ValidationMode.valueOf(value.toUpperCase(Locale.ROOT)));
+                    break;
+                case "--schema":
+                    String[] schema = patternAndValueOf(args, ++i, arg);
+                    schemas.put(schema[0], schema[1]);
+                    break;
+                case "--parser-backend":
+                    String[] parserBackend = patternAndValueOf(args, ++i, arg);
+                    parserBackends.put(parserBackend[0], parseValue(parserBackend[1], arg,
+                            value -> ParserBackend.valueOf(value.toUpperCase(Locale.ROOT))));
+                    break;
+                case "--prescan":
+                    prescan = true;
+                    break;
+                case "--base-directory":
+                    baseDirectory = Paths.get(valueOf(args, ++i, arg));
+                    break;
+                case "--max-file-bytes":
+                    maxFileBytes = parse(args, ++i, arg, Long::valueOf);
+                    break;
+                case "--max-nesting-depth":
+                    maxNestingDepth = parse(args, ++i, arg, Integer::valueOf);
+                    break;
+                case "--max-aliases-for-collections":
+                    maxAliasesForCollections = parse(args, ++i, arg, Integer::valueOf);
+                    break;
+                case "--max-code-points":
+                    maxCodePoints = parse(args, ++i, arg, Integer::valueOf);
+                    break;
+                case "--max-seconds-per-file":
+                    maxSecondsPerFile = parse(args, ++i, arg, Long::valueOf);
+                    break;
+                case "--max-failures":
+                    maxFailures = parse(args, ++i, arg, YamlValidatorCli::positive);
+                    break;
+                case "--threads":
+                    threads = parse(args, ++i, arg, YamlValidatorCli::positive);
+                    break;
+                case "--gradle-user-home":
+                    gradleUserHome = Paths.get(valueOf(args, ++i, arg));
+                    break;
+                case "--report":
+                    reportFile = Paths.get(valueOf(args, ++i, arg));
+                    break;
+                case "--junit-xml":
+                    junitXmlReportFile = Paths.get(valueOf(args, ++i, arg));
+                    break;
+                case "--sarif":
+                    sarifReportFile = Paths.get(valueOf(args, ++i, arg));
+                    break;
+                case "--since":
+                    since = valueOf(args, ++i, arg);
+                    break;
+                default:
+                    throw new IllegalArgumentException(String.format(UNKNOWN_OPTION_MESSAGE, arg));
+            }
+        }
+
+        if (searchPaths.isEmpty()) {
+            throw new IllegalArgumentException(NO_SEARCH_PATHS_MESSAGE);
+        }
+        if (fileExtensions.isEmpty()) {
+            fileExtensions.addAll(Arrays.asList("yaml", "yml"));
+        }
+    }
+
+    private static String valueOf(String[] args, int index, String option) {
+
+        if (index >= args.length) {
+            throw new IllegalArgumentException(String.format(MISSING_VALUE_MESSAGE, option));
+        }
+        return args[index];
+    }
+
+    /**
+     * @return the pattern and the value of an option value like {@code <pattern>=<value>}
+     */
+    private static String[] patternAndValueOf(String[] args, int index, String option) {
+
+        String value = valueOf(args, index, option);
+        int separator = value.lastIndexOf('=');
+
+        if (separator <= 0 || separator == value.length() - 1) {
+            throw new IllegalArgumentException(String.format(INVALID_VALUE_MESSAGE, value, option));
+        }
+        return new String[] {value.substring(0, separator), value.substring(separator + 1)};
+    }
+
+    private static <T> T parse(String[] args, int index, String option, ValueParser<T> parser) {
+
+        return parseValue(valueOf(args, index, option), option, parser);
+    }
+
+    private static <T> T parseValue(String value, String option, ValueParser<T> parser) {
+
+        try {
+            return parser.parse(value);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException(String.format(INVALID_VALUE_MESSAGE, value, option), e);
+        }
+    }
+
+    private static int positive(String value) {
+
+        int number = Integer.parseInt(value);
+        if (number < 1) {
+            throw new IllegalArgumentException(value);
+        }
+        return number;
+    }
+
+    private int validate() throws IOException {
+
+        for (Path searchPath : searchPaths) {
+            if (!Files.exists(searchPath)) {
+                err.println(String.format(MISSING_SEARCH_PATH_MESSAGE, searchPath));
+                return EXIT_USAGE;
+            }
+        }
+
+        YamlFileScanner scanner = new YamlFileScanner(FileSystems.getDefault(), fileExtensions, includes, excludes, recursive,
+                archiveExtensions);
+        ValidationLimits limits = new ValidationLimits(maxFileBytes, maxNestingDepth, maxAliasesForCollections, maxCodePoints, maxSecondsPerFile);
+        ParserBackendMapping backendMapping = new ParserBackendMapping(FileSystems.getDefault(), baseDirectory.toRealPath(), parserBackends);
+        YamlValidationEngine engine = new YamlValidationEngine(scanner, createSchemaMapping(), backendMapping, allowDuplicates, validationMode,
+                limits, parallelDocuments ? PARALLEL_DOCUMENTS_MIN_BYTES : Long.MAX_VALUE, prescan);
+
+        YamlValidationEngine.Result result = engine.validate(searchPaths, createFilter(), threads, maxFailures, openResultCache());
+
+        if (result.getResultCacheFailure() != null) {
+            err.println(String.format(RESULT_CACHE_FAILURE_MESSAGE, result.getResultCacheFailure()));
+        }
+        if (reportFile != null) {
+            try (ValidationReport report = ValidationReport.open(reportFile.toAbsolutePath(), false, 10)) {
+                for (FileValidationStatistics statistics : result.getStatistics()) {
+                    report.write(statistics, null);
+                }
+                report.count(result.getSkippedFiles(), result.getDuplicatePaths(), result.getDuplicateContents());
+            }
+        }
+        if (junitXmlReportFile != null) {
+            try (ValidationReportWriter writer = JUnitXmlReportWriter.open(junitXmlReportFile, "yaml-validator")) {
+                ValidationReportWriter.writeAll(writer, result.getStatistics(), result.getFailures());
+            }
+        }
+        if (sarifReportFile != null) {
+            try (ValidationReportWriter writer = SarifReportWriter.open(sarifReportFile, baseDirectory.toRealPath())) {
+                ValidationReportWriter.writeAll(writer, result.getStatistics(), result.getFailures());
+            }
+        }
+
+        printFailures(result);
+        if (result.getDuplicatePaths() + result.getDuplicateContents() > 0) {
+            out.println(String.format(SAVED_VALIDATIONS_MESSAGE, result.getDuplicatePaths() + result.getDuplicateContents()));
+        }
+        out.println(String.format(SUMMARY_MESSAGE, result.getStatistics().size(), result.getFailures().size()));
+
+        return result.getFailures().isEmpty() ? EXIT_VALID : EXIT_INVALID;
+    }
+
+    /**
+     * Falls back to all files if git can't tell which files changed.
+     */
+    private Predicate<Path> createFilter() {
+
+        if (since == null) {
+            return file -> true;
+        }
+
+        try {
+            Set<Path> changedFiles = GitChangedFiles.since(baseDirectory.toAbsolutePath(), since);
+            return changedFiles::contains;
+        } catch (IOException e) {
+            err.println(String.format(GIT_UNAVAILABLE_MESSAGE, since, e.getMessage()));
+            return file -> true;
+        }
+    }
+
+    private SchemaMapping createSchemaMapping() throws IOException {
+
+        Map<String, File> schemaFiles = new LinkedHashMap<>();
+        schemas.forEach((pattern, path) -> schemaFiles.put(pattern, baseDirectory.resolve(path).toFile()));
+
+        return new SchemaMapping(FileSystems.getDefault(), baseDirectory.toRealPath(), schemaFiles);
+    }
+
+    /**
+     * @return the result cache of the Gradle user home, or {@code null} if it is disabled or can't be used
+     */
+    private ValidationResultCache openResultCache() {
+
+        if (!resultCache) {
+            return null;
+        }
+
+        Path home = gradleUserHome;
+        if (home == null) {
+            String environmentHome = System.getenv("GRADLE_USER_HOME");
+            home = environmentHome != null ? Paths.get(environmentHome) : Paths.get(System.getProperty("user.home"), ".gradle");
+        }
+
+        try {
+            ValidationResultCache cache = ValidationResultCache.forGradleUserHome(home, RESULT_CACHE_MAX_ENTRIES);
+            cache.refresh();
+            return cache;
+        } catch (IOException | RuntimeException e) {
+            err.println(String.format(RESULT_CACHE_FAILURE_MESSAGE, e));
+            return null;
+        }
+    }
+
+    private void printFailures(YamlValidationEngine.Result result) {
+
+        result.getFailures().stream()
+                .sorted(Comparator.comparing(ValidationFailure::getFile))
+                .forEach(failure -> {
+                    err.println(String.format(FILE_FAILURE_MESSAGE, failure.getFile()));
+                    err.println("    " + failure.describeProblem().trim().replace("\n", System.lineSeparator() + "    "));
+                });
+
+        if (result.getSkippedFiles() > 0) {
+            err.println(String.format(SKIPPED_FILES_MESSAGE, result.getSkippedFiles()));
+        }
+    }
+
+    private interface ValueParser<T> {
+
+        T parse(String value);
+
+    }
+
+}
@@ -0,0 +1,158 @@
+package at.zierler.yamlvalidator.cli;
+
+import at.zierler.yamlvalidator.YamlPrescanner;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.UnsupportedEncodingException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class YamlValidatorCliTest {
+
+    @Rule
+    public final TemporaryFolder yamlDirectory = new TemporaryFolder();
+
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    private final ByteArrayOutputStream err = new ByteArrayOutputStream();
+
+    private File validYamlFile;
+
+    @Before
+    public void setupYamlDirectory() throws IOException {
+
+        validYamlFile = yamlDirectory.newFile("valid.yaml");
+        write(validYamlFile, "key: value\n");
+    }
+
+    @Test
+    public void shouldExitWithValidWhenAllFilesAreValid() throws IOException {
+
+        yamlDirectory.newFolder("nested");
+        write(new File(yamlDirectory.getRoot(), "nested/other.yml"), "- item\n");
+
+        int exitCode = run("--recursive", yamlDirectory.getRoot().getPath());
+
+        assertThat(exitCode, is(YamlValidatorCli.EXIT_VALID));
+        assertThat(output(out), containsString(String.format(YamlValidatorCli.SUMMARY_MESSAGE, 2, 0)));
+    }
+
+    @Test
+    public void shouldExitWithInvalidAndReportLocationOfProblem() throws IOException {
+
+        File invalidYamlFile = yamlDirectory.newFile("invalid.yaml");
+        write(invalidYamlFile, "key: value\nkey: other value\n");
+
+        int exitCode = run(yamlDirectory.getRoot().getPath());
+
+        assertThat(exitCode, is(YamlValidatorCli.EXIT_INVALID));
+        assertThat(output(err), containsString(String.format(YamlValidatorCli.FILE_FAILURE_MESSAGE, invalidYamlFile.toPath().toRealPath())));
+        assertThat(output(err), containsString("line 2, column 1: found duplicate key key"));
+        assertThat(output(out), containsString(String.format(YamlValidatorCli.SUMMARY_MESSAGE, 2, 1)));
+    }
+
+    @Test
+    public void shouldReportFailureInEveryFileWithIdenticalContentButParseItOnlyOnce() throws IOException {
+
+        File invalidYamlFile = yamlDirectory.newFile("invalid.yaml");
+        File copyOfInvalidYamlFile = yamlDirectory.newFile("copy.yaml");
+        write(invalidYamlFile, "key: value\nkey: other value\n");
+        write(copyOfInvalidYamlFile, "key: value\nkey: other value\n");
+
+        int exitCode = run(yamlDirectory.getRoot().getPath(), validYamlFile.getPath());
+
+        assertThat(exitCode, is(YamlValidatorCli.EXIT_INVALID));
+        assertThat(output(err), containsString(String.format(YamlValidatorCli.FILE_FAILURE_MESSAGE, invalidYamlFile.toPath().toRealPath())));
+        assertThat(output(err), containsString(String.format(YamlValidatorCli.FILE_FAILURE_MESSAGE, copyOfInvalidYamlFile.toPath().toRealPath())));
+        assertThat(output(out), containsString(String.format(YamlValidatorCli.SAVED_VALIDATIONS_MESSAGE, 2)));
+        assertThat(output(out), containsString(String.format(YamlValidatorCli.SUMMARY_MESSAGE, 3, 2)));
+    }
+
+    @Test
+    public void shouldValidateAgainstSchema() throws IOException {
+
+        File schemaFile = yamlDirectory.newFile("schema.json");
+        write(schemaFile, "{\"type\": \"object\", \"required\": [\"name\"]}");
+
+        int exitCode = run("--base-directory", yamlDirectory.getRoot().getPath(), "--schema", "*.yaml=schema.json", validYamlFile.getPath());
+
+        assertThat(exitCode, is(YamlValidatorCli.EXIT_INVALID));
+        assertThat(output(err), containsString("doesn't match schema"));
+    }
+
+    @Test
+    public void shouldReuseResultsOfResultCache() throws IOException {
+
+        File gradleUserHome = yamlDirectory.newFolder("gradle-user-home");
+        File reportFile = new File(yamlDirectory.getRoot(), "report.json");
+
+        run("--result-cache", "--gradle-user-home", gradleUserHome.getPath(), validYamlFile.getPath());
+        int exitCode = run("--result-cache", "--gradle-user-home", gradleUserHome.getPath(), "--report", reportFile.getPath(),
+                validYamlFile.getPath());
+
+        assertThat(exitCode, is(YamlValidatorCli.EXIT_VALID));
+        assertThat(new String(Files.readAllBytes(reportFile.toPath()), StandardCharsets.UTF_8), containsString("\"cachedFiles\": 1"));
+    }
+
+    @Test
+    public void shouldWriteJunitXmlReportWithTestCaseForEveryFile() throws IOException {
+
+        write(yamlDirectory.newFile("invalid.yaml"), "key: \"<unterminated>\n");
+        File reportFile = new File(yamlDirectory.getRoot(), "reports/TEST-yaml.xml");
+
+        run("--junit-xml", reportFile.getPath(), yamlDirectory.getRoot().getPath());
+
+        String report = new String(Files.readAllBytes(reportFile.toPath()), StandardCharsets.UTF_8);
+        assertThat(report, containsString("<testsuite name=\"yaml-validator\" tests=\"2\" failures=\"1\" errors=\"0\""));
+        assertThat(report, containsString("<failure type=\"InvalidYaml\" message=\"line 2, column 1: found unexpected end of stream\">"));
+    }
+
+    @Test
+    public void shouldRejectUnterminatedQuoteBeforeParsingWhenPrescanning() throws IOException {
+
+        File invalidYamlFile = yamlDirectory.newFile("invalid.yaml");
+        write(invalidYamlFile, "name: 'unterminated\nkey: value\n");
+
+        int exitCode = run("--prescan", "--parser-backend", "*.yaml=YAML_1_2", invalidYamlFile.getPath());
+
+        assertThat(exitCode, is(YamlValidatorCli.EXIT_INVALID));
+        assertThat(output(err), containsString("line 3, column 1: " + YamlPrescanner.UNTERMINATED_QUOTE_MESSAGE));
+    }
+
+    @Test
+    public void shouldExitWithUsageForUnknownOption() throws IOException {
+
+        int exitCode = run("--unknown", validYamlFile.getPath());
+
+        assertThat(exitCode, is(YamlValidatorCli.EXIT_USAGE));
+        assertThat(output(err), containsString(String.format(YamlValidatorCli.UNKNOWN_OPTION_MESSAGE, "--unknown")));
+    }
+
+    private int run(String... args) throws UnsupportedEncodingException {
+
+        return YamlValidatorCli.run(args,
+                new PrintStream(out, true, StandardCharsets.UTF_8.name()),
+                new PrintStream(err, true, StandardCharsets.UTF_8.name()));
+    }
+
+    private static String output(ByteArrayOutputStream stream) throws UnsupportedEncodingException {
+
+        return stream.toString(StandardCharsets.UTF_8.name());
+    }
+
+    private static void write(File file, String content) throws IOException {
+
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+    }
+
+}
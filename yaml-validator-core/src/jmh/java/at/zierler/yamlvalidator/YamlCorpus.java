@@ -0,0 +1,104 @@
+package at.zierler.yamlvalidator;
+
+/**
+ * Synthetic YAML files covering the shapes the validation engine has to deal with in real builds.
+ */
+public enum YamlCorpus {
+
+    SMALL_CONFIG {
+        @Override
+        void write(StringBuilder yaml) {
+
+            yaml.append("server:\n")
+                    .append("  port: 8080\n")
+                    .append("  address: 0.0.0.0\n")
+                    .append("spring:\n")
+                    .append("  datasource:\n")
+                    .append("    url: jdbc:postgresql://localhost:5432/app\n")
+                    .append("    username: app\n")
+                    .append("    password: secret\n")
+                    .append("  profiles:\n")
+                    .append("    active: [dev, local]\n")
+                    .append("logging:\n")
+                    .append("  level:\n")
+                    .append("    root: INFO\n")
+                    .append("    at.zierler: DEBUG\n");
+        }
+    },
+
+    LARGE_FLAT_MAP {
+        @Override
+        void write(StringBuilder yaml) {
+
+            for (int i = 0; i < 20_000; i++) {
+                yaml.append("key.number.").append(i).append(": \"value number ").append(i).append("\"\n");
+            }
+        }
+    },
+
+    DEEPLY_NESTED {
+        @Override
+        void write(StringBuilder yaml) {
+
+            for (int tree = 0; tree < 500; tree++) {
+                yaml.append("tree").append(tree).append(":\n");
+                for (int level = 1; level < 40; level++) {
+                    indent(yaml, level).append("level").append(level).append(":\n");
+                }
+                indent(yaml, 40).append("leaf: value\n");
+            }
+        }
+    },
+
+    MULTI_DOCUMENT {
+        @Override
+        void write(StringBuilder yaml) {
+
+            for (int document = 0; document < 2_000; document++) {
+                yaml.append("---\n")
+                        .append("apiVersion: v1\n")
+                        .append("kind: ConfigMap\n")
+                        .append("metadata:\n")
+                        .append("  name: config-").append(document).append('\n')
+                        .append("data:\n")
+                        .append("  key: value\n");
+            }
+        }
+    },
+
+    ALIAS_HEAVY {
+        @Override
+        void write(StringBuilder yaml) {
+
+            yaml.append("defaults: &defaults\n")
+                    .append("  timeout: 30\n")
+                    .append("  retries: 3\n")
+                    .append("  tags: &tags [a, b, c]\n")
+                    .append("name: &name shared\n");
+            for (int i = 0; i < 5_000; i++) {
+                yaml.append("service").append(i).append(":\n")
+                        .append("  <<: *defaults\n")
+                        .append("  name: *name\n")
+                        .append("  tags: *tags\n");
+            }
+        }
+    };
+
+    abstract void write(StringBuilder yaml);
+
+    String generate() {
+
+        StringBuilder yaml = new StringBuilder();
+        write(yaml);
+        return yaml.toString();
+    }
+
+    private static StringBuilder indent(StringBuilder yaml, int level) {
+
+        for (int i = 0; i < level; i++) {
+            yaml.append("  ");
+        }
+        return yaml;
+    }
+
+}
@@ -0,0 +1,118 @@
+package at.zierler.yamlvalidator;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how fast a single YAML file is validated, per corpus, validation mode and parser backend, with and without a schema and
+ * the pre-scanner. Besides the operations per second, the {@code megabytes} counter reports the throughput in MB/s and the {@code gc}
+ * profiler the allocation rate.
+ * <p>
+ * By default only the corpora and validation modes are varied, the other parameters are set to their defaults, so a run
+ * stays short. See the README for how to vary them too.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class YamlFileValidatorBenchmark {
+
+    /**
+     * Accepts every document, but still has to visit every node of it.
+     */
+    private static final String ANY_VALUE_SCHEMA = "{\"$ref\": \"#/definitions/any\", \"definitions\": {\"any\": {\"anyOf\": [" +
+            "{\"type\": \"object\", \"additionalProperties\": {\"$ref\": \"#/definitions/any\"}}, " +
+            "{\"type\": \"array\", \"items\": {\"$ref\": \"#/definitions/any\"}}, " +
+            "{\"type\": [\"string\", \"integer\", \"number\", \"boolean\", \"null\"]}]}}}";
+
+    private static final ValidationLimits LIMITS = new ValidationLimits(Long.MAX_VALUE, 1_000, 100_000, Integer.MAX_VALUE, 0);
+
+    @Param
+    public YamlCorpus corpus;
+
+    @Param
+    public ValidationMode validationMode;
+
+    @Param("false")
+    public boolean withSchema;
+
+    @Param("SNAKEYAML")
+    public ParserBackend parserBackend;
+
+    @Param("false")
+    public boolean prescan;
+
+    /**
+     * Whether the documents of the file are split and validated on all processors.
+     */
+    @Param("false")
+    public boolean parallelDocuments;
+
+    private Path yamlFile;
+    private Path schemaFile;
+    private JsonSchema schema;
+    private double megabytesPerFile;
+    private YamlFileValidator validator;
+
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    @State(Scope.Thread)
+    public static class Throughput {
+
+        public double megabytes;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+
+            megabytes = 0;
+        }
+
+    }
+
+    @Setup(Level.Trial)
+    public void writeCorpus() throws IOException {
+
+        byte[] content = corpus.generate().getBytes(StandardCharsets.UTF_8);
+        yamlFile = Files.createTempFile("yaml-validator-benchmark", ".yaml");
+        Files.write(yamlFile, content);
+        megabytesPerFile = content.length / 1_000_000.0;
+        validator = new YamlFileValidator(false, validationMode, LIMITS, prescan);
+
+        if (withSchema) {
+            schemaFile = Files.createTempFile("yaml-validator-benchmark", ".json");
+            Files.write(schemaFile, ANY_VALUE_SCHEMA.getBytes(StandardCharsets.UTF_8));
+            schema = JsonSchema.compile(schemaFile);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteCorpus() throws IOException {
+
+        Files.deleteIfExists(yamlFile);
+        if (schemaFile != null) {
+            Files.deleteIfExists(schemaFile);
+        }
+    }
+
+    @Benchmark
+    public void validateYamlFile(Throughput throughput, Blackhole blackhole) throws IOException {
+
+        validator.validateYamlFile(yamlFile, schema, parserBackend, parallelDocuments ? 0 : Long.MAX_VALUE, blackhole::consume);
+        throughput.megabytes += megabytesPerFile;
+    }
+
+}
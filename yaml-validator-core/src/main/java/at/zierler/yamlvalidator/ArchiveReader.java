@@ -0,0 +1,98 @@
+package at.zierler.yamlvalidator;
+
+import java.io.BufferedInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+/**
+ * Streams the YAML entries of ZIP based archives, like JARs, WARs and distributions, without extracting them.
+ * Archives inside archives, like the libraries of a fat JAR, are streamed from their enclosing archive.
+ */
+public class ArchiveReader {
+
+    /**
+     * Separates the path of an archive from the path of an entry inside it, like in JAR URLs.
+     */
+    static final String ENTRY_SEPARATOR = "!/";
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final YamlFileScanner scanner;
+
+    public ArchiveReader(YamlFileScanner scanner) {
+
+        this.scanner = scanner;
+    }
+
+    public interface EntryVisitor {
+
+        /**
+         * @param name      path of the archive and of the entry inside it, separated by {@link #ENTRY_SEPARATOR}
+         * @param entryName path of the entry inside its innermost archive
+         * @param bytes     uncompressed size of the entry, or -1 if it is unknown
+         * @param content   content of the entry, which must not be closed
+         * @return whether to continue with the next entry
+         */
+        boolean visit(String name, String entryName, long bytes, InputStream content) throws IOException;
+
+    }
+
+    /**
+     * @return whether all entries were visited
+     */
+    public boolean read(Path archive, EntryVisitor visitor) throws IOException {
+
+        try (ZipInputStream entries = new ZipInputStream(new BufferedInputStream(Files.newInputStream(archive), BUFFER_SIZE))) {
+            return read(archive.toString(), entries, visitor);
+        }
+    }
+
+    private boolean read(String archiveName, ZipInputStream entries, EntryVisitor visitor) throws IOException {
+
+        for (ZipEntry entry = entries.getNextEntry(); entry != null; entry = entries.getNextEntry()) {
+            if (entry.isDirectory()) {
+                continue;
+            }
+
+            String name = archiveName + ENTRY_SEPARATOR + entry.getName();
+            boolean proceed = true;
+
+            if (scanner.isArchiveEntry(entry.getName())) {
+                try (ZipInputStream nestedEntries = new ZipInputStream(new UnclosableInputStream(entries))) {
+                    proceed = read(name, nestedEntries, visitor);
+                }
+            } else if (scanner.isYamlEntry(entry.getName())) {
+                proceed = visitor.visit(name, entry.getName(), entry.getSize(), entries);
+            }
+
+            if (!proceed) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Lets a nested archive release its inflater without closing the enclosing archive.
+     */
+    private static final class UnclosableInputStream extends FilterInputStream {
+
+        private UnclosableInputStream(InputStream inputStream) {
+
+            super(inputStream);
+        }
+
+        @Override
+        public void close() {
+
+        }
+
+    }
+
+}
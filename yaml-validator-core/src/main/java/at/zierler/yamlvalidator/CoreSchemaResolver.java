@@ -0,0 +1,62 @@
+package at.zierler.yamlvalidator;
+
+import org.yaml.snakeyaml.constructor.AbstractConstruct;
+import org.yaml.snakeyaml.nodes.Node;
+import org.yaml.snakeyaml.nodes.ScalarNode;
+import org.yaml.snakeyaml.nodes.Tag;
+import org.yaml.snakeyaml.resolver.Resolver;
+
+import java.math.BigInteger;
+import java.util.regex.Pattern;
+
+/**
+ * Resolves plain scalars like the core schema of YAML 1.2 does: only {@code true} and {@code false} are booleans,
+ * {@code yes}, {@code on} and {@code y} stay strings, integers are decimal, {@code 0o} octal or {@code 0x}
+ * hexadecimal, and there are neither timestamps, sexagesimal numbers nor merge keys.
+ */
+final class CoreSchemaResolver extends Resolver {
+
+    private static final Pattern BOOL = Pattern.compile("^(?:true|True|TRUE|false|False|FALSE)$");
+    private static final Pattern INT = Pattern.compile("^(?:[-+]?[0-9]+|0o[0-7]+|0x[0-9a-fA-F]+)$");
+    private static final Pattern FLOAT = Pattern.compile(
+            "^(?:[-+]?(?:\\.[0-9]+|[0-9]+(?:\\.[0-9]*)?)(?:[eE][-+]?[0-9]+)?|[-+]?\\.(?:inf|Inf|INF)|\\.(?:nan|NaN|NAN))$");
+    private static final Pattern NULL = Pattern.compile("^(?:~|null|Null|NULL)?$");
+
+    @Override
+    protected void addImplicitResolvers() {
+
+        addImplicitResolver(Tag.BOOL, BOOL, "tTfF");
+        addImplicitResolver(Tag.INT, INT, "-+0123456789");
+        addImplicitResolver(Tag.FLOAT, FLOAT, "-+0123456789.");
+        addImplicitResolver(Tag.NULL, NULL, "~nN\0");
+    }
+
+    /**
+     * Constructs integers of the core schema, which SnakeYAML's own construct would read as YAML 1.1 octal or
+     * reject, like {@code 0o17}.
+     */
+    static final class ConstructInt extends AbstractConstruct {
+
+        @Override
+        public Object construct(Node node) {
+
+            String value = ((ScalarNode) node).getValue();
+            BigInteger number;
+
+            if (value.startsWith("0o")) {
+                number = new BigInteger(value.substring(2), 8);
+            } else if (value.startsWith("0x")) {
+                number = new BigInteger(value.substring(2), 16);
+            } else {
+                number = new BigInteger(value.startsWith("+") ? value.substring(1) : value);
+            }
+
+            if (number.bitLength() < Integer.SIZE) {
+                return number.intValue();
+            }
+            return number.bitLength() < Long.SIZE ? (Object) number.longValue() : number;
+        }
+
+    }
+
+}
@@ -0,0 +1,60 @@
+package at.zierler.yamlvalidator;
+
+import java.io.FilterReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.concurrent.TimeUnit;
+
+import static at.zierler.yamlvalidator.YamlLimitExceededException.TIMEOUT_MESSAGE;
+
+/**
+ * Fails every read after the deadline passed. SnakeYAML reads its input in small chunks while parsing,
+ * so a file which takes too long fails shortly after the deadline without needing another thread.
+ */
+class DeadlineReader extends FilterReader {
+
+    private final long maxSeconds;
+    private final long deadline;
+
+    DeadlineReader(Reader reader, long maxSeconds) {
+
+        this(reader, maxSeconds, maxSeconds > 0 ? System.nanoTime() + TimeUnit.SECONDS.toNanos(maxSeconds) : Long.MAX_VALUE);
+    }
+
+    private DeadlineReader(Reader reader, long maxSeconds, long deadline) {
+
+        super(reader);
+        this.maxSeconds = maxSeconds;
+        this.deadline = deadline;
+    }
+
+    /**
+     * @return a reader failing after the same deadline, for reading parts of the same file
+     */
+    DeadlineReader withSameDeadline(Reader reader) {
+
+        return new DeadlineReader(reader, maxSeconds, deadline);
+    }
+
+    @Override
+    public int read() throws IOException {
+
+        checkDeadline();
+        return super.read();
+    }
+
+    @Override
+    public int read(char[] buffer, int offset, int length) throws IOException {
+
+        checkDeadline();
+        return super.read(buffer, offset, length);
+    }
+
+    void checkDeadline() {
+
+        if (deadline != Long.MAX_VALUE && System.nanoTime() - deadline > 0) {
+            throw new YamlLimitExceededException(String.format(TIMEOUT_MESSAGE, maxSeconds));
+        }
+    }
+
+}
@@ -0,0 +1,172 @@
+package at.zierler.yamlvalidator;
+
+import java.nio.CharBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Splits the content of a multi-document YAML file into chunks of one document each, without parsing it.
+ * <p>
+ * A document start marker ({@code ---} at column 0, followed by white space or a line break) can't be part of
+ * a block scalar, a quoted scalar or a flow collection: YAML ends a block scalar at a less indented line and
+ * forbids document markers inside quoted scalars and flow collections. Splitting at every such line therefore
+ * keeps block scalars and quoted strings intact, and a chunk split from invalid YAML is still invalid.
+ * <p>
+ * Directives belong to the document after them, so directives at the start of the content or following a
+ * document end marker ({@code ...}) are moved into the chunk of the next document.
+ */
+class DocumentBoundaryScanner {
+
+    private DocumentBoundaryScanner() {
+
+    }
+
+    static List<Chunk> split(CharSequence content) {
+
+        List<Chunk> chunks = new ArrayList<>();
+        int chunkStart = 0;
+        int chunkLine = 0;
+        int chunkDocumentsBefore = 0;
+        int documentStarts = 0;
+        boolean implicitDocument = false;
+        int directivesStart = 0;
+        int directivesLine = 0;
+        int lineStart = 0;
+        int line = 0;
+
+        while (lineStart < content.length()) {
+            int lineEnd = lineEnd(content, lineStart);
+
+            if (isMarker(content, lineStart, lineEnd, '-')) {
+                int boundary = directivesStart >= 0 ? directivesStart : lineStart;
+                if (boundary > chunkStart) {
+                    chunks.add(new Chunk(chunkStart, boundary, chunkLine, chunkDocumentsBefore));
+                }
+                chunkStart = boundary;
+                chunkLine = directivesStart >= 0 ? directivesLine : line;
+                chunkDocumentsBefore = documentStarts + (implicitDocument ? 1 : 0);
+                documentStarts++;
+                directivesStart = -1;
+            } else if (isMarker(content, lineStart, lineEnd, '.')) {
+                directivesStart = nextLineStart(content, lineEnd);
+                directivesLine = line + 1;
+            } else if (!isDirectiveOrComment(content, lineStart, lineEnd)) {
+                directivesStart = -1;
+                implicitDocument |= documentStarts == 0;
+            }
+
+            lineStart = nextLineStart(content, lineEnd);
+            line++;
+        }
+
+        if (chunkStart < content.length() || chunks.isEmpty()) {
+            chunks.add(new Chunk(chunkStart, content.length(), chunkLine, chunkDocumentsBefore));
+        }
+
+        return chunks;
+    }
+
+    private static boolean isMarker(CharSequence content, int lineStart, int lineEnd, char marker) {
+
+        if (lineEnd - lineStart < 3
+                || content.charAt(lineStart) != marker
+                || content.charAt(lineStart + 1) != marker
+                || content.charAt(lineStart + 2) != marker) {
+            return false;
+        }
+
+        if (lineEnd - lineStart == 3) {
+            return true;
+        }
+
+        char next = content.charAt(lineStart + 3);
+        return next == ' ' || next == '\t';
+    }
+
+    /**
+     * Blank lines count as well, they don't start a document either.
+     */
+    private static boolean isDirectiveOrComment(CharSequence content, int lineStart, int lineEnd) {
+
+        for (int i = lineStart; i < lineEnd; i++) {
+            char c = content.charAt(i);
+            if (c == '%' && i == lineStart || c == '#') {
+                return true;
+            }
+            if (c != ' ' && c != '\t') {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Line breaks are the ones SnakeYAML counts lines by, so the line of each chunk matches its marks.
+     */
+    private static int lineEnd(CharSequence content, int lineStart) {
+
+        for (int i = lineStart; i < content.length(); i++) {
+            char c = content.charAt(i);
+            if (c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029') {
+                return i;
+            }
+        }
+
+        return content.length();
+    }
+
+    private static int nextLineStart(CharSequence content, int lineEnd) {
+
+        if (lineEnd < content.length() - 1 && content.charAt(lineEnd) == '\r' && content.charAt(lineEnd + 1) == '\n') {
+            return lineEnd + 2;
+        }
+
+        return Math.min(lineEnd + 1, content.length());
+    }
+
+    /**
+     * Part of the content starting at {@link #getFirstLine()}, which contains at most one document.
+     */
+    static final class Chunk {
+
+        private final int start;
+        private final int end;
+        private final int firstLine;
+        private final int documentsBefore;
+
+        private Chunk(int start, int end, int firstLine, int documentsBefore) {
+
+            this.start = start;
+            this.end = end;
+            this.firstLine = firstLine;
+            this.documentsBefore = documentsBefore;
+        }
+
+        /**
+         * @return the part of the content, sharing its characters
+         */
+        CharBuffer of(CharBuffer content) {
+
+            return content.subSequence(start, end);
+        }
+
+        /**
+         * @return the 0-based line the chunk starts at
+         */
+        int getFirstLine() {
+
+            return firstLine;
+        }
+
+        /**
+         * @return the number of documents in all previous chunks
+         */
+        int getDocumentsBefore() {
+
+            return documentsBefore;
+        }
+
+    }
+
+}
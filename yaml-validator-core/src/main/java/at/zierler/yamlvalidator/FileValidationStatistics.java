@@ -0,0 +1,65 @@
+package at.zierler.yamlvalidator;
+
+import java.io.Serializable;
+
+/**
+ * What it took to validate a single YAML file, as written to the validation report.
+ */
+public final class FileValidationStatistics implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * {@code DUPLICATE} files have the content of a valid file validated before with the same settings in the same run.
+     */
+    public enum Result {
+        VALID, CACHED, DUPLICATE, INVALID
+    }
+
+    private final String file;
+    private final long bytes;
+    private final int documents;
+    private final long nanos;
+    private final Result result;
+
+    public FileValidationStatistics(String file, long bytes, int documents, long nanos, Result result) {
+
+        this.file = file;
+        this.bytes = bytes;
+        this.documents = documents;
+        this.nanos = nanos;
+        this.result = result;
+    }
+
+    public String getFile() {
+
+        return file;
+    }
+
+    public long getBytes() {
+
+        return bytes;
+    }
+
+    /**
+     * @return the number of documents validated successfully
+     */
+    public int getDocuments() {
+
+        return documents;
+    }
+
+    /**
+     * @return the time spent on the file, including reading, hashing and parsing it
+     */
+    public long getNanos() {
+
+        return nanos;
+    }
+
+    public Result getResult() {
+
+        return result;
+    }
+
+}
@@ -0,0 +1,120 @@
+package at.zierler.yamlvalidator;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Asks the local {@code git} which files a change touched: the files changed between the merge base of a
+ * revision and {@code HEAD}, the uncommitted changes and the untracked files which aren't ignored.
+ */
+public class GitChangedFiles {
+
+    public static final String GIT_FAILURE_MESSAGE = "'%s' failed with exit code %s: %s";
+    public static final String INVALID_REVISION_MESSAGE = "'%s' isn't a revision.";
+
+    private GitChangedFiles() {
+
+    }
+
+    /**
+     * @param directory any directory inside the working tree
+     * @return the real paths of all changed files which still exist
+     * @throws IOException if git isn't installed, the directory isn't part of a working tree or the revision is unknown
+     */
+    public static Set<Path> since(Path directory, String revision) throws IOException {
+
+        // some commands print paths relative to the directory they run in, so all of them run at the top level
+        Path workingTree = Paths.get(git(directory, "rev-parse", "--show-toplevel").trim());
+        String commit = resolveCommit(workingTree, revision);
+
+        Set<String> changedFiles = new LinkedHashSet<>();
+        changedFiles.addAll(splitNullTerminated(git(workingTree, "diff", "--name-only", "-z", "--diff-filter=d", commit + "...HEAD")));
+        changedFiles.addAll(splitNullTerminated(git(workingTree, "diff", "--name-only", "-z", "--diff-filter=d", "HEAD")));
+        changedFiles.addAll(splitNullTerminated(git(workingTree, "ls-files", "-z", "--others", "--exclude-standard")));
+
+        Set<Path> files = new LinkedHashSet<>();
+        for (String changedFile : changedFiles) {
+            Path file = workingTree.resolve(changedFile);
+            if (Files.isRegularFile(file)) {
+                files.add(file.toRealPath());
+            }
+        }
+        return files;
+    }
+
+    /**
+     * The revision comes from the build or the command line, so it is resolved to a commit id before it is passed
+     * to other git commands, where a value like {@code --output=file} would be taken as an option.
+     */
+    private static String resolveCommit(Path directory, String revision) throws IOException {
+
+        if (revision.startsWith("-")) {
+            throw new IOException(String.format(INVALID_REVISION_MESSAGE, revision));
+        }
+
+        String commit = git(directory, "rev-parse", "--verify", "--quiet", "--end-of-options", revision + "^{commit}").trim();
+
+        if (!commit.matches("[0-9a-f]+")) {
+            throw new IOException(String.format(INVALID_REVISION_MESSAGE, revision));
+        }
+        return commit;
+    }
+
+    private static Set<String> splitNullTerminated(String output) {
+
+        Set<String> paths = new LinkedHashSet<>(Arrays.asList(output.split("\u0000")));
+        paths.remove("");
+        return paths;
+    }
+
+    private static String git(Path directory, String... arguments) throws IOException {
+
+        String[] command = new String[arguments.length + 1];
+        command[0] = "git";
+        System.arraycopy(arguments, 0, command, 1, arguments.length);
+
+        Process process = new ProcessBuilder(command).directory(directory.toFile()).start();
+        process.getOutputStream().close();
+
+        // git writes little to standard error for these commands, so it can be read after standard output
+        String output = readFully(process.getInputStream());
+        String error = readFully(process.getErrorStream());
+
+        try {
+            int exitCode = process.waitFor();
+            if (exitCode != 0) {
+                throw new IOException(String.format(GIT_FAILURE_MESSAGE, String.join(" ", command), exitCode, error.trim()));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException(String.format("Interrupted while waiting for '%s'.", String.join(" ", command)));
+        }
+
+        return output;
+    }
+
+    private static String readFully(InputStream inputStream) throws IOException {
+
+        ByteArrayOutputStream content = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+
+        try (InputStream stream = inputStream) {
+            int read;
+            while ((read = stream.read(buffer)) != -1) {
+                content.write(buffer, 0, read);
+            }
+        }
+
+        return new String(content.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+}
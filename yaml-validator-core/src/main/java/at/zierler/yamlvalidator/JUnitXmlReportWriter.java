@@ -0,0 +1,158 @@
+package at.zierler.yamlvalidator;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Locale;
+
+/**
+ * JUnit XML report with a test suite for the run and a test case for every validated file, which fails if the
+ * file is invalid.
+ * <p>
+ * The counts of the test suite are only known once all files are written. Space for them is reserved in the
+ * opening tag and filled with the counts and trailing whitespace when the writer is closed.
+ */
+public final class JUnitXmlReportWriter implements ValidationReportWriter {
+
+    static final String FAILURE_TYPE = "InvalidYaml";
+
+    private static final int COUNTS_WIDTH = 128;
+
+    private final FileChannel channel;
+    private final Writer writer;
+    private final String suiteName;
+    private long countsPosition;
+    private int tests;
+    private int failures;
+    private long nanos;
+
+    private JUnitXmlReportWriter(FileChannel channel, String suiteName) {
+
+        this.channel = channel;
+        this.writer = new BufferedWriter(new OutputStreamWriter(Channels.newOutputStream(channel), StandardCharsets.UTF_8));
+        this.suiteName = suiteName;
+    }
+
+    /**
+     * @param suiteName name of the test suite and class name of all test cases
+     */
+    public static JUnitXmlReportWriter open(Path file, String suiteName) throws IOException {
+
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        JUnitXmlReportWriter reportWriter = new JUnitXmlReportWriter(channel, suiteName);
+
+        try {
+            reportWriter.writeStart();
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+        return reportWriter;
+    }
+
+    private void writeStart() throws IOException {
+
+        writer.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+        writer.write("<testsuite name=\"" + escape(suiteName) + "\"");
+        writer.flush();
+        countsPosition = channel.position();
+        writer.write(pad(""));
+        writer.write(">\n");
+    }
+
+    @Override
+    public void write(FileValidationStatistics statistics, ValidationFailure failure) throws IOException {
+
+        tests++;
+        nanos += statistics.getNanos();
+
+        writer.write("  <testcase classname=\"" + escape(suiteName) + "\" name=\"" + escape(statistics.getFile())
+                + "\" time=\"" + seconds(statistics.getNanos()) + "\"");
+
+        if (failure == null) {
+            writer.write("/>\n");
+            return;
+        }
+
+        failures++;
+        writer.write(">\n");
+        writer.write("    <failure type=\"" + FAILURE_TYPE + "\" message=\"" + escape(failure.describeProblem()) + "\">"
+                + escape(failure.describeProblem()) + "</failure>\n");
+        writer.write("  </testcase>\n");
+    }
+
+    @Override
+    public void close() throws IOException {
+
+        try {
+            writer.write("</testsuite>\n");
+            writer.flush();
+            String counts = String.format(" tests=\"%s\" failures=\"%s\" errors=\"0\" skipped=\"0\" time=\"%s\"", tests, failures, seconds(nanos));
+            channel.write(ByteBuffer.wrap(pad(counts).getBytes(StandardCharsets.UTF_8)), countsPosition);
+        } finally {
+            writer.close();
+        }
+    }
+
+    private static String pad(String attributes) {
+
+        StringBuilder padded = new StringBuilder(attributes);
+        while (padded.length() < COUNTS_WIDTH) {
+            padded.append(' ');
+        }
+        return padded.toString();
+    }
+
+    private static String seconds(long nanos) {
+
+        return String.format(Locale.ROOT, "%.3f", nanos / 1_000_000_000.0);
+    }
+
+    /**
+     * Escapes markup characters and drops the control characters XML 1.0 can't represent.
+     */
+    private static String escape(String value) {
+
+        StringBuilder escaped = new StringBuilder(value.length());
+        for (char character : value.toCharArray()) {
+            switch (character) {
+                case '&':
+                    escaped.append("&amp;");
+                    break;
+                case '<':
+                    escaped.append("&lt;");
+                    break;
+                case '>':
+                    escaped.append("&gt;");
+                    break;
+                case '"':
+                    escaped.append("&quot;");
+                    break;
+                case '\n':
+                    escaped.append("&#10;");
+                    break;
+                case '\r':
+                    escaped.append("&#13;");
+                    break;
+                case '\t':
+                    escaped.append("&#9;");
+                    break;
+                default:
+                    if (character >= 0x20 && character != 0xFFFE && character != 0xFFFF) {
+                        escaped.append(character);
+                    }
+            }
+        }
+        return escaped.toString();
+    }
+
+}
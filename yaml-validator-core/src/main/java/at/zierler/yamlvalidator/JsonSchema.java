@@ -0,0 +1,147 @@
+package at.zierler.yamlvalidator;
+
+import org.yaml.snakeyaml.LoaderOptions;
+import org.yaml.snakeyaml.Yaml;
+import org.yaml.snakeyaml.constructor.SafeConstructor;
+import org.yaml.snakeyaml.nodes.Node;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A JSON Schema file compiled once into {@link JsonSchemaKeywords}, which validate YAML documents on their composed
+ * node tree, so no document is converted to JSON. Schema files may be written in JSON or YAML.
+ * <p>
+ * Only local references like {@code #/definitions/name} or {@code #/$defs/name} are supported.
+ */
+public final class JsonSchema {
+
+    public static final String SCHEMA_VIOLATIONS_MESSAGE = "document #%s doesn't match schema %s: %s";
+    public static final String MORE_VIOLATIONS_MESSAGE = "... and %s more violation(s)";
+
+    private static final int MAX_REPORTED_VIOLATIONS = 20;
+
+    private final Path file;
+    private final String fingerprint;
+    private final Object root;
+    private final Map<String, JsonSchemaKeywords> references = new HashMap<>();
+    private final Deque<String> unresolvedReferences = new ArrayDeque<>();
+    private final JsonSchemaKeywords rootKeywords;
+
+    private JsonSchema(Path file, byte[] content) {
+
+        this.file = file;
+        this.fingerprint = Base64.getEncoder().encodeToString(ValidationResultCache.createDigest().digest(content));
+        this.root = new Yaml(new SafeConstructor(new LoaderOptions())).load(new String(content, StandardCharsets.UTF_8));
+        this.rootKeywords = JsonSchemaKeywords.compile(root, this);
+
+        while (!unresolvedReferences.isEmpty()) {
+            String reference = unresolvedReferences.pop();
+            references.put(reference, JsonSchemaKeywords.compile(resolvePointer(reference), this));
+        }
+    }
+
+    public static JsonSchema compile(Path file) {
+
+        try {
+            return new JsonSchema(file, Files.readAllBytes(file));
+        } catch (IOException e) {
+            throw new UncheckedIOException(String.format("Couldn't read JSON schema %s.", file), e);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException(String.format("Invalid JSON schema %s: %s", file, e.getMessage()), e);
+        }
+    }
+
+    /**
+     * @return hash of the schema content, which is part of the key of remembered validation results
+     */
+    public String getFingerprint() {
+
+        return fingerprint;
+    }
+
+    /**
+     * @param firstLine 0-based line the parsed content starts at in its file
+     */
+    void validate(Node document, int documentIndex, int firstLine) {
+
+        if (document == null) {
+            return;
+        }
+
+        JsonSchemaKeywords.Validation validation = new JsonSchemaKeywords.Validation(this);
+        rootKeywords.validate(document, validation);
+        List<JsonSchemaKeywords.Violation> violations = validation.getViolations();
+
+        if (!violations.isEmpty()) {
+            throw new YamlValidationException(null, null, describe(violations, documentIndex, firstLine), violations.get(0).getMark());
+        }
+    }
+
+    void referenced(String reference) {
+
+        if (!reference.startsWith("#")) {
+            throw new IllegalArgumentException(String.format("Only local references are supported, found '%s'.", reference));
+        }
+        if (!references.containsKey(reference) && !unresolvedReferences.contains(reference)) {
+            unresolvedReferences.push(reference);
+        }
+    }
+
+    JsonSchemaKeywords resolve(String reference) {
+
+        return references.get(reference);
+    }
+
+    private String describe(List<JsonSchemaKeywords.Violation> violations, int documentIndex, int firstLine) {
+
+        List<String> lines = new ArrayList<>();
+        lines.add(String.format(SCHEMA_VIOLATIONS_MESSAGE, documentIndex, file.getFileName(), violations.get(0).describe()));
+
+        for (int i = 1; i < Math.min(violations.size(), MAX_REPORTED_VIOLATIONS); i++) {
+            lines.add(violations.get(i).describeWithLocation(firstLine));
+        }
+        if (violations.size() > MAX_REPORTED_VIOLATIONS) {
+            lines.add(String.format(MORE_VIOLATIONS_MESSAGE, violations.size() - MAX_REPORTED_VIOLATIONS));
+        }
+
+        return String.join("\n", lines);
+    }
+
+    private Object resolvePointer(String reference) {
+
+        Object target = root;
+
+        for (String token : reference.substring(1).split("/")) {
+            if (token.isEmpty()) {
+                continue;
+            }
+            String name = token.replace("~1", "/").replace("~0", "~");
+            if (target instanceof Map) {
+                target = ((Map<?, ?>) target).get(name);
+            } else if (target instanceof List && name.matches("\\d+")) {
+                List<?> list = (List<?>) target;
+                int index = Integer.parseInt(name);
+                target = index < list.size() ? list.get(index) : null;
+            } else {
+                target = null;
+            }
+            if (target == null) {
+                throw new IllegalArgumentException(String.format("Couldn't resolve reference '%s'.", reference));
+            }
+        }
+
+        return target;
+    }
+
+}
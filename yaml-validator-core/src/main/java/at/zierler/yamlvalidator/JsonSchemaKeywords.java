@@ -0,0 +1,733 @@
+package at.zierler.yamlvalidator;
+
+import org.yaml.snakeyaml.error.Mark;
+import org.yaml.snakeyaml.nodes.MappingNode;
+import org.yaml.snakeyaml.nodes.Node;
+import org.yaml.snakeyaml.nodes.NodeTuple;
+import org.yaml.snakeyaml.nodes.ScalarNode;
+import org.yaml.snakeyaml.nodes.SequenceNode;
+import org.yaml.snakeyaml.nodes.Tag;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+import static at.zierler.yamlvalidator.ValidationFailure.LOCATED_PROBLEM_MESSAGE;
+
+/**
+ * The compiled keywords of a single (sub)schema. Supported are {@code type}, {@code enum}, {@code const},
+ * {@code properties}, {@code patternProperties}, {@code additionalProperties}, {@code required},
+ * {@code minProperties}, {@code maxProperties}, {@code items}, {@code minItems}, {@code maxItems},
+ * {@code minLength}, {@code maxLength}, {@code pattern}, {@code minimum}, {@code maximum},
+ * {@code exclusiveMinimum}, {@code exclusiveMaximum}, {@code allOf}, {@code anyOf}, {@code oneOf}, {@code not}
+ * and {@code $ref}. All other keywords are ignored, so are the siblings of {@code $ref} as draft 7 specifies.
+ * <p>
+ * Scalars are typed by the tag SnakeYAML resolved for them, e.g. {@code 8080} is an integer and {@code "8080"}
+ * a string. Merge keys are applied before properties are checked.
+ */
+final class JsonSchemaKeywords {
+
+    private final boolean rejectAll;
+    private String reference;
+    private Set<String> types;
+    private String typesDescription;
+    private List<Object> enumValues;
+    private boolean hasConst;
+    private Object constValue;
+    private Map<String, JsonSchemaKeywords> properties = Collections.emptyMap();
+    private Map<Pattern, JsonSchemaKeywords> patternProperties = Collections.emptyMap();
+    private JsonSchemaKeywords additionalProperties;
+    private List<String> required = Collections.emptyList();
+    private Integer minProperties;
+    private Integer maxProperties;
+    private JsonSchemaKeywords items;
+    private Integer minItems;
+    private Integer maxItems;
+    private Integer minLength;
+    private Integer maxLength;
+    private Pattern pattern;
+    private BigDecimal minimum;
+    private BigDecimal maximum;
+    private BigDecimal exclusiveMinimum;
+    private BigDecimal exclusiveMaximum;
+    private List<JsonSchemaKeywords> allOf = Collections.emptyList();
+    private List<JsonSchemaKeywords> anyOf = Collections.emptyList();
+    private List<JsonSchemaKeywords> oneOf = Collections.emptyList();
+    private JsonSchemaKeywords not;
+
+    private JsonSchemaKeywords(boolean rejectAll) {
+
+        this.rejectAll = rejectAll;
+    }
+
+    static JsonSchemaKeywords compile(Object schema, JsonSchema root) {
+
+        if (schema instanceof Boolean) {
+            return new JsonSchemaKeywords(!(Boolean) schema);
+        }
+        if (!(schema instanceof Map)) {
+            throw new IllegalArgumentException(String.format("A schema must be an object or a boolean, found '%s'.", schema));
+        }
+
+        Map<?, ?> keywords = (Map<?, ?>) schema;
+        JsonSchemaKeywords compiled = new JsonSchemaKeywords(false);
+
+        if (keywords.containsKey("$ref")) {
+            compiled.reference = String.valueOf(keywords.get("$ref"));
+            root.referenced(compiled.reference);
+            return compiled;
+        }
+        if (keywords.containsKey("type")) {
+            compiled.types = new LinkedHashSet<>(stringsOf(keywords.get("type")));
+            compiled.typesDescription = String.join(" or ", compiled.types);
+        }
+        if (keywords.containsKey("enum")) {
+            compiled.enumValues = new ArrayList<>();
+            for (Object value : listOf(keywords, "enum")) {
+                compiled.enumValues.add(canonicalValueOf(value));
+            }
+        }
+        if (keywords.containsKey("const")) {
+            compiled.hasConst = true;
+            compiled.constValue = canonicalValueOf(keywords.get("const"));
+        }
+
+        compiled.properties = schemasByName(keywords, "properties", root);
+        compiled.patternProperties = new LinkedHashMap<>();
+        schemasByName(keywords, "patternProperties", root).forEach((regex, property) -> compiled.patternProperties.put(Pattern.compile(regex), property));
+        compiled.additionalProperties = schemaOf(keywords, "additionalProperties", root);
+        compiled.required = keywords.containsKey("required") ? stringsOf(keywords.get("required")) : Collections.emptyList();
+        compiled.minProperties = integerOf(keywords, "minProperties");
+        compiled.maxProperties = integerOf(keywords, "maxProperties");
+
+        compiled.items = schemaOf(keywords, "items", root);
+        compiled.minItems = integerOf(keywords, "minItems");
+        compiled.maxItems = integerOf(keywords, "maxItems");
+
+        compiled.minLength = integerOf(keywords, "minLength");
+        compiled.maxLength = integerOf(keywords, "maxLength");
+        compiled.pattern = keywords.containsKey("pattern") ? Pattern.compile(String.valueOf(keywords.get("pattern"))) : null;
+
+        compiled.minimum = numberOf(keywords, "minimum");
+        compiled.maximum = numberOf(keywords, "maximum");
+        compiled.exclusiveMinimum = exclusiveBoundOf(keywords, "exclusiveMinimum", compiled.minimum);
+        compiled.exclusiveMaximum = exclusiveBoundOf(keywords, "exclusiveMaximum", compiled.maximum);
+        if (Boolean.TRUE.equals(keywords.get("exclusiveMinimum"))) {
+            compiled.minimum = null;
+        }
+        if (Boolean.TRUE.equals(keywords.get("exclusiveMaximum"))) {
+            compiled.maximum = null;
+        }
+
+        compiled.allOf = schemasOf(keywords, "allOf", root);
+        compiled.anyOf = schemasOf(keywords, "anyOf", root);
+        compiled.oneOf = schemasOf(keywords, "oneOf", root);
+        compiled.not = schemaOf(keywords, "not", root);
+
+        return compiled;
+    }
+
+    void validate(Node node, Validation validation) {
+
+        if (validation.isDone()) {
+            return;
+        }
+        if (rejectAll) {
+            validation.report(node, "no value is allowed here");
+            return;
+        }
+        if (!validation.enter(node, this)) {
+            return;
+        }
+
+        int violationsBefore = validation.countViolations();
+        validateKeywords(node, validation);
+        validation.exit(node, this, validation.countViolations() == violationsBefore);
+    }
+
+    private void validateKeywords(Node node, Validation validation) {
+
+        if (reference != null) {
+            validation.getSchema().resolve(reference).validate(node, validation);
+            return;
+        }
+
+        String type = typeOf(node);
+
+        if (types != null && !types.contains(type) && !("integer".equals(type) && types.contains("number"))) {
+            validation.report(node, "expected %s, found %s", typesDescription, type);
+            return;
+        }
+        if (enumValues != null && !enumValues.contains(valueOf(node))) {
+            validation.report(node, "value must be one of %s", enumValues);
+        }
+        if (hasConst && !Objects.equals(constValue, valueOf(node))) {
+            validation.report(node, "value must be %s", constValue);
+        }
+
+        if (node instanceof MappingNode) {
+            validateObject((MappingNode) node, validation);
+        } else if (node instanceof SequenceNode) {
+            validateArray((SequenceNode) node, validation);
+        } else if ("string".equals(type)) {
+            validateString((ScalarNode) node, validation);
+        } else if ("integer".equals(type) || "number".equals(type)) {
+            validateNumber((ScalarNode) node, validation);
+        }
+
+        validateCombinations(node, validation);
+    }
+
+    private void validateObject(MappingNode node, Validation validation) {
+
+        List<NodeTuple> entries = entriesOf(node);
+
+        if (!required.isEmpty()) {
+            Set<String> names = new HashSet<>();
+            entries.forEach(entry -> names.add(((ScalarNode) entry.getKeyNode()).getValue()));
+            for (String name : required) {
+                if (!names.contains(name)) {
+                    validation.report(node, "missing required property '%s'", name);
+                }
+            }
+        }
+        checkBounds(entries.size(), minProperties, maxProperties, "properties", node, validation);
+
+        for (NodeTuple entry : entries) {
+            String name = ((ScalarNode) entry.getKeyNode()).getValue();
+            Node value = entry.getValueNode();
+            boolean matched = false;
+
+            validation.enterProperty(name);
+
+            JsonSchemaKeywords property = properties.get(name);
+            if (property != null) {
+                matched = true;
+                property.validate(value, validation);
+            }
+            for (Map.Entry<Pattern, JsonSchemaKeywords> patternProperty : patternProperties.entrySet()) {
+                if (patternProperty.getKey().matcher(name).find()) {
+                    matched = true;
+                    patternProperty.getValue().validate(value, validation);
+                }
+            }
+            if (!matched && additionalProperties != null) {
+                if (additionalProperties.rejectAll) {
+                    validation.report(entry.getKeyNode(), "property '%s' is not allowed", name);
+                } else {
+                    additionalProperties.validate(value, validation);
+                }
+            }
+
+            validation.leave();
+        }
+    }
+
+    private void validateArray(SequenceNode node, Validation validation) {
+
+        List<Node> elements = node.getValue();
+
+        checkBounds(elements.size(), minItems, maxItems, "items", node, validation);
+
+        if (items != null) {
+            for (int i = 0; i < elements.size(); i++) {
+                validation.enterIndex(i);
+                items.validate(elements.get(i), validation);
+                validation.leave();
+            }
+        }
+    }
+
+    private void validateString(ScalarNode node, Validation validation) {
+
+        String value = node.getValue();
+
+        if (minLength != null || maxLength != null) {
+            checkBounds(value.codePointCount(0, value.length()), minLength, maxLength, "characters", node, validation);
+        }
+        if (pattern != null && !pattern.matcher(value).find()) {
+            validation.report(node, "value doesn't match pattern '%s'", pattern);
+        }
+    }
+
+    private void validateNumber(ScalarNode node, Validation validation) {
+
+        if (minimum == null && maximum == null && exclusiveMinimum == null && exclusiveMaximum == null) {
+            return;
+        }
+
+        BigDecimal value = numericValueOf(node);
+
+        if (value == null) {
+            return;
+        }
+        if (minimum != null && value.compareTo(minimum) < 0) {
+            validation.report(node, "value must be at least %s", minimum.toPlainString());
+        }
+        if (maximum != null && value.compareTo(maximum) > 0) {
+            validation.report(node, "value must be at most %s", maximum.toPlainString());
+        }
+        if (exclusiveMinimum != null && value.compareTo(exclusiveMinimum) <= 0) {
+            validation.report(node, "value must be greater than %s", exclusiveMinimum.toPlainString());
+        }
+        if (exclusiveMaximum != null && value.compareTo(exclusiveMaximum) >= 0) {
+            validation.report(node, "value must be less than %s", exclusiveMaximum.toPlainString());
+        }
+    }
+
+    private void validateCombinations(Node node, Validation validation) {
+
+        for (JsonSchemaKeywords schema : allOf) {
+            schema.validate(node, validation);
+        }
+        if (!anyOf.isEmpty() && countMatches(anyOf, node, validation, 1) == 0) {
+            validation.report(node, "value doesn't match any schema of anyOf");
+        }
+        if (!oneOf.isEmpty()) {
+            int matches = countMatches(oneOf, node, validation, 2);
+            if (matches != 1) {
+                validation.report(node, "value matches %s schemas of oneOf, expected exactly one", matches > 1 ? "several" : "no");
+            }
+        }
+        if (not != null && validation.matches(node, not)) {
+            validation.report(node, "value must not match the schema of not");
+        }
+    }
+
+    private static int countMatches(List<JsonSchemaKeywords> schemas, Node node, Validation validation, int enoughMatches) {
+
+        int matches = 0;
+
+        for (int i = 0; i < schemas.size() && matches < enoughMatches; i++) {
+            if (validation.matches(node, schemas.get(i))) {
+                matches++;
+            }
+        }
+        return matches;
+    }
+
+    private static void checkBounds(int count, Integer min, Integer max, String unit, Node node, Validation validation) {
+
+        if (min != null && count < min) {
+            validation.report(node, "expected at least %s %s, found %s", min, unit, count);
+        }
+        if (max != null && count > max) {
+            validation.report(node, "expected at most %s %s, found %s", max, unit, count);
+        }
+    }
+
+    /**
+     * @return the entries of the mapping with a scalar key, entries of merged mappings included
+     */
+    private static List<NodeTuple> entriesOf(MappingNode mapping) {
+
+        List<NodeTuple> tuples = mapping.getValue();
+
+        for (NodeTuple tuple : tuples) {
+            if (Tag.MERGE.equals(tuple.getKeyNode().getTag()) || !(tuple.getKeyNode() instanceof ScalarNode)) {
+                return new ArrayList<>(mergedEntriesOf(mapping, Collections.newSetFromMap(new IdentityHashMap<>())).values());
+            }
+        }
+        return tuples;
+    }
+
+    private static Map<String, NodeTuple> mergedEntriesOf(MappingNode mapping, Set<Node> visitedMappings) {
+
+        Map<String, NodeTuple> entries = new LinkedHashMap<>();
+
+        if (!visitedMappings.add(mapping)) {
+            return entries;
+        }
+
+        List<Node> mergedNodes = new ArrayList<>();
+
+        for (NodeTuple tuple : mapping.getValue()) {
+            Node key = tuple.getKeyNode();
+            if (Tag.MERGE.equals(key.getTag())) {
+                mergedNodes.add(tuple.getValueNode());
+            } else if (key instanceof ScalarNode) {
+                entries.put(((ScalarNode) key).getValue(), tuple);
+            }
+        }
+
+        for (Node mergedNode : mergedNodes) {
+            List<Node> mergedMappings = mergedNode instanceof SequenceNode
+                    ? ((SequenceNode) mergedNode).getValue()
+                    : Collections.singletonList(mergedNode);
+            for (Node mergedMapping : mergedMappings) {
+                if (mergedMapping instanceof MappingNode) {
+                    mergedEntriesOf((MappingNode) mergedMapping, visitedMappings).forEach(entries::putIfAbsent);
+                }
+            }
+        }
+
+        return entries;
+    }
+
+    private static String typeOf(Node node) {
+
+        if (node instanceof MappingNode) {
+            return "object";
+        }
+        if (node instanceof SequenceNode) {
+            return "array";
+        }
+
+        Tag tag = node.getTag();
+
+        if (Tag.INT.equals(tag)) {
+            return "integer";
+        }
+        if (Tag.FLOAT.equals(tag)) {
+            return "number";
+        }
+        if (Tag.BOOL.equals(tag)) {
+            return "boolean";
+        }
+        if (Tag.NULL.equals(tag)) {
+            return "null";
+        }
+        return "string";
+    }
+
+    /**
+     * @return the value of a scalar in the form {@link #canonicalValueOf(Object)} returns for schema values,
+     * or the node itself for collections, which never equals a schema value
+     */
+    private static Object valueOf(Node node) {
+
+        if (!(node instanceof ScalarNode)) {
+            return node;
+        }
+
+        ScalarNode scalar = (ScalarNode) node;
+        Tag tag = scalar.getTag();
+
+        if (Tag.INT.equals(tag) || Tag.FLOAT.equals(tag)) {
+            BigDecimal value = numericValueOf(scalar);
+            return value != null ? value.stripTrailingZeros() : scalar.getValue();
+        }
+        if (Tag.BOOL.equals(tag)) {
+            String value = scalar.getValue().toLowerCase(Locale.ROOT);
+            return value.equals("true") || value.equals("yes") || value.equals("on");
+        }
+        if (Tag.NULL.equals(tag)) {
+            return null;
+        }
+        return scalar.getValue();
+    }
+
+    private static Object canonicalValueOf(Object value) {
+
+        if (value instanceof Number) {
+            try {
+                return new BigDecimal(value.toString()).stripTrailingZeros();
+            } catch (NumberFormatException e) {
+                return value;
+            }
+        }
+        return value;
+    }
+
+    /**
+     * @return the value of an integer or float scalar, or {@code null} for infinity, NaN and sexagesimal floats
+     */
+    private static BigDecimal numericValueOf(ScalarNode node) {
+
+        String value = node.getValue().replace("_", "");
+        boolean negative = value.startsWith("-");
+
+        if (negative || value.startsWith("+")) {
+            value = value.substring(1);
+        }
+
+        try {
+            BigDecimal number;
+            if (Tag.FLOAT.equals(node.getTag())) {
+                if (value.contains(":") || value.toLowerCase(Locale.ROOT).matches("\\.(inf|nan)")) {
+                    return null;
+                }
+                number = new BigDecimal(value);
+            } else {
+                number = new BigDecimal(parseInteger(value));
+            }
+            return negative ? number.negate() : number;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static BigInteger parseInteger(String value) {
+
+        if (value.startsWith("0x")) {
+            return new BigInteger(value.substring(2), 16);
+        }
+        if (value.startsWith("0o")) {
+            return new BigInteger(value.substring(2), 8);
+        }
+        if (value.startsWith("0b")) {
+            return new BigInteger(value.substring(2), 2);
+        }
+        if (value.contains(":")) {
+            BigInteger number = BigInteger.ZERO;
+            for (String digit : value.split(":")) {
+                number = number.multiply(BigInteger.valueOf(60)).add(new BigInteger(digit));
+            }
+            return number;
+        }
+        if (value.length() > 1 && value.startsWith("0")) {
+            return new BigInteger(value.substring(1), 8);
+        }
+        return new BigInteger(value);
+    }
+
+    private static List<String> stringsOf(Object value) {
+
+        List<String> strings = new ArrayList<>();
+
+        if (value instanceof List) {
+            ((List<?>) value).forEach(element -> strings.add(String.valueOf(element)));
+        } else {
+            strings.add(String.valueOf(value));
+        }
+
+        return strings;
+    }
+
+    private static List<?> listOf(Map<?, ?> keywords, String name) {
+
+        Object value = keywords.get(name);
+
+        if (!(value instanceof List)) {
+            throw new IllegalArgumentException(String.format("'%s' must be an array.", name));
+        }
+        return (List<?>) value;
+    }
+
+    private static Integer integerOf(Map<?, ?> keywords, String name) {
+
+        BigDecimal number = numberOf(keywords, name);
+
+        return number != null ? number.intValueExact() : null;
+    }
+
+    private static BigDecimal numberOf(Map<?, ?> keywords, String name) {
+
+        Object value = keywords.get(name);
+
+        if (value == null || value instanceof Boolean) {
+            return null;
+        }
+        if (!(value instanceof Number)) {
+            throw new IllegalArgumentException(String.format("'%s' must be a number.", name));
+        }
+        return new BigDecimal(value.toString());
+    }
+
+    /**
+     * Supports both the numeric bounds of current drafts and the boolean modifiers of draft 4.
+     */
+    private static BigDecimal exclusiveBoundOf(Map<?, ?> keywords, String name, BigDecimal inclusiveBound) {
+
+        return Boolean.TRUE.equals(keywords.get(name)) ? inclusiveBound : numberOf(keywords, name);
+    }
+
+    private static JsonSchemaKeywords schemaOf(Map<?, ?> keywords, String name, JsonSchema root) {
+
+        return keywords.containsKey(name) ? compile(keywords.get(name), root) : null;
+    }
+
+    private static List<JsonSchemaKeywords> schemasOf(Map<?, ?> keywords, String name, JsonSchema root) {
+
+        if (!keywords.containsKey(name)) {
+            return Collections.emptyList();
+        }
+
+        List<JsonSchemaKeywords> schemas = new ArrayList<>();
+        for (Object schema : listOf(keywords, name)) {
+            schemas.add(compile(schema, root));
+        }
+        return schemas;
+    }
+
+    private static Map<String, JsonSchemaKeywords> schemasByName(Map<?, ?> keywords, String name, JsonSchema root) {
+
+        Object value = keywords.get(name);
+
+        if (value == null) {
+            return Collections.emptyMap();
+        }
+        if (!(value instanceof Map)) {
+            throw new IllegalArgumentException(String.format("'%s' must be an object.", name));
+        }
+
+        Map<String, JsonSchemaKeywords> schemas = new LinkedHashMap<>();
+        ((Map<?, ?>) value).forEach((key, schema) -> schemas.put(String.valueOf(key), compile(schema, root)));
+        return schemas;
+    }
+
+    /**
+     * State of validating one document. Nodes with an anchor can be reached several times through aliases,
+     * they are validated only once per schema, so aliases can't multiply the work and recursive documents terminate.
+     * Paths and messages are only built for reported violations.
+     */
+    static final class Validation {
+
+        private static final int MAX_VIOLATIONS = 1_000;
+
+        private final JsonSchema schema;
+        private final Map<Node, Map<JsonSchemaKeywords, Boolean>> anchoredNodes;
+        private final List<Object> path;
+        private final boolean onlyMatch;
+        private final List<Violation> violations = new ArrayList<>();
+        private int violationCount = 0;
+
+        Validation(JsonSchema schema) {
+
+            this(schema, new IdentityHashMap<>(), new ArrayList<>(), false);
+        }
+
+        private Validation(JsonSchema schema, Map<Node, Map<JsonSchemaKeywords, Boolean>> anchoredNodes, List<Object> path, boolean onlyMatch) {
+
+            this.schema = schema;
+            this.anchoredNodes = anchoredNodes;
+            this.path = path;
+            this.onlyMatch = onlyMatch;
+        }
+
+        JsonSchema getSchema() {
+
+            return schema;
+        }
+
+        List<Violation> getViolations() {
+
+            return violations;
+        }
+
+        private int countViolations() {
+
+            return violationCount;
+        }
+
+        private boolean isDone() {
+
+            return violationCount >= (onlyMatch ? 1 : MAX_VIOLATIONS);
+        }
+
+        private void enterProperty(String name) {
+
+            path.add(name);
+        }
+
+        private void enterIndex(int index) {
+
+            path.add(index);
+        }
+
+        private void leave() {
+
+            path.remove(path.size() - 1);
+        }
+
+        private void report(Node node, String format, Object... arguments) {
+
+            if (isDone()) {
+                return;
+            }
+            violationCount++;
+            if (!onlyMatch) {
+                violations.add(new Violation(node.getStartMark(), describePath(), String.format(format, arguments)));
+            }
+        }
+
+        private String describePath() {
+
+            StringBuilder description = new StringBuilder("$");
+            for (Object element : path) {
+                if (element instanceof Integer) {
+                    description.append('[').append(element).append(']');
+                } else {
+                    description.append('.').append(element);
+                }
+            }
+            return description.toString();
+        }
+
+        /**
+         * @return whether the node matches the schema, without reporting any violation
+         */
+        private boolean matches(Node node, JsonSchemaKeywords keywords) {
+
+            Validation validation = new Validation(schema, anchoredNodes, path, true);
+            keywords.validate(node, validation);
+            return validation.violationCount == 0;
+        }
+
+        /**
+         * @return whether the node has to be validated, {@code false} if it is valid or already being validated
+         */
+        private boolean enter(Node node, JsonSchemaKeywords keywords) {
+
+            if (node.getAnchor() == null || node instanceof ScalarNode) {
+                return true;
+            }
+
+            Map<JsonSchemaKeywords, Boolean> validatedSchemas = anchoredNodes.computeIfAbsent(node, key -> new IdentityHashMap<>());
+            return validatedSchemas.putIfAbsent(keywords, Boolean.TRUE) == null;
+        }
+
+        /**
+         * Only valid results are remembered, an invalid node is validated again to report its violations again.
+         */
+        private void exit(Node node, JsonSchemaKeywords keywords, boolean valid) {
+
+            if (!valid && anchoredNodes.containsKey(node)) {
+                anchoredNodes.get(node).remove(keywords);
+            }
+        }
+
+    }
+
+    static final class Violation {
+
+        private final Mark mark;
+        private final String path;
+        private final String message;
+
+        private Violation(Mark mark, String path, String message) {
+
+            this.mark = mark;
+            this.path = path;
+            this.message = message;
+        }
+
+        Mark getMark() {
+
+            return mark;
+        }
+
+        String describe() {
+
+            return path + ": " + message;
+        }
+
+        String describeWithLocation(int firstLine) {
+
+            return String.format(LOCATED_PROBLEM_MESSAGE, firstLine + mark.getLine() + 1, mark.getColumn() + 1, describe());
+        }
+
+    }
+
+}
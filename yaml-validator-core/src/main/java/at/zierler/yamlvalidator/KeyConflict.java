@@ -0,0 +1,72 @@
+package at.zierler.yamlvalidator;
+
+/**
+ * A flattened key which is defined in an inconsistent way by several YAML files of a key group.
+ */
+public final class KeyConflict {
+
+    public static final String NESTED_KEYS_MESSAGE = "Key '%s' is a value in %s but has nested keys in %s.";
+    public static final String TYPE_MISMATCH_MESSAGE = "Key '%s' is of type %s in %s but of type %s in %s.";
+    public static final String SHADOWED_MESSAGE = "Key '%s' has different values in %s and %s, one of them shadows the other.";
+
+    public enum Kind {
+
+        /**
+         * A key has a value in one file, but is the parent of other keys in another file.
+         */
+        NESTED_KEYS,
+
+        /**
+         * A key is an empty mapping or sequence in one file, but a value or another kind of collection in another.
+         */
+        STRUCTURE_MISMATCH,
+
+        /**
+         * A key has values of different scalar types, e.g. a number in one file and a string in another.
+         * The application may convert them, so it isn't an error either.
+         */
+        TYPE_MISMATCH,
+
+        /**
+         * A key has different values of the same type, which is how profiles override a base file.
+         * It isn't an error, but worth knowing.
+         */
+        SHADOWED
+
+    }
+
+    private final String group;
+    private final Kind kind;
+    private final String description;
+
+    KeyConflict(String group, Kind kind, String description) {
+
+        this.group = group;
+        this.kind = kind;
+        this.description = description;
+    }
+
+    public String getGroup() {
+
+        return group;
+    }
+
+    public Kind getKind() {
+
+        return kind;
+    }
+
+    /**
+     * @return whether the conflict makes the files invalid, shadowed values and scalar type mismatches don't
+     */
+    public boolean isError() {
+
+        return kind != Kind.SHADOWED && kind != Kind.TYPE_MISMATCH;
+    }
+
+    public String getDescription() {
+
+        return description;
+    }
+
+}
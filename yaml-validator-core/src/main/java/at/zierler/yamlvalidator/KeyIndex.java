@@ -0,0 +1,410 @@
+package at.zierler.yamlvalidator;
+
+import org.yaml.snakeyaml.LoaderOptions;
+import org.yaml.snakeyaml.composer.Composer;
+import org.yaml.snakeyaml.nodes.MappingNode;
+import org.yaml.snakeyaml.nodes.Node;
+import org.yaml.snakeyaml.nodes.NodeTuple;
+import org.yaml.snakeyaml.nodes.ScalarNode;
+import org.yaml.snakeyaml.nodes.SequenceNode;
+import org.yaml.snakeyaml.nodes.Tag;
+import org.yaml.snakeyaml.parser.ParserImpl;
+import org.yaml.snakeyaml.reader.StreamReader;
+import org.yaml.snakeyaml.resolver.Resolver;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Reader;
+import java.io.Serializable;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Index of the flattened keys of YAML files, flattened like Spring Boot flattens them: keys of nested mappings are
+ * joined with dots and items of sequences get their index, e.g. {@code server.ssl.protocols[0]}.
+ * <p>
+ * The index is kept in a file between runs. A file is only parsed again when its size, modification time or
+ * parser backend changed, so finding the conflicts between the keys of a group of files stays cheap when few files changed.
+ */
+public final class KeyIndex {
+
+    /**
+     * Increase whenever the content of the index file changes, older index files are then ignored.
+     */
+    private static final int FORMAT_VERSION = 2;
+
+    private static final String NULL_TYPE = "null";
+    private static final String STRING_TYPE = "string";
+    private static final String MAPPING_TYPE = "mapping";
+    private static final String SEQUENCE_TYPE = "sequence";
+
+    private final Map<String, IndexedFile> files;
+    private final ValidationLimits limits;
+
+    private KeyIndex(Map<String, IndexedFile> files, ValidationLimits limits) {
+
+        this.files = files;
+        this.limits = limits;
+    }
+
+    /**
+     * @return the index stored in the given file, or an empty index if there is none or it can't be read
+     */
+    @SuppressWarnings("unchecked")
+    public static KeyIndex load(Path indexFile, ValidationLimits limits) {
+
+        if (Files.isRegularFile(indexFile)) {
+            try (ObjectInputStream inputStream = new ObjectInputStream(Files.newInputStream(indexFile))) {
+                if (inputStream.readInt() == FORMAT_VERSION) {
+                    return new KeyIndex((Map<String, IndexedFile>) inputStream.readObject(), limits);
+                }
+            } catch (IOException | ClassNotFoundException | RuntimeException e) {
+                // the index only saves time, a broken one is built again
+            }
+        }
+
+        return new KeyIndex(new HashMap<>(), limits);
+    }
+
+    public void writeTo(Path indexFile) throws IOException {
+
+        Files.createDirectories(indexFile.getParent());
+
+        try (ObjectOutputStream outputStream = new ObjectOutputStream(Files.newOutputStream(indexFile))) {
+            outputStream.writeInt(FORMAT_VERSION);
+            outputStream.writeObject(files);
+        }
+    }
+
+    /**
+     * Parses the given files which changed since they were indexed and forgets all other files. Values are typed
+     * by the resolver of the parser backend of each file, like when the file is validated.
+     *
+     * @return the number of parsed files
+     */
+    public int update(Collection<Path> yamlFiles, ParserBackendMapping backendMapping) throws IOException {
+
+        Map<String, IndexedFile> updatedFiles = new HashMap<>();
+        Map<ParserBackend, Resolver> resolvers = new EnumMap<>(ParserBackend.class);
+        int parsedFiles = 0;
+
+        for (Path file : yamlFiles) {
+            BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+            ParserBackend backend = backendMapping.findBackend(file);
+            IndexedFile indexedFile = files.get(file.toString());
+
+            if (indexedFile == null || !indexedFile.isUpToDate(attributes, backend)) {
+                Resolver resolver = resolvers.computeIfAbsent(backend, ParserBackend::createResolver);
+                indexedFile = new IndexedFile(attributes.size(), attributes.lastModifiedTime().toMillis(), backend, readKeys(file, resolver));
+                parsedFiles++;
+            }
+            updatedFiles.put(file.toString(), indexedFile);
+        }
+
+        files.clear();
+        files.putAll(updatedFiles);
+        return parsedFiles;
+    }
+
+    private List<IndexedKey> readKeys(Path file, Resolver resolver) throws IOException {
+
+        LoaderOptions loaderOptions = new LoaderOptions();
+        loaderOptions.setAllowDuplicateKeys(true);
+        loaderOptions.setNestingDepthLimit(limits.getMaxNestingDepth());
+        loaderOptions.setMaxAliasesForCollections(limits.getMaxAliasesForCollections());
+        loaderOptions.setCodePointLimit(limits.getMaxCodePoints());
+
+        List<IndexedKey> keys = new ArrayList<>();
+
+        try (Reader reader = YamlFileInput.read(file, limits.getMaxFileBytes()).reader()) {
+            Composer composer = new Composer(new ParserImpl(new StreamReader(reader), loaderOptions), resolver, loaderOptions);
+            int documentIndex = 0;
+
+            while (composer.checkNode()) {
+                Node document = composer.getNode();
+                documentIndex++;
+                Map<String, IndexedKey> documentKeys = new LinkedHashMap<>();
+                flatten(document, "", documentIndex, false, documentKeys, Collections.newSetFromMap(new IdentityHashMap<>()));
+                keys.addAll(documentKeys.values());
+            }
+        }
+
+        return keys;
+    }
+
+    /**
+     * Keys merged with {@code <<} never replace keys of the mapping itself, like when the document is loaded.
+     *
+     * @param path nodes from the document to the given node, so a recursive alias ends the recursion
+     */
+    private static void flatten(Node node, String key, int document, boolean merged, Map<String, IndexedKey> keys, Set<Node> path) {
+
+        if (node == null || !path.add(node)) {
+            return;
+        }
+
+        if (node instanceof MappingNode) {
+            List<NodeTuple> tuples = ((MappingNode) node).getValue();
+            if (tuples.isEmpty()) {
+                addKey(keys, key, MAPPING_TYPE, "{}", document, node, merged);
+            }
+            for (NodeTuple tuple : tuples) {
+                Node keyNode = tuple.getKeyNode();
+                if (keyNode instanceof ScalarNode && !Tag.MERGE.equals(keyNode.getTag())) {
+                    String name = ((ScalarNode) keyNode).getValue();
+                    flatten(tuple.getValueNode(), key.isEmpty() ? name : key + "." + name, document, merged, keys, path);
+                }
+            }
+            for (NodeTuple tuple : tuples) {
+                if (Tag.MERGE.equals(tuple.getKeyNode().getTag())) {
+                    flattenMerged(tuple.getValueNode(), key, document, keys, path);
+                }
+            }
+        } else if (node instanceof SequenceNode) {
+            List<Node> items = ((SequenceNode) node).getValue();
+            if (items.isEmpty()) {
+                addKey(keys, key, SEQUENCE_TYPE, "[]", document, node, merged);
+            }
+            for (int i = 0; i < items.size(); i++) {
+                flatten(items.get(i), key + "[" + i + "]", document, merged, keys, path);
+            }
+        } else if (node instanceof ScalarNode) {
+            addKey(keys, key, typeOf(node.getTag()), ((ScalarNode) node).getValue(), document, node, merged);
+        }
+
+        path.remove(node);
+    }
+
+    private static void flattenMerged(Node mergedNode, String key, int document, Map<String, IndexedKey> keys, Set<Node> path) {
+
+        if (mergedNode instanceof SequenceNode) {
+            for (Node item : ((SequenceNode) mergedNode).getValue()) {
+                flatten(item, key, document, true, keys, path);
+            }
+        } else {
+            flatten(mergedNode, key, document, true, keys, path);
+        }
+    }
+
+    private static void addKey(Map<String, IndexedKey> keys, String key, String type, String value, int document, Node node, boolean merged) {
+
+        if (key.isEmpty()) {
+            return;
+        }
+
+        IndexedKey indexedKey = new IndexedKey(key, type, value, document, node.getStartMark().getLine() + 1);
+        if (merged) {
+            keys.putIfAbsent(key, indexedKey);
+        } else {
+            keys.put(key, indexedKey);
+        }
+    }
+
+    /**
+     * Integers and floats are both numbers, the application binding them decides which one it needs.
+     */
+    private static String typeOf(Tag tag) {
+
+        if (Tag.NULL.equals(tag)) {
+            return NULL_TYPE;
+        }
+        if (Tag.INT.equals(tag) || Tag.FLOAT.equals(tag)) {
+            return "number";
+        }
+        if (Tag.BOOL.equals(tag)) {
+            return "boolean";
+        }
+        if (Tag.STR.equals(tag)) {
+            return STRING_TYPE;
+        }
+
+        String tagValue = tag.getValue();
+        return tagValue.startsWith(Tag.PREFIX) ? tagValue.substring(Tag.PREFIX.length()) : tagValue;
+    }
+
+    /**
+     * Compares the keys of all documents of the given files with each other. Each key is reported at most once
+     * per kind of conflict.
+     *
+     * @param yamlFiles files of the group, which have to be part of the last {@link #update(Collection)}
+     */
+    public List<KeyConflict> findConflicts(String group, Collection<Path> yamlFiles) {
+
+        NavigableMap<String, List<Source>> sourcesByKey = new TreeMap<>();
+
+        for (Path file : yamlFiles) {
+            IndexedFile indexedFile = files.get(file.toString());
+            if (indexedFile == null) {
+                continue;
+            }
+            for (IndexedKey key : indexedFile.keys) {
+                sourcesByKey.computeIfAbsent(key.key, k -> new ArrayList<>()).add(new Source(file, key));
+            }
+        }
+
+        List<KeyConflict> conflicts = new ArrayList<>();
+
+        for (Map.Entry<String, List<Source>> keySources : sourcesByKey.entrySet()) {
+            String key = keySources.getKey();
+            List<Source> sources = keySources.getValue();
+
+            findNestedKeys(group, key, sources, sourcesByKey, conflicts);
+            findDifferentValues(group, key, sources, conflicts);
+        }
+
+        return conflicts;
+    }
+
+    private static void findNestedKeys(String group, String key, List<Source> sources, NavigableMap<String, List<Source>> sourcesByKey,
+                                       List<KeyConflict> conflicts) {
+
+        for (Source source : sources) {
+            if (!isValue(source.key.type)) {
+                continue;
+            }
+            Source nestedSource = findFirstNestedKey(key + ".", sourcesByKey);
+            if (nestedSource == null) {
+                nestedSource = findFirstNestedKey(key + "[", sourcesByKey);
+            }
+            if (nestedSource != null) {
+                conflicts.add(new KeyConflict(group, KeyConflict.Kind.NESTED_KEYS,
+                        String.format(KeyConflict.NESTED_KEYS_MESSAGE, key, source, nestedSource)));
+                return;
+            }
+        }
+    }
+
+    private static Source findFirstNestedKey(String prefix, NavigableMap<String, List<Source>> sourcesByKey) {
+
+        Map.Entry<String, List<Source>> nestedKey = sourcesByKey.ceilingEntry(prefix);
+
+        return nestedKey != null && nestedKey.getKey().startsWith(prefix) ? nestedKey.getValue().get(0) : null;
+    }
+
+    /**
+     * Types are compared with the first source which has a type: a key without a value and a placeholder like
+     * {@code ${PORT:8080}} stand for a value of any type.
+     */
+    private static void findDifferentValues(String group, String key, List<Source> sources, List<KeyConflict> conflicts) {
+
+        Source firstSource = null;
+        Source typedSource = null;
+        boolean shadowed = false;
+
+        for (Source source : sources) {
+            if (NULL_TYPE.equals(source.key.type)) {
+                continue;
+            }
+            if (!isPlaceholder(source.key)) {
+                if (typedSource == null) {
+                    typedSource = source;
+                } else if (!typedSource.key.type.equals(source.key.type)) {
+                    KeyConflict.Kind kind = isValue(typedSource.key.type) && isValue(source.key.type)
+                            ? KeyConflict.Kind.TYPE_MISMATCH
+                            : KeyConflict.Kind.STRUCTURE_MISMATCH;
+                    conflicts.add(new KeyConflict(group, kind, String.format(KeyConflict.TYPE_MISMATCH_MESSAGE,
+                            key, typedSource.key.type, typedSource, source.key.type, source)));
+                    return;
+                }
+            }
+            if (firstSource == null) {
+                firstSource = source;
+            } else if (!shadowed && !firstSource.key.value.equals(source.key.value)) {
+                conflicts.add(new KeyConflict(group, KeyConflict.Kind.SHADOWED,
+                        String.format(KeyConflict.SHADOWED_MESSAGE, key, firstSource, source)));
+                shadowed = true;
+            }
+        }
+    }
+
+    private static boolean isValue(String type) {
+
+        return !NULL_TYPE.equals(type) && !MAPPING_TYPE.equals(type) && !SEQUENCE_TYPE.equals(type);
+    }
+
+    private static boolean isPlaceholder(IndexedKey key) {
+
+        return STRING_TYPE.equals(key.type) && key.value.contains("${");
+    }
+
+    private static final class IndexedFile implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private final long bytes;
+        private final long lastModifiedMillis;
+        private final ParserBackend backend;
+        private final List<IndexedKey> keys;
+
+        private IndexedFile(long bytes, long lastModifiedMillis, ParserBackend backend, List<IndexedKey> keys) {
+
+            this.bytes = bytes;
+            this.lastModifiedMillis = lastModifiedMillis;
+            this.backend = backend;
+            this.keys = keys;
+        }
+
+        private boolean isUpToDate(BasicFileAttributes attributes, ParserBackend backend) {
+
+            return bytes == attributes.size() && lastModifiedMillis == attributes.lastModifiedTime().toMillis() && this.backend == backend;
+        }
+
+    }
+
+    private static final class IndexedKey implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private final String key;
+        private final String type;
+        private final String value;
+        private final int document;
+        private final int line;
+
+        private IndexedKey(String key, String type, String value, int document, int line) {
+
+            this.key = key;
+            this.type = type;
+            this.value = value;
+            this.document = document;
+            this.line = line;
+        }
+
+    }
+
+    private static final class Source {
+
+        private final Path file;
+        private final IndexedKey key;
+
+        private Source(Path file, IndexedKey key) {
+
+            this.file = file;
+            this.key = key;
+        }
+
+        @Override
+        public String toString() {
+
+            return key.document > 1
+                    ? String.format("'%s' (document #%s, line %s)", file, key.document, key.line)
+                    : String.format("'%s' (line %s)", file, key.line);
+        }
+
+    }
+
+}
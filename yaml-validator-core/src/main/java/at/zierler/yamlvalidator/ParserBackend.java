@@ -0,0 +1,56 @@
+package at.zierler.yamlvalidator;
+
+import org.yaml.snakeyaml.constructor.Construct;
+import org.yaml.snakeyaml.nodes.Tag;
+import org.yaml.snakeyaml.resolver.Resolver;
+
+import java.util.Map;
+
+/**
+ * How the scalars of a YAML file are typed. Both backends run the same SnakeYAML parser, so they accept the same
+ * syntax, but a file is only valid for a backend if every value can be constructed with the types it resolves.
+ */
+public enum ParserBackend {
+
+    /**
+     * SnakeYAML's own YAML 1.1 types, e.g. {@code yes} is a boolean and {@code 010} is octal.
+     */
+    SNAKEYAML {
+        @Override
+        Resolver createResolver() {
+
+            return new Resolver();
+        }
+
+        @Override
+        void registerConstructs(Map<Tag, Construct> yamlConstructors) {
+
+        }
+    },
+
+    /**
+     * The core schema of YAML 1.2, which applications reading the file with a YAML 1.2 library use, e.g.
+     * {@code yes} is a string and {@code 0o10} is octal.
+     */
+    YAML_1_2 {
+        @Override
+        Resolver createResolver() {
+
+            return new CoreSchemaResolver();
+        }
+
+        @Override
+        void registerConstructs(Map<Tag, Construct> yamlConstructors) {
+
+            yamlConstructors.put(Tag.INT, new CoreSchemaResolver.ConstructInt());
+        }
+    };
+
+    abstract Resolver createResolver();
+
+    /**
+     * Replaces the constructs of the standard tags which construct values differently for this backend.
+     */
+    abstract void registerConstructs(Map<Tag, Construct> yamlConstructors);
+
+}
@@ -0,0 +1,46 @@
+package at.zierler.yamlvalidator;
+
+import java.nio.file.FileSystem;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Finds the parser backend of a YAML file by the first glob pattern matching its path relative to the project
+ * directory, like {@link SchemaMapping} finds schemas. Files no pattern matches use {@link ParserBackend#SNAKEYAML}.
+ */
+public class ParserBackendMapping {
+
+    private final Path projectDirectory;
+    private final Map<List<PathMatcher>, ParserBackend> backends = new LinkedHashMap<>();
+
+    public ParserBackendMapping(FileSystem fileSystem, Path projectDirectory, Map<String, ParserBackend> backendsByPattern) {
+
+        this.projectDirectory = projectDirectory;
+        backendsByPattern.forEach((pattern, backend) -> backends.put(
+                YamlFileScanner.compile(fileSystem, Collections.singletonList(pattern)),
+                backend));
+    }
+
+    public ParserBackend findBackend(Path file) {
+
+        if (backends.isEmpty()) {
+            return ParserBackend.SNAKEYAML;
+        }
+
+        Path relativePath = file.startsWith(projectDirectory) ? projectDirectory.relativize(file) : file;
+
+        for (Map.Entry<List<PathMatcher>, ParserBackend> backend : backends.entrySet()) {
+            for (PathMatcher matcher : backend.getKey()) {
+                if (matcher.matches(relativePath)) {
+                    return backend.getValue();
+                }
+            }
+        }
+        return ParserBackend.SNAKEYAML;
+    }
+
+}
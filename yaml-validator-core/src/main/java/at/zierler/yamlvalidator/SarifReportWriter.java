@@ -0,0 +1,124 @@
+package at.zierler.yamlvalidator;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * SARIF 2.1.0 log with a result for every invalid file, located at the line and column of the problem.
+ * <p>
+ * Files inside the base directory are referenced relative to it, through the {@value #BASE_URI_ID} base URI,
+ * which is what code review tools need to match results to the files of a change.
+ */
+public final class SarifReportWriter implements ValidationReportWriter {
+
+    static final String SCHEMA_URI = "https://json.schemastore.org/sarif-2.1.0.json";
+    static final String TOOL_NAME = "yaml-validator";
+    static final String RULE_ID = "invalid-yaml";
+    static final String BASE_URI_ID = "SRCROOT";
+
+    private final Writer writer;
+    private final Path baseDirectory;
+    private boolean firstResult = true;
+
+    private SarifReportWriter(Writer writer, Path baseDirectory) {
+
+        this.writer = writer;
+        this.baseDirectory = baseDirectory;
+    }
+
+    /**
+     * @param baseDirectory absolute directory the locations of files inside it are relative to
+     */
+    public static SarifReportWriter open(Path file, Path baseDirectory) throws IOException {
+
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8);
+        SarifReportWriter reportWriter = new SarifReportWriter(writer, baseDirectory);
+
+        try {
+            reportWriter.writeStart();
+        } catch (IOException | RuntimeException e) {
+            writer.close();
+            throw e;
+        }
+        return reportWriter;
+    }
+
+    private void writeStart() throws IOException {
+
+        writer.write("{\n");
+        writer.write("  \"$schema\": " + ValidationReport.quote(SCHEMA_URI) + ",\n");
+        writer.write("  \"version\": \"2.1.0\",\n");
+        writer.write("  \"runs\": [\n");
+        writer.write("    {\n");
+        writer.write("      \"tool\": {\"driver\": {\"name\": " + ValidationReport.quote(TOOL_NAME) + ", \"rules\": [{\"id\": "
+                + ValidationReport.quote(RULE_ID) + ", \"shortDescription\": {\"text\": \"YAML file is invalid\"}}]}},\n");
+        writer.write("      \"originalUriBaseIds\": {" + ValidationReport.quote(BASE_URI_ID) + ": {\"uri\": "
+                + ValidationReport.quote(baseDirectory.toUri().toString()) + "}},\n");
+        writer.write("      \"results\": [");
+    }
+
+    @Override
+    public void write(FileValidationStatistics statistics, ValidationFailure failure) throws IOException {
+
+        if (failure == null) {
+            return;
+        }
+
+        writer.write(firstResult ? "\n" : ",\n");
+        firstResult = false;
+
+        writer.write("        {\"ruleId\": " + ValidationReport.quote(RULE_ID) + ", \"level\": \"error\", \"message\": {\"text\": "
+                + ValidationReport.quote(failure.getProblem()) + "}, \"locations\": [{\"physicalLocation\": {\"artifactLocation\": "
+                + describeLocation(failure.getFile()));
+        if (failure.getLine() > 0) {
+            writer.write(", \"region\": {\"startLine\": " + failure.getLine() + ", \"startColumn\": " + failure.getColumn() + "}");
+        }
+        writer.write("}}]}");
+    }
+
+    @Override
+    public void close() throws IOException {
+
+        try {
+            writer.write(firstResult ? "]\n" : "\n      ]\n");
+            writer.write("    }\n");
+            writer.write("  ]\n");
+            writer.write("}\n");
+        } finally {
+            writer.close();
+        }
+    }
+
+    /**
+     * Entries of archives are referenced by the path of the archive, followed by the path inside it.
+     */
+    private String describeLocation(String file) {
+
+        int separator = file.indexOf(ArchiveReader.ENTRY_SEPARATOR);
+        Path path = Paths.get(separator >= 0 ? file.substring(0, separator) : file);
+        String entry = separator >= 0 ? encode(file.substring(separator)) : "";
+
+        if (path.isAbsolute() && path.startsWith(baseDirectory)) {
+            String relativePath = baseDirectory.relativize(path).toString().replace(path.getFileSystem().getSeparator(), "/");
+            return "{\"uri\": " + ValidationReport.quote(encode(relativePath) + entry) + ", \"uriBaseId\": " + ValidationReport.quote(BASE_URI_ID) + "}";
+        }
+        return "{\"uri\": " + ValidationReport.quote(path.toAbsolutePath().toUri().toString() + entry) + "}";
+    }
+
+    private static String encode(String path) {
+
+        try {
+            return new URI(null, null, path, null).getRawPath();
+        } catch (URISyntaxException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+
+}
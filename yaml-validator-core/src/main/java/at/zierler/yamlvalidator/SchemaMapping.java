@@ -0,0 +1,56 @@
+package at.zierler.yamlvalidator;
+
+import java.io.File;
+import java.nio.file.FileSystem;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Finds the schema of a YAML file by the first glob pattern matching its path relative to the project directory.
+ * Patterns follow the conventions of the include and exclude patterns of {@link YamlFileScanner}.
+ */
+public class SchemaMapping {
+
+    private final Path projectDirectory;
+    private final Map<List<PathMatcher>, Path> schemaFiles = new LinkedHashMap<>();
+
+    public SchemaMapping(FileSystem fileSystem, Path projectDirectory, Map<String, File> schemaFilesByPattern) {
+
+        this.projectDirectory = projectDirectory;
+        schemaFilesByPattern.forEach((pattern, schemaFile) -> schemaFiles.put(
+                YamlFileScanner.compile(fileSystem, Collections.singletonList(pattern)),
+                schemaFile.toPath()));
+    }
+
+    public Collection<Path> getSchemaFiles() {
+
+        return schemaFiles.values();
+    }
+
+    /**
+     * @return the schema file for the given YAML file, or {@code null} if it has none
+     */
+    public Path findSchemaFile(Path file) {
+
+        if (schemaFiles.isEmpty()) {
+            return null;
+        }
+
+        Path relativePath = file.startsWith(projectDirectory) ? projectDirectory.relativize(file) : file;
+
+        for (Map.Entry<List<PathMatcher>, Path> schemaFile : schemaFiles.entrySet()) {
+            for (PathMatcher matcher : schemaFile.getKey()) {
+                if (matcher.matches(relativePath)) {
+                    return schemaFile.getValue();
+                }
+            }
+        }
+        return null;
+    }
+
+}
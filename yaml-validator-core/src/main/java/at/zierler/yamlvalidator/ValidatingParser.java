@@ -0,0 +1,41 @@
+package at.zierler.yamlvalidator;
+
+import org.yaml.snakeyaml.events.Event;
+import org.yaml.snakeyaml.parser.Parser;
+
+/**
+ * Passes every event a composer consumes through a {@link YamlEventStreamValidator}, so documents composed
+ * in SYNTAX mode are checked exactly like streamed ones.
+ */
+class ValidatingParser implements Parser {
+
+    private final Parser parser;
+    private final YamlEventStreamValidator validator;
+
+    ValidatingParser(Parser parser, YamlEventStreamValidator validator) {
+
+        this.parser = parser;
+        this.validator = validator;
+    }
+
+    @Override
+    public boolean checkEvent(Event.ID choice) {
+
+        return parser.checkEvent(choice);
+    }
+
+    @Override
+    public Event peekEvent() {
+
+        return parser.peekEvent();
+    }
+
+    @Override
+    public Event getEvent() {
+
+        Event event = parser.getEvent();
+        validator.validateEvent(event);
+        return event;
+    }
+
+}
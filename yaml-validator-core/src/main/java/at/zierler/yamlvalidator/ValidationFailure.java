@@ -0,0 +1,91 @@
+package at.zierler.yamlvalidator;
+
+import org.yaml.snakeyaml.error.Mark;
+import org.yaml.snakeyaml.error.MarkedYAMLException;
+
+import java.io.Serializable;
+import java.nio.file.Path;
+
+/**
+ * Why the validation of a single YAML file failed, and where in the file, if the parser knows it.
+ */
+public final class ValidationFailure implements Serializable {
+
+    public static final String LOCATED_PROBLEM_MESSAGE = "line %s, column %s: %s";
+
+    private static final long serialVersionUID = 1L;
+
+    private final String file;
+    private final int line;
+    private final int column;
+    private final String problem;
+
+    private ValidationFailure(String file, int line, int column, String problem) {
+
+        this.file = file;
+        this.line = line;
+        this.column = column;
+        this.problem = problem;
+    }
+
+    public static ValidationFailure of(Path file, Exception exception) {
+
+        return of(file.toString(), exception);
+    }
+
+    /**
+     * @param file path of the file, or of an archive entry
+     */
+    public static ValidationFailure of(String file, Exception exception) {
+
+        for (Throwable cause = exception; cause != null; cause = cause.getCause()) {
+            if (cause instanceof MarkedYAMLException && ((MarkedYAMLException) cause).getProblemMark() != null) {
+                MarkedYAMLException markedException = (MarkedYAMLException) cause;
+                Mark mark = markedException.getProblemMark();
+                return new ValidationFailure(file, mark.getLine() + 1, mark.getColumn() + 1, markedException.getProblem());
+            }
+        }
+
+        return new ValidationFailure(file, 0, 0, String.valueOf(exception.getMessage()));
+    }
+
+    /**
+     * @return the same failure in another file with the same content
+     */
+    public ValidationFailure withFile(String otherFile) {
+
+        return new ValidationFailure(otherFile, line, column, problem);
+    }
+
+    public String getFile() {
+
+        return file;
+    }
+
+    /**
+     * @return the 1-based line of the problem, or 0 if it is unknown
+     */
+    public int getLine() {
+
+        return line;
+    }
+
+    /**
+     * @return the 1-based column of the problem, or 0 if it is unknown
+     */
+    public int getColumn() {
+
+        return column;
+    }
+
+    public String getProblem() {
+
+        return problem;
+    }
+
+    public String describeProblem() {
+
+        return line > 0 ? String.format(LOCATED_PROBLEM_MESSAGE, line, column, problem) : problem;
+    }
+
+}
@@ -0,0 +1,89 @@
+package at.zierler.yamlvalidator;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * Limits every single YAML file has to stay within, so a pathological file fails fast instead of exhausting
+ * the memory of the JVM or blocking the build.
+ */
+public final class ValidationLimits implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final long maxFileBytes;
+    private final int maxNestingDepth;
+    private final int maxAliasesForCollections;
+    private final int maxCodePoints;
+    private final long maxSecondsPerFile;
+
+    public ValidationLimits(long maxFileBytes, int maxNestingDepth, int maxAliasesForCollections, int maxCodePoints, long maxSecondsPerFile) {
+
+        this.maxFileBytes = maxFileBytes;
+        this.maxNestingDepth = maxNestingDepth;
+        this.maxAliasesForCollections = maxAliasesForCollections;
+        this.maxCodePoints = maxCodePoints;
+        this.maxSecondsPerFile = maxSecondsPerFile;
+    }
+
+    public long getMaxFileBytes() {
+
+        return maxFileBytes;
+    }
+
+    public int getMaxNestingDepth() {
+
+        return maxNestingDepth;
+    }
+
+    public int getMaxAliasesForCollections() {
+
+        return maxAliasesForCollections;
+    }
+
+    public int getMaxCodePoints() {
+
+        return maxCodePoints;
+    }
+
+    public long getMaxSecondsPerFile() {
+
+        return maxSecondsPerFile;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        ValidationLimits that = (ValidationLimits) o;
+        return maxFileBytes == that.maxFileBytes
+                && maxNestingDepth == that.maxNestingDepth
+                && maxAliasesForCollections == that.maxAliasesForCollections
+                && maxCodePoints == that.maxCodePoints
+                && maxSecondsPerFile == that.maxSecondsPerFile;
+    }
+
+    @Override
+    public int hashCode() {
+
+        return Objects.hash(maxFileBytes, maxNestingDepth, maxAliasesForCollections, maxCodePoints, maxSecondsPerFile);
+    }
+
+    @Override
+    public String toString() {
+
+        return "ValidationLimits{" +
+                "maxFileBytes=" + maxFileBytes +
+                ", maxNestingDepth=" + maxNestingDepth +
+                ", maxAliasesForCollections=" + maxAliasesForCollections +
+                ", maxCodePoints=" + maxCodePoints +
+                ", maxSecondsPerFile=" + maxSecondsPerFile +
+                '}';
+    }
+
+}
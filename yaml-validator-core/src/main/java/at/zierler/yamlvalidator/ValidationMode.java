@@ -0,0 +1,17 @@
+package at.zierler.yamlvalidator;
+
+public enum ValidationMode {
+
+    /**
+     * Load every document into Java objects, like an application reading the file would.
+     */
+    LOAD,
+
+    /**
+     * Only run the parser over the event stream of every document, without composing nodes or constructing
+     * Java objects. Uses far less memory on large files, but doesn't detect errors which only occur while
+     * constructing objects, e.g. values which don't match an explicit tag.
+     */
+    SYNTAX
+
+}
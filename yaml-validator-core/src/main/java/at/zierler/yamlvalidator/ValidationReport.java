@@ -0,0 +1,197 @@
+package at.zierler.yamlvalidator;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.PriorityQueue;
+
+/**
+ * Machine-readable JSON report of one run of the validation: every validated file, totals and the slowest files.
+ * <p>
+ * Files are written as they are handed to the report, which only keeps the totals and the slowest files, so
+ * the totals follow the files in the report.
+ */
+public final class ValidationReport implements ValidationReportWriter {
+
+    private static final Comparator<FileValidationStatistics> BY_NANOS = Comparator.comparingLong(FileValidationStatistics::getNanos);
+
+    private final Writer writer;
+    private final int slowestFiles;
+    private final PriorityQueue<FileValidationStatistics> slowest = new PriorityQueue<>(BY_NANOS);
+    private final long[] results = new long[FileValidationStatistics.Result.values().length];
+    private long files;
+    private long bytes;
+    private long documents;
+    private long nanos;
+    private int skippedFiles;
+    private int duplicatePaths;
+    private int duplicateContents;
+
+    private ValidationReport(Writer writer, int slowestFiles) {
+
+        this.writer = writer;
+        this.slowestFiles = slowestFiles;
+    }
+
+    public static ValidationReport open(Path file, boolean incremental, int slowestFiles) throws IOException {
+
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8);
+
+        try {
+            writer.write("{\n");
+            writer.write("  \"incremental\": " + incremental + ",\n");
+            writer.write("  \"files\": [");
+        } catch (IOException | RuntimeException e) {
+            writer.close();
+            throw e;
+        }
+        return new ValidationReport(writer, slowestFiles);
+    }
+
+    /**
+     * Counts the files this run didn't validate, which are only known at its end.
+     *
+     * @param duplicatePaths    how many files were found more than once in the search paths and validated only once
+     * @param duplicateContents how many files took over the result of a file with the same content
+     */
+    public void count(int skippedFiles, int duplicatePaths, int duplicateContents) {
+
+        this.skippedFiles = skippedFiles;
+        this.duplicatePaths = duplicatePaths;
+        this.duplicateContents = duplicateContents;
+    }
+
+    /**
+     * @param failure ignored, the result of the statistics tells whether the file is invalid
+     */
+    @Override
+    public void write(FileValidationStatistics statistics, ValidationFailure failure) throws IOException {
+
+        writer.write(files == 0 ? "\n" : ",\n");
+        writer.write(describe(statistics));
+
+        files++;
+        bytes += statistics.getBytes();
+        documents += statistics.getDocuments();
+        nanos += statistics.getNanos();
+        results[statistics.getResult().ordinal()]++;
+
+        if (slowestFiles > 0 && (slowest.size() < slowestFiles || BY_NANOS.compare(statistics, slowest.peek()) > 0)) {
+            slowest.add(statistics);
+            if (slowest.size() > slowestFiles) {
+                slowest.poll();
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+
+        try {
+            writer.write(files == 0 ? "],\n" : "\n  ],\n");
+            writer.write(describeTotals());
+            writer.write("  \"slowestFiles\": ");
+            writeSlowestFiles();
+            writer.write("\n}\n");
+        } finally {
+            writer.close();
+        }
+    }
+
+    private String describeTotals() {
+
+        double megabytesPerSecond = nanos > 0 ? (bytes / 1_000_000.0) / (nanos / 1_000_000_000.0) : 0;
+
+        return "  \"totals\": {\n" +
+                "    \"files\": " + files + ",\n" +
+                "    \"validFiles\": " + results[FileValidationStatistics.Result.VALID.ordinal()] + ",\n" +
+                "    \"cachedFiles\": " + results[FileValidationStatistics.Result.CACHED.ordinal()] + ",\n" +
+                "    \"invalidFiles\": " + results[FileValidationStatistics.Result.INVALID.ordinal()] + ",\n" +
+                "    \"skippedFiles\": " + skippedFiles + ",\n" +
+                "    \"duplicatePaths\": " + duplicatePaths + ",\n" +
+                "    \"duplicateContents\": " + duplicateContents + ",\n" +
+                "    \"bytes\": " + bytes + ",\n" +
+                "    \"documents\": " + documents + ",\n" +
+                "    \"parseNanos\": " + nanos + ",\n" +
+                "    \"megabytesPerSecond\": " + String.format(Locale.ROOT, "%.3f", megabytesPerSecond) + "\n" +
+                "  },\n";
+    }
+
+    private void writeSlowestFiles() throws IOException {
+
+        List<FileValidationStatistics> slowestFirst = new ArrayList<>(slowest);
+        slowestFirst.sort(BY_NANOS.reversed());
+
+        if (slowestFirst.isEmpty()) {
+            writer.write("[]");
+            return;
+        }
+
+        writer.write("[\n");
+        for (int i = 0; i < slowestFirst.size(); i++) {
+            writer.write(describe(slowestFirst.get(i)));
+            writer.write(i < slowestFirst.size() - 1 ? ",\n" : "\n");
+        }
+        writer.write("  ]");
+    }
+
+    private static String describe(FileValidationStatistics file) {
+
+        StringBuilder json = new StringBuilder("    {\"file\": ");
+        appendString(json, file.getFile());
+        json.append(", \"bytes\": ").append(file.getBytes())
+                .append(", \"documents\": ").append(file.getDocuments())
+                .append(", \"parseNanos\": ").append(file.getNanos())
+                .append(", \"result\": \"").append(file.getResult()).append("\"}");
+        return json.toString();
+    }
+
+    /**
+     * @return the value as a JSON string literal
+     */
+    static String quote(String value) {
+
+        StringBuilder json = new StringBuilder(value.length() + 2);
+        appendString(json, value);
+        return json.toString();
+    }
+
+    private static void appendString(StringBuilder json, String value) {
+
+        json.append('"');
+        for (char character : value.toCharArray()) {
+            switch (character) {
+                case '"':
+                    json.append("\\\"");
+                    break;
+                case '\\':
+                    json.append("\\\\");
+                    break;
+                case '\n':
+                    json.append("\\n");
+                    break;
+                case '\r':
+                    json.append("\\r");
+                    break;
+                case '\t':
+                    json.append("\\t");
+                    break;
+                default:
+                    if (character < 0x20) {
+                        json.append(String.format("\\u%04x", (int) character));
+                    } else {
+                        json.append(character);
+                    }
+            }
+        }
+        json.append('"');
+    }
+
+}
@@ -0,0 +1,39 @@
+package at.zierler.yamlvalidator;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Report of one run of the validation, which is written file by file while the results are handed to it, so it needs
+ * the same memory for ten files as for a million.
+ */
+public interface ValidationReportWriter extends Closeable {
+
+    /**
+     * @param failure why the file is invalid, or {@code null} if it is valid
+     */
+    void write(FileValidationStatistics statistics, ValidationFailure failure) throws IOException;
+
+    /**
+     * Writes every file with its failure, if it has one. Failures of files without statistics, like an archive
+     * which couldn't be read, are written as invalid files of their own. May be called for one part of the files
+     * after the other, like the batches of a run, as long as the failures of a part are handed over with it.
+     */
+    static void writeAll(ValidationReportWriter writer, Collection<FileValidationStatistics> statistics,
+                         Collection<ValidationFailure> failures) throws IOException {
+
+        Map<String, ValidationFailure> failuresByFile = new LinkedHashMap<>();
+        failures.forEach(failure -> failuresByFile.putIfAbsent(failure.getFile(), failure));
+
+        for (FileValidationStatistics file : statistics) {
+            writer.write(file, failuresByFile.remove(file.getFile()));
+        }
+        for (ValidationFailure failure : failuresByFile.values()) {
+            writer.write(new FileValidationStatistics(failure.getFile(), 0, 0, 0, FileValidationStatistics.Result.INVALID), failure);
+        }
+    }
+
+}
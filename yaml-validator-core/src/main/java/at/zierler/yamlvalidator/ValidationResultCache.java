@@ -0,0 +1,174 @@
+package at.zierler.yamlvalidator;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Persistent index of the content hashes of YAML files which are known to be valid with certain settings.
+ * <p>
+ * The index is an append-only log of fixed size SHA-256 records. Every process keeps the records in memory and
+ * only reads what other processes appended since its last read. Appending and reading happen under a file lock,
+ * so daemons can share the index. Once the log holds more than the maximum number of entries, it is rewritten
+ * with the most recently added half of them.
+ */
+public final class ValidationResultCache {
+
+    static final String INDEX_FILE_PATH = "caches/yaml-validator/valid-content-v1.bin";
+
+    private static final String HASH_ALGORITHM = "SHA-256";
+    private static final int RECORD_SIZE = 32;
+    private static final Map<Path, ValidationResultCache> CACHES = new ConcurrentHashMap<>();
+
+    private final Path indexFile;
+    private final int maxEntries;
+    private final Set<ByteBuffer> validContentHashes = new LinkedHashSet<>();
+    private long readPosition = 0;
+
+    private ValidationResultCache(Path indexFile, int maxEntries) {
+
+        this.indexFile = indexFile;
+        this.maxEntries = maxEntries;
+    }
+
+    public static ValidationResultCache forGradleUserHome(Path gradleUserHome, int maxEntries) {
+
+        Path indexFile = gradleUserHome.resolve(INDEX_FILE_PATH).toAbsolutePath();
+        return CACHES.computeIfAbsent(indexFile, file -> new ValidationResultCache(file, maxEntries));
+    }
+
+    /**
+     * Hashes the settings the file is validated with together with its content, so a content is only known
+     * to be valid for the settings it was validated with.
+     */
+    public static byte[] hashContent(ByteBuffer content, String settings) {
+
+        MessageDigest digest = createDigest();
+        digest.update(settings.getBytes(StandardCharsets.UTF_8));
+        digest.update(content);
+
+        return digest.digest();
+    }
+
+    public synchronized boolean isKnownValid(byte[] contentHash) {
+
+        return validContentHashes.contains(ByteBuffer.wrap(contentHash));
+    }
+
+    /**
+     * Reads all records other processes appended since the last read.
+     */
+    public synchronized void refresh() throws IOException {
+
+        if (!Files.exists(indexFile)) {
+            return;
+        }
+
+        try (FileChannel channel = FileChannel.open(indexFile, StandardOpenOption.READ);
+             FileLock ignored = channel.lock(0, Long.MAX_VALUE, true)) {
+            readRecords(channel);
+        }
+    }
+
+    public synchronized void addValid(Collection<byte[]> contentHashes) throws IOException {
+
+        if (contentHashes.isEmpty()) {
+            return;
+        }
+
+        Files.createDirectories(indexFile.getParent());
+
+        try (FileChannel channel = FileChannel.open(indexFile, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+             FileLock ignored = channel.lock()) {
+            readRecords(channel);
+
+            ByteBuffer records = ByteBuffer.allocate(contentHashes.size() * RECORD_SIZE);
+            for (byte[] contentHash : contentHashes) {
+                if (validContentHashes.add(ByteBuffer.wrap(contentHash))) {
+                    records.put(contentHash);
+                }
+            }
+            records.flip();
+
+            if (validContentHashes.size() > maxEntries) {
+                evictOldestEntries(channel);
+            } else {
+                writeFully(channel, records, readPosition);
+                readPosition += records.limit();
+            }
+        }
+    }
+
+    private void readRecords(FileChannel channel) throws IOException {
+
+        long size = channel.size() - channel.size() % RECORD_SIZE;
+
+        if (size < readPosition) {
+            // another process evicted entries, start over
+            validContentHashes.clear();
+            readPosition = 0;
+        }
+
+        ByteBuffer records = ByteBuffer.allocate((int) (size - readPosition));
+        while (records.hasRemaining() && channel.read(records, readPosition + records.position()) > 0) {
+            // read until the buffer is full
+        }
+        records.flip();
+
+        while (records.remaining() >= RECORD_SIZE) {
+            byte[] contentHash = new byte[RECORD_SIZE];
+            records.get(contentHash);
+            validContentHashes.add(ByteBuffer.wrap(contentHash));
+        }
+
+        readPosition = size;
+    }
+
+    private void evictOldestEntries(FileChannel channel) throws IOException {
+
+        List<ByteBuffer> entries = new ArrayList<>(validContentHashes);
+        List<ByteBuffer> keptEntries = entries.subList(entries.size() - maxEntries / 2, entries.size());
+
+        ByteBuffer records = ByteBuffer.allocate(keptEntries.size() * RECORD_SIZE);
+        keptEntries.forEach(entry -> records.put(entry.duplicate()));
+        records.flip();
+
+        channel.truncate(0);
+        writeFully(channel, records, 0);
+
+        validContentHashes.clear();
+        validContentHashes.addAll(keptEntries);
+        readPosition = records.limit();
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer records, long position) throws IOException {
+
+        while (records.hasRemaining()) {
+            channel.write(records, position + records.position());
+        }
+    }
+
+    static MessageDigest createDigest() {
+
+        try {
+            return MessageDigest.getInstance(HASH_ALGORITHM);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(String.format("%s is not supported by this JVM.", HASH_ALGORITHM), e);
+        }
+    }
+
+}
@@ -0,0 +1,174 @@
+package at.zierler.yamlvalidator;
+
+import org.yaml.snakeyaml.events.AliasEvent;
+import org.yaml.snakeyaml.events.CollectionStartEvent;
+import org.yaml.snakeyaml.events.Event;
+import org.yaml.snakeyaml.events.MappingStartEvent;
+import org.yaml.snakeyaml.events.NodeEvent;
+import org.yaml.snakeyaml.events.ScalarEvent;
+import org.yaml.snakeyaml.nodes.NodeId;
+import org.yaml.snakeyaml.nodes.Tag;
+import org.yaml.snakeyaml.resolver.Resolver;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.function.IntConsumer;
+
+import static at.zierler.yamlvalidator.YamlLimitExceededException.NESTING_TOO_DEEP_MESSAGE;
+import static at.zierler.yamlvalidator.YamlLimitExceededException.TOO_MANY_ALIASES_MESSAGE;
+
+/**
+ * Validates a YAML event stream without composing nodes or constructing objects. Only the anchors of the current
+ * document and the keys of the currently open mappings are kept in memory. Nesting depth and aliases for
+ * collections are limited like the SnakeYAML composer limits them, even though aliases are never expanded here.
+ * <p>
+ * Duplicate keys are detected for scalar keys by their resolved tag and value, e.g. {@code 1} and {@code "1"}
+ * are different keys, like they are when loading. Complex keys are not checked.
+ */
+class YamlEventStreamValidator {
+
+    private final Resolver resolver;
+    private final boolean allowDuplicates;
+    private final ValidationLimits limits;
+
+    private final Deque<Collection> openCollections = new ArrayDeque<>();
+    private final Set<String> scalarAnchors = new HashSet<>();
+    private final Set<String> collectionAnchors = new HashSet<>();
+    private int aliasesForCollections = 0;
+
+    YamlEventStreamValidator(boolean allowDuplicates, ValidationLimits limits, Resolver resolver) {
+
+        this.resolver = resolver;
+        this.allowDuplicates = allowDuplicates;
+        this.limits = limits;
+    }
+
+    void validateAllDocuments(Iterable<Event> events, IntConsumer documentValidated) {
+
+        int documentIndex = 0;
+
+        for (Event event : events) {
+            if (validateEvent(event)) {
+                documentValidated.accept(++documentIndex);
+            }
+        }
+    }
+
+    /**
+     * @return whether the event completed a document
+     */
+    boolean validateEvent(Event event) {
+
+        if (event.is(Event.ID.DocumentStart)) {
+            scalarAnchors.clear();
+            collectionAnchors.clear();
+            openCollections.clear();
+        } else if (event.is(Event.ID.DocumentEnd)) {
+            return true;
+        } else if (event.is(Event.ID.Alias)) {
+            checkAlias((AliasEvent) event);
+            nodeCompleted(event);
+        } else if (event.is(Event.ID.Scalar)) {
+            rememberAnchor((NodeEvent) event, scalarAnchors);
+            nodeCompleted(event);
+        } else if (event.is(Event.ID.SequenceStart) || event.is(Event.ID.MappingStart)) {
+            rememberAnchor((NodeEvent) event, collectionAnchors);
+            nodeStarted((CollectionStartEvent) event);
+        } else if (event.is(Event.ID.SequenceEnd) || event.is(Event.ID.MappingEnd)) {
+            openCollections.pop();
+            nodeCompleted(event);
+        }
+        return false;
+    }
+
+    private void checkAlias(AliasEvent event) {
+
+        String anchor = event.getAnchor();
+
+        if (collectionAnchors.contains(anchor)) {
+            if (++aliasesForCollections > limits.getMaxAliasesForCollections()) {
+                throw new YamlLimitExceededException(String.format(TOO_MANY_ALIASES_MESSAGE, limits.getMaxAliasesForCollections()));
+            }
+        } else if (!scalarAnchors.contains(anchor)) {
+            throw new YamlValidationException(null, null, "found undefined alias " + anchor, event.getStartMark());
+        }
+    }
+
+    private void rememberAnchor(NodeEvent event, Set<String> anchors) {
+
+        if (event.getAnchor() != null) {
+            scalarAnchors.remove(event.getAnchor());
+            collectionAnchors.remove(event.getAnchor());
+            anchors.add(event.getAnchor());
+        }
+    }
+
+    private void nodeStarted(CollectionStartEvent event) {
+
+        if (openCollections.size() >= limits.getMaxNestingDepth()) {
+            throw new YamlLimitExceededException(String.format(NESTING_TOO_DEEP_MESSAGE, limits.getMaxNestingDepth()));
+        }
+
+        openCollections.push(event instanceof MappingStartEvent ? new Collection(event) : new Collection(null));
+    }
+
+    private void nodeCompleted(Event event) {
+
+        Collection parent = openCollections.peek();
+
+        if (parent == null || !parent.isMapping()) {
+            return;
+        }
+
+        if (parent.expectsKey && event instanceof ScalarEvent) {
+            checkForDuplicateKey(parent, (ScalarEvent) event);
+        }
+
+        parent.expectsKey = !parent.expectsKey;
+    }
+
+    private void checkForDuplicateKey(Collection mapping, ScalarEvent keyEvent) {
+
+        Tag tag = resolveTag(keyEvent);
+
+        if (allowDuplicates || Tag.MERGE.equals(tag)) {
+            return;
+        }
+
+        if (!mapping.keys.add(tag + "\u0000" + keyEvent.getValue())) {
+            throw new YamlValidationException("while parsing a mapping", mapping.startEvent.getStartMark(),
+                    "found duplicate key " + keyEvent.getValue(), keyEvent.getStartMark());
+        }
+    }
+
+    private Tag resolveTag(ScalarEvent event) {
+
+        String tag = event.getTag();
+
+        if (tag == null || tag.equals("!")) {
+            return resolver.resolve(NodeId.scalar, event.getValue(), event.getImplicit().canOmitTagInPlainScalar());
+        }
+        return new Tag(tag);
+    }
+
+    private static final class Collection {
+
+        private final CollectionStartEvent startEvent;
+        private final Set<String> keys = new HashSet<>();
+        private boolean expectsKey = true;
+
+        private Collection(CollectionStartEvent mappingStartEvent) {
+
+            this.startEvent = mappingStartEvent;
+        }
+
+        private boolean isMapping() {
+
+            return startEvent != null;
+        }
+
+    }
+
+}
@@ -0,0 +1,347 @@
+package at.zierler.yamlvalidator;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import static at.zierler.yamlvalidator.YamlLimitExceededException.FILE_TOO_LARGE_MESSAGE;
+
+/**
+ * Content of a YAML file with its encoding. Files are read into the heap with bulk reads of up to 1 MiB, so
+ * reading a file takes few system calls. Files aren't memory-mapped, since a mapping can't be released
+ * before it is garbage collected, and keeps the file locked on Windows meanwhile. The encoding is detected upfront
+ * from the byte order mark or, like the YAML specification describes, from the position of the first null bytes.
+ * <p>
+ * The content is decoded while the parser reads it, directly into the buffer of the parser.
+ */
+public final class YamlFileInput {
+
+    private static final int STREAM_BUFFER_SIZE = 64 * 1024;
+    private static final int READ_CHUNK_BYTES = 1024 * 1024;
+    private static final long MAX_ARRAY_BYTES = Integer.MAX_VALUE - 8;
+
+    private static final Charset UTF_32BE = Charset.forName("UTF-32BE");
+    private static final Charset UTF_32LE = Charset.forName("UTF-32LE");
+
+    private final ByteBuffer bytes;
+    private final Charset charset;
+    private final long fileBytes;
+
+    private YamlFileInput(ByteBuffer bytes, Charset charset, long fileBytes) {
+
+        this.bytes = bytes;
+        this.charset = charset;
+        this.fileBytes = fileBytes;
+    }
+
+    /**
+     * @throws YamlLimitExceededException if the file is larger than the given number of bytes, or than the 2 GiB
+     *                                    a single array can hold, before it is read
+     */
+    public static YamlFileInput read(Path file, long maxFileBytes) throws IOException {
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long fileBytes = channel.size();
+            long maxBytes = Math.min(maxFileBytes, MAX_ARRAY_BYTES);
+
+            if (fileBytes > maxBytes) {
+                throw new YamlLimitExceededException(String.format(FILE_TOO_LARGE_MESSAGE, fileBytes, maxBytes));
+            }
+
+            ByteBuffer bytes = readFully(channel, (int) fileBytes);
+
+            return new YamlFileInput(bytes, detectCharset(bytes), fileBytes);
+        }
+    }
+
+    /**
+     * Reads content of unknown or untrusted size, e.g. an archive entry, which can't be read with a single read.
+     *
+     * @param knownBytes size of the content, or -1 if it is unknown
+     * @throws YamlLimitExceededException if the content is larger than the given number of bytes
+     */
+    public static YamlFileInput read(InputStream content, long knownBytes, long maxFileBytes) throws IOException {
+
+        long maxBytes = Math.min(maxFileBytes, MAX_ARRAY_BYTES);
+
+        if (knownBytes > maxBytes) {
+            throw new YamlLimitExceededException(String.format(FILE_TOO_LARGE_MESSAGE, knownBytes, maxBytes));
+        }
+
+        byte[] bytes = new byte[knownBytes >= 0 ? (int) knownBytes : STREAM_BUFFER_SIZE];
+        int length = 0;
+
+        while (true) {
+            if (length == bytes.length) {
+                // a full buffer is either the whole content or has to grow for the rest of it
+                int next = content.read();
+                if (next == -1) {
+                    break;
+                }
+                bytes = grow(bytes, maxBytes, content);
+                bytes[length++] = (byte) next;
+            }
+            int read = content.read(bytes, length, bytes.length - length);
+            if (read == -1) {
+                break;
+            }
+            length += read;
+        }
+
+        ByteBuffer buffer = ByteBuffer.wrap(bytes, 0, length);
+        return new YamlFileInput(buffer, detectCharset(buffer), length);
+    }
+
+    /**
+     * Called after one byte beyond the given buffer was read.
+     */
+    private static byte[] grow(byte[] bytes, long maxBytes, InputStream content) throws IOException {
+
+        if (bytes.length >= maxBytes) {
+            long totalBytes = bytes.length + 1L;
+            for (long skipped = content.skip(Long.MAX_VALUE); skipped > 0; skipped = content.skip(Long.MAX_VALUE)) {
+                totalBytes += skipped;
+            }
+            throw new YamlLimitExceededException(String.format(FILE_TOO_LARGE_MESSAGE, totalBytes, maxBytes));
+        }
+
+        return Arrays.copyOf(bytes, (int) Math.min(maxBytes, Math.max(STREAM_BUFFER_SIZE, bytes.length * 2L)));
+    }
+
+    private static ByteBuffer readFully(FileChannel channel, int fileBytes) throws IOException {
+
+        ByteBuffer bytes = ByteBuffer.allocate(fileBytes);
+
+        // the JDK copies through a temporary direct buffer of the read size, which it keeps for the thread
+        while (bytes.position() < fileBytes) {
+            bytes.limit(Math.min(fileBytes, bytes.position() + READ_CHUNK_BYTES));
+            if (channel.read(bytes) == -1) {
+                break;
+            }
+        }
+
+        bytes.flip();
+        return bytes;
+    }
+
+    /**
+     * Detects the encoding and skips the byte order mark, if there is one.
+     */
+    private static Charset detectCharset(ByteBuffer bytes) {
+
+        int b0 = byteAt(bytes, 0);
+        int b1 = byteAt(bytes, 1);
+        int b2 = byteAt(bytes, 2);
+        int b3 = byteAt(bytes, 3);
+
+        if (b0 == 0x00 && b1 == 0x00 && b2 == 0xFE && b3 == 0xFF) {
+            return skipByteOrderMark(bytes, 4, UTF_32BE);
+        }
+        if (b0 == 0xFF && b1 == 0xFE && b2 == 0x00 && b3 == 0x00) {
+            return skipByteOrderMark(bytes, 4, UTF_32LE);
+        }
+        if (b0 == 0xFE && b1 == 0xFF) {
+            return skipByteOrderMark(bytes, 2, StandardCharsets.UTF_16BE);
+        }
+        if (b0 == 0xFF && b1 == 0xFE) {
+            return skipByteOrderMark(bytes, 2, StandardCharsets.UTF_16LE);
+        }
+        if (b0 == 0xEF && b1 == 0xBB && b2 == 0xBF) {
+            return skipByteOrderMark(bytes, 3, StandardCharsets.UTF_8);
+        }
+        if (b0 == 0x00 && b1 == 0x00 && b2 == 0x00 && b3 > 0x00) {
+            return UTF_32BE;
+        }
+        if (b0 > 0x00 && b1 == 0x00 && b2 == 0x00 && b3 == 0x00) {
+            return UTF_32LE;
+        }
+        if (b0 == 0x00 && b1 > 0x00) {
+            return StandardCharsets.UTF_16BE;
+        }
+        if (b0 > 0x00 && b1 == 0x00) {
+            return StandardCharsets.UTF_16LE;
+        }
+
+        return StandardCharsets.UTF_8;
+    }
+
+    /**
+     * @return the unsigned byte at the given index, or -1 if the content is shorter
+     */
+    private static int byteAt(ByteBuffer bytes, int index) {
+
+        return index < bytes.limit() ? bytes.get(index) & 0xFF : -1;
+    }
+
+    private static Charset skipByteOrderMark(ByteBuffer bytes, int length, Charset charset) {
+
+        bytes.position(length);
+        return charset;
+    }
+
+    public long getBytes() {
+
+        return fileBytes;
+    }
+
+    /**
+     * @return the raw content, including a byte order mark
+     */
+    public ByteBuffer getContent() {
+
+        ByteBuffer content = bytes.duplicate();
+        content.position(0);
+        return content;
+    }
+
+    /**
+     * @return reader decoding the content while it is read, from the start on every call
+     */
+    Reader reader() {
+
+        return new DecodingReader(bytes.duplicate(), charset.newDecoder());
+    }
+
+    /**
+     * @return the whole decoded content, for parsing parts of it separately
+     */
+    CharBuffer decode() throws IOException {
+
+        return charset.newDecoder().decode(bytes.duplicate());
+    }
+
+    /**
+     * Reader over a part of decoded content, which shares the characters instead of copying them.
+     */
+    static Reader reader(CharBuffer content) {
+
+        return new CharBufferReader(content.duplicate());
+    }
+
+    /**
+     * Decodes into the buffer passed to {@link #read(char[], int, int)}. Malformed input is reported like
+     * SnakeYAML's own reader reports it, instead of being replaced.
+     */
+    private static final class DecodingReader extends Reader {
+
+        private final ByteBuffer bytes;
+        private final CharsetDecoder decoder;
+        private final char[] nextCharacters = new char[2];
+        private boolean hasPendingCharacter;
+        private boolean flushed;
+
+        private DecodingReader(ByteBuffer bytes, CharsetDecoder decoder) {
+
+            this.bytes = bytes;
+            this.decoder = decoder;
+        }
+
+        @Override
+        public int read() throws IOException {
+
+            if (hasPendingCharacter) {
+                hasPendingCharacter = false;
+                return nextCharacters[1];
+            }
+
+            // two characters, so a surrogate pair always fits
+            int read = decode(CharBuffer.wrap(nextCharacters));
+
+            if (read == 0) {
+                return -1;
+            }
+
+            hasPendingCharacter = read == 2;
+            return nextCharacters[0];
+        }
+
+        @Override
+        public int read(char[] buffer, int offset, int length) throws IOException {
+
+            if (length == 0) {
+                return 0;
+            }
+            if (length == 1 || hasPendingCharacter) {
+                int c = read();
+                if (c == -1) {
+                    return -1;
+                }
+                buffer[offset] = (char) c;
+                return length == 1 ? 1 : 1 + decode(CharBuffer.wrap(buffer, offset + 1, length - 1));
+            }
+
+            int read = decode(CharBuffer.wrap(buffer, offset, length));
+
+            return read == 0 ? -1 : read;
+        }
+
+        /**
+         * @return the number of decoded characters, which is only 0 at the end of the content
+         * or if the next character doesn't fit into a target with a single remaining character
+         */
+        private int decode(CharBuffer target) throws IOException {
+
+            int start = target.position();
+
+            if (flushed) {
+                return 0;
+            }
+
+            CoderResult result = decoder.decode(bytes, target, true);
+            if (result.isError()) {
+                result.throwException();
+            }
+            if (result.isUnderflow()) {
+                flushed = decoder.flush(target).isUnderflow();
+            }
+
+            return target.position() - start;
+        }
+
+        @Override
+        public void close() {
+
+        }
+
+    }
+
+    private static final class CharBufferReader extends Reader {
+
+        private final CharBuffer content;
+
+        private CharBufferReader(CharBuffer content) {
+
+            this.content = content;
+        }
+
+        @Override
+        public int read(char[] buffer, int offset, int length) {
+
+            if (!content.hasRemaining()) {
+                return length == 0 ? 0 : -1;
+            }
+
+            int read = Math.min(length, content.remaining());
+            content.get(buffer, offset, read);
+
+            return read;
+        }
+
+        @Override
+        public void close() {
+
+        }
+
+    }
+
+}
@@ -0,0 +1,241 @@
+package at.zierler.yamlvalidator;
+
+import java.io.IOException;
+import java.nio.file.FileSystem;
+import java.nio.file.FileVisitOption;
+import java.nio.file.FileVisitResult;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Finds YAML files by their extension. Include and exclude patterns are globs matched against the path
+ * relative to the searched directory, they are compiled once per scanner. Directories matching an exclude
+ * pattern are pruned before they are descended into.
+ * <p>
+ * Archives are found by their extension as well, unless they match an exclude pattern. Their entries are
+ * filtered by {@link #isYamlEntry(String)}, with the patterns matched against the path inside the archive.
+ * <p>
+ * Like in Gradle, a pattern starting with {@code **}{@code /} also matches at the top of the searched directory
+ * and a pattern ending with {@code /**} also matches the directory itself.
+ */
+public class YamlFileScanner {
+
+    private static final String ANY_DIRECTORIES_PREFIX = "**/";
+    private static final String ANY_CONTENT_SUFFIX = "/**";
+
+    private final FileSystem fileSystem;
+    private final List<String> extensions;
+    private final List<String> archiveExtensions;
+    private final List<PathMatcher> includes;
+    private final List<PathMatcher> excludes;
+    private final boolean recursive;
+
+    public YamlFileScanner(FileSystem fileSystem, Collection<String> extensions, Collection<String> includes, Collection<String> excludes, boolean recursive) {
+
+        this(fileSystem, extensions, includes, excludes, recursive, Collections.emptyList());
+    }
+
+    public YamlFileScanner(FileSystem fileSystem, Collection<String> extensions, Collection<String> includes, Collection<String> excludes, boolean recursive,
+                    Collection<String> archiveExtensions) {
+
+        this.fileSystem = fileSystem;
+        this.extensions = withDots(extensions);
+        this.archiveExtensions = withDots(archiveExtensions);
+        this.includes = compile(fileSystem, includes);
+        this.excludes = compile(fileSystem, excludes);
+        this.recursive = recursive;
+    }
+
+    private static List<String> withDots(Collection<String> extensions) {
+
+        return extensions.stream()
+                .map(extension -> "." + extension)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * @return the given file if it has a YAML or archive extension, or all YAML files and archives in the given directory
+     */
+    public List<Path> scan(Path fileOrDirectory) throws IOException {
+
+        List<Path> files = new ArrayList<>();
+
+        if (Files.isDirectory(fileOrDirectory)) {
+            scanDirectory(fileOrDirectory, files);
+        } else if (Files.isRegularFile(fileOrDirectory) && (hasYamlExtension(fileOrDirectory) || isArchive(fileOrDirectory))) {
+            files.add(fileOrDirectory);
+        }
+
+        return files;
+    }
+
+    /**
+     * @return whether the YAML file or archive would be found by scanning the given directory, without scanning it
+     */
+    public boolean isYamlFileIn(Path directory, Path file) {
+
+        boolean yamlFile = hasYamlExtension(file);
+
+        if (!file.startsWith(directory) || !yamlFile && !isArchive(file) || !recursive && !directory.equals(file.getParent())) {
+            return false;
+        }
+
+        Path relativePath = directory.relativize(file);
+
+        for (Path parent = relativePath.getParent(); parent != null; parent = parent.getParent()) {
+            if (matchesAny(excludes, parent)) {
+                return false;
+            }
+        }
+
+        return yamlFile ? isIncluded(relativePath) : !matchesAny(excludes, relativePath);
+    }
+
+    /**
+     * @return whether scanning the given directory skips the subdirectory and everything in it
+     */
+    public boolean isExcludedDirectory(Path directory, Path subdirectory) {
+
+        return !subdirectory.equals(directory) && matchesAny(excludes, directory.relativize(subdirectory));
+    }
+
+    public boolean isRecursive() {
+
+        return recursive;
+    }
+
+    private void scanDirectory(Path directory, List<Path> files) throws IOException {
+
+        int maxDepth = recursive ? Integer.MAX_VALUE : 1;
+
+        Files.walkFileTree(directory, EnumSet.noneOf(FileVisitOption.class), maxDepth, new SimpleFileVisitor<Path>() {
+
+            @Override
+            public FileVisitResult preVisitDirectory(Path subdirectory, BasicFileAttributes attributes) {
+
+                if (isExcludedDirectory(directory, subdirectory)) {
+                    return FileVisitResult.SKIP_SUBTREE;
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) {
+
+                if (attributes.isSymbolicLink() ? !Files.isRegularFile(file) : !attributes.isRegularFile()) {
+                    return FileVisitResult.CONTINUE;
+                }
+                if (hasYamlExtension(file) && isIncluded(directory.relativize(file))
+                        || isArchive(file) && !matchesAny(excludes, directory.relativize(file))) {
+                    files.add(file);
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+        });
+    }
+
+    private boolean isIncluded(Path relativePath) {
+
+        return (includes.isEmpty() || matchesAny(includes, relativePath)) && !matchesAny(excludes, relativePath);
+    }
+
+    private boolean hasYamlExtension(Path file) {
+
+        return hasAnyExtension(fileNameOf(file), extensions);
+    }
+
+    public boolean isArchive(Path file) {
+
+        return !archiveExtensions.isEmpty() && hasAnyExtension(fileNameOf(file), archiveExtensions);
+    }
+
+    /**
+     * @param entryName path of an entry inside an archive, with {@code /} as separator
+     */
+    boolean isArchiveEntry(String entryName) {
+
+        return !archiveExtensions.isEmpty() && hasAnyExtension(entryName, archiveExtensions);
+    }
+
+    /**
+     * @param entryName path of an entry inside an archive, with {@code /} as separator
+     */
+    boolean isYamlEntry(String entryName) {
+
+        if (!hasAnyExtension(entryName, extensions)) {
+            return false;
+        }
+
+        try {
+            return isIncluded(fileSystem.getPath(entryName));
+        } catch (InvalidPathException e) {
+            return includes.isEmpty() && excludes.isEmpty();
+        }
+    }
+
+    private static String fileNameOf(Path file) {
+
+        Path fileNameAsPath = file.getFileName();
+
+        if (fileNameAsPath == null) {
+            throw new IllegalStateException(String.format("Couldn't extract file name from %s.", file));
+        }
+
+        return fileNameAsPath.toString();
+    }
+
+    private static boolean hasAnyExtension(String fileName, List<String> extensions) {
+
+        for (String extension : extensions) {
+            if (fileName.endsWith(extension)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean matchesAny(List<PathMatcher> matchers, Path relativePath) {
+
+        for (PathMatcher matcher : matchers) {
+            if (matcher.matches(relativePath)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public static List<PathMatcher> compile(FileSystem fileSystem, Collection<String> patterns) {
+
+        List<PathMatcher> matchers = new ArrayList<>();
+        patterns.forEach(pattern -> addMatchers(fileSystem, pattern, matchers));
+        return matchers;
+    }
+
+    private static void addMatchers(FileSystem fileSystem, String pattern, List<PathMatcher> matchers) {
+
+        if (pattern.isEmpty()) {
+            return;
+        }
+
+        matchers.add(fileSystem.getPathMatcher("glob:" + pattern));
+
+        if (pattern.startsWith(ANY_DIRECTORIES_PREFIX)) {
+            addMatchers(fileSystem, pattern.substring(ANY_DIRECTORIES_PREFIX.length()), matchers);
+        }
+        if (pattern.endsWith(ANY_CONTENT_SUFFIX)) {
+            addMatchers(fileSystem, pattern.substring(0, pattern.length() - ANY_CONTENT_SUFFIX.length()), matchers);
+        }
+    }
+
+}
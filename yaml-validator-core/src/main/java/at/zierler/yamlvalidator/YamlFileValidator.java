@@ -0,0 +1,308 @@
+package at.zierler.yamlvalidator;
+
+import org.yaml.snakeyaml.DumperOptions;
+import org.yaml.snakeyaml.LoaderOptions;
+import org.yaml.snakeyaml.Yaml;
+import org.yaml.snakeyaml.composer.Composer;
+import org.yaml.snakeyaml.constructor.Constructor;
+import org.yaml.snakeyaml.error.MarkedYAMLException;
+import org.yaml.snakeyaml.events.Event;
+import org.yaml.snakeyaml.nodes.Node;
+import org.yaml.snakeyaml.parser.Parser;
+import org.yaml.snakeyaml.parser.ParserImpl;
+import org.yaml.snakeyaml.reader.StreamReader;
+import org.yaml.snakeyaml.representer.Representer;
+import org.yaml.snakeyaml.resolver.Resolver;
+
+import java.io.IOException;
+import java.nio.CharBuffer;
+import java.nio.file.Path;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+import static at.zierler.yamlvalidator.YamlLimitExceededException.TOO_MANY_CODE_POINTS_MESSAGE;
+
+/**
+ * Validates all documents of YAML files. Instances reuse a {@link Yaml} loader per {@link ParserBackend} and are
+ * therefore not thread-safe.
+ */
+public class YamlFileValidator {
+
+    /**
+     * Increase whenever a change to the validation can change the result for the same content and settings,
+     * so results remembered by older versions are no longer used.
+     */
+    private static final int VALIDATION_VERSION = 1;
+
+    private final LoaderOptions loaderOptions;
+    private final Map<ParserBackend, Loader> loaders = new EnumMap<>(ParserBackend.class);
+    private final ValidationMode validationMode;
+    private final boolean allowDuplicates;
+    private final ValidationLimits limits;
+    private final boolean prescan;
+
+    public YamlFileValidator(boolean allowDuplicates, ValidationMode validationMode, ValidationLimits limits) {
+
+        this(allowDuplicates, validationMode, limits, false);
+    }
+
+    /**
+     * @param prescan whether every content is checked by the {@link YamlPrescanner} first, which rejects obviously
+     *                broken files faster than the parser
+     */
+    public YamlFileValidator(boolean allowDuplicates, ValidationMode validationMode, ValidationLimits limits, boolean prescan) {
+
+        LoaderOptions loaderOptions = new LoaderOptions();
+        loaderOptions.setAllowDuplicateKeys(allowDuplicates);
+        loaderOptions.setNestingDepthLimit(limits.getMaxNestingDepth());
+        loaderOptions.setMaxAliasesForCollections(limits.getMaxAliasesForCollections());
+        loaderOptions.setCodePointLimit(limits.getMaxCodePoints());
+        this.loaderOptions = loaderOptions;
+        this.validationMode = validationMode;
+        this.allowDuplicates = allowDuplicates;
+        this.limits = limits;
+        this.prescan = prescan;
+    }
+
+    public boolean isPrescan() {
+
+        return prescan;
+    }
+
+    /**
+     * @return all settings which influence whether a content is valid
+     */
+    public String describeSettings() {
+
+        return describeSettings(allowDuplicates, validationMode, limits);
+    }
+
+    public static String describeSettings(boolean allowDuplicates, ValidationMode validationMode, ValidationLimits limits) {
+
+        return String.format("version=%s, allowDuplicates=%s, validationMode=%s, limits=%s",
+                VALIDATION_VERSION, allowDuplicates, validationMode, limits);
+    }
+
+    /**
+     * @return the settings of {@link #describeSettings()} extended by the schema and the backend a content is
+     * validated with, the backend only if it isn't the default, so remembered results stay valid
+     */
+    public String describeSettings(JsonSchema schema, ParserBackend backend) {
+
+        String settings = describeSettings();
+        if (schema != null) {
+            settings += ", schema=" + schema.getFingerprint();
+        }
+        if (backend != ParserBackend.SNAKEYAML) {
+            settings += ", backend=" + backend;
+        }
+        return settings;
+    }
+
+    /**
+     * @param schema schema every document has to match, or {@code null}
+     */
+    public void validateYamlFile(Path file, JsonSchema schema, ParserBackend backend, IntConsumer documentValidated) throws IOException {
+
+        validateYamlFile(file, schema, backend, Long.MAX_VALUE, documentValidated);
+    }
+
+    /**
+     * @param schema                    schema every document has to match, or {@code null}
+     * @param parallelDocumentsMinBytes size from which the documents of the file are validated in parallel
+     */
+    public void validateYamlFile(Path file, JsonSchema schema, ParserBackend backend, long parallelDocumentsMinBytes,
+                                 IntConsumer documentValidated) throws IOException {
+
+        validateYamlContent(YamlFileInput.read(file, limits.getMaxFileBytes()), schema, backend, parallelDocumentsMinBytes, documentValidated);
+    }
+
+    /**
+     * Validates content which was already read, e.g. from an archive entry.
+     */
+    public void validateYamlContent(YamlFileInput input, JsonSchema schema, ParserBackend backend, long parallelDocumentsMinBytes,
+                                    IntConsumer documentValidated) throws IOException {
+
+        try (DeadlineReader reader = new DeadlineReader(input.reader(), limits.getMaxSecondsPerFile())) {
+            if (prescan) {
+                YamlPrescanner.scan(reader.withSameDeadline(input.reader()));
+            }
+            if (input.getBytes() >= parallelDocumentsMinBytes) {
+                validateDocumentsInParallel(decode(input), reader, schema, backend, documentValidated);
+            } else {
+                validateDocuments(reader, schema, loaderFor(backend), 0, 0, documentValidated);
+            }
+        }
+    }
+
+    private Loader loaderFor(ParserBackend backend) {
+
+        return loaders.computeIfAbsent(backend, Loader::new);
+    }
+
+    /**
+     * @param documentsBefore number of documents in the file before the read content
+     * @param firstLine       0-based line the read content starts at in the file
+     */
+    private void validateDocuments(DeadlineReader reader, JsonSchema schema, Loader loader, int documentsBefore, int firstLine,
+                                   IntConsumer documentValidated) {
+
+        IntConsumer documentValidatedInTime = documentIndex -> {
+            reader.checkDeadline();
+            documentValidated.accept(documentsBefore + documentIndex);
+        };
+
+        if (schema != null) {
+            validateAllDocumentNodes(reader, schema, loader, documentsBefore, firstLine, documentValidatedInTime);
+        } else if (validationMode == ValidationMode.SYNTAX) {
+            validateEventStream(reader, loader, documentValidatedInTime);
+        } else {
+            validateAllDocuments(reader, loader, documentValidatedInTime);
+        }
+    }
+
+    private CharBuffer decode(YamlFileInput input) throws IOException {
+
+        CharBuffer content = input.decode();
+
+        if (content.length() > limits.getMaxCodePoints() && Character.codePointCount(content, 0, content.length()) > limits.getMaxCodePoints()) {
+            throw new YamlLimitExceededException(String.format(TOO_MANY_CODE_POINTS_MESSAGE, limits.getMaxCodePoints()));
+        }
+
+        return content;
+    }
+
+    /**
+     * Splits the content at its document markers and validates the chunks on all processors. Each group of
+     * consecutive chunks is validated by its own validator and stops at its first failure, so the failure of the
+     * earliest chunk is reported, just like when validating the chunks one after the other.
+     */
+    private void validateDocumentsInParallel(CharBuffer content, DeadlineReader reader, JsonSchema schema, ParserBackend backend,
+                                             IntConsumer documentValidated) {
+
+        List<DocumentBoundaryScanner.Chunk> chunks = DocumentBoundaryScanner.split(content);
+        int[] documents = new int[chunks.size()];
+        RuntimeException[] failures = new RuntimeException[chunks.size()];
+        int groups = Math.min(chunks.size(), Runtime.getRuntime().availableProcessors());
+
+        IntStream.range(0, groups).parallel().forEach(group -> {
+            YamlFileValidator validator = group == 0 ? this : new YamlFileValidator(allowDuplicates, validationMode, limits, false);
+            int lastChunk = (group + 1) * chunks.size() / groups;
+            for (int chunk = group * chunks.size() / groups; chunk < lastChunk; chunk++) {
+                int chunkIndex = chunk;
+                try {
+                    validator.validateChunk(content, chunks.get(chunk), reader, schema, validator.loaderFor(backend), documentIndex -> documents[chunkIndex]++);
+                } catch (RuntimeException e) {
+                    failures[chunk] = e;
+                    break;
+                }
+            }
+        });
+
+        int documentIndex = 0;
+
+        for (int chunk = 0; chunk < chunks.size(); chunk++) {
+            for (int i = 0; i < documents[chunk]; i++) {
+                documentValidated.accept(++documentIndex);
+            }
+            if (failures[chunk] != null) {
+                throw failures[chunk];
+            }
+        }
+    }
+
+    private void validateChunk(CharBuffer content, DocumentBoundaryScanner.Chunk chunk, DeadlineReader fileReader, JsonSchema schema,
+                               Loader loader, IntConsumer documentValidated) {
+
+        DeadlineReader reader = fileReader.withSameDeadline(YamlFileInput.reader(chunk.of(content)));
+
+        try {
+            validateDocuments(reader, schema, loader, chunk.getDocumentsBefore(), chunk.getFirstLine(), documentValidated);
+        } catch (MarkedYAMLException e) {
+            throw chunk.getFirstLine() == 0 ? e : YamlValidationException.movedDown(e, chunk.getFirstLine());
+        }
+    }
+
+    private void validateEventStream(DeadlineReader reader, Loader loader, IntConsumer documentValidated) {
+
+        Iterable<Event> events = loader.yaml.parse(reader);
+        new YamlEventStreamValidator(allowDuplicates, limits, loader.resolver).validateAllDocuments(events, documentValidated);
+    }
+
+    /**
+     * Composes the node tree of each document to check it against the schema. In LOAD mode the document is
+     * constructed from the same nodes, so it is parsed only once.
+     */
+    private void validateAllDocumentNodes(DeadlineReader reader, JsonSchema schema, Loader loader, int documentsBefore, int firstLine,
+                                          IntConsumer documentValidated) {
+
+        Parser parser = new ParserImpl(new StreamReader(reader), loaderOptions);
+
+        if (validationMode == ValidationMode.SYNTAX) {
+            parser = new ValidatingParser(parser, new YamlEventStreamValidator(allowDuplicates, limits, loader.resolver));
+        }
+
+        Composer composer = new Composer(parser, loader.resolver, loaderOptions);
+        int documentIndex = 0;
+
+        while (composer.checkNode()) {
+            Node document = composer.getNode();
+            if (validationMode == ValidationMode.LOAD && document != null) {
+                loader.constructor.construct(document);
+            }
+            documentIndex++;
+            schema.validate(document, documentsBefore + documentIndex, firstLine);
+            documentValidated.accept(documentIndex);
+        }
+    }
+
+    @SuppressWarnings("unused")
+    private void validateAllDocuments(DeadlineReader reader, Loader loader, IntConsumer documentValidated) {
+
+        int documentIndex = 0;
+
+        for (Object document : loader.yaml.loadAll(reader)) {
+            documentValidated.accept(++documentIndex);
+        }
+    }
+
+    /**
+     * The loader of one backend, created when the first content is validated with it.
+     */
+    private final class Loader {
+
+        private final Resolver resolver;
+        private final DocumentConstructor constructor;
+        private final Yaml yaml;
+
+        private Loader(ParserBackend backend) {
+
+            this.resolver = backend.createResolver();
+            this.constructor = new DocumentConstructor(loaderOptions, backend);
+            this.yaml = new Yaml(constructor, new Representer(new DumperOptions()), new DumperOptions(), loaderOptions, resolver);
+        }
+
+    }
+
+    /**
+     * Constructs a single composed document, like {@link Yaml#loadAll} does for every document it composes.
+     */
+    private static final class DocumentConstructor extends Constructor {
+
+        private DocumentConstructor(LoaderOptions loaderOptions, ParserBackend backend) {
+
+            super(loaderOptions);
+            backend.registerConstructs(yamlConstructors);
+        }
+
+        private Object construct(Node document) {
+
+            return constructDocument(document);
+        }
+
+    }
+
+}
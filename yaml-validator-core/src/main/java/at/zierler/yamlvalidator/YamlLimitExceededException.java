@@ -0,0 +1,23 @@
+package at.zierler.yamlvalidator;
+
+import org.yaml.snakeyaml.error.YAMLException;
+
+/**
+ * Thrown as soon as a YAML file exceeds one of the configured {@link ValidationLimits}.
+ */
+public class YamlLimitExceededException extends YAMLException {
+
+    public static final String FILE_TOO_LARGE_MESSAGE = "File has %s bytes, which exceeds maxFileBytes of %s.";
+    public static final String NESTING_TOO_DEEP_MESSAGE = "Nesting depth exceeds maxNestingDepth of %s.";
+    public static final String TOO_MANY_ALIASES_MESSAGE = "Number of aliases for collections exceeds maxAliasesForCollections of %s.";
+    public static final String TOO_MANY_CODE_POINTS_MESSAGE = "Number of code points exceeds maxCodePoints of %s.";
+    public static final String TIMEOUT_MESSAGE = "Validation took longer than maxSecondsPerFile of %s second(s).";
+
+    private static final long serialVersionUID = 1L;
+
+    YamlLimitExceededException(String message) {
+
+        super(message);
+    }
+
+}
@@ -0,0 +1,590 @@
+package at.zierler.yamlvalidator;
+
+import org.yaml.snakeyaml.error.Mark;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+
+/**
+ * Rejects files with obvious lexical errors before the parser runs: tabs in the indentation, mapping keys which are
+ * indented like no open mapping, and quoted scalars or flow collections which are never closed. The content is read
+ * line by line into a reused buffer and nothing but a few indentation columns is remembered, so a broken file is
+ * rejected in a fraction of the time the parser needs, and a valid one costs little more than reading it.
+ * <p>
+ * The pre-scanner only rejects what the parser rejects as well, it doesn't understand every construct of YAML.
+ * Whenever it meets one it doesn't, like a complex key or node properties in front of a key, it stops checking
+ * until the next document marker and leaves the rest to the parser.
+ */
+public final class YamlPrescanner {
+
+    public static final String TAB_INDENTATION_MESSAGE = "found a tab in the indentation, YAML only allows spaces there";
+    public static final String BAD_INDENTATION_MESSAGE = "found a mapping key indented like no open mapping";
+    public static final String UNTERMINATED_QUOTE_MESSAGE = "found unexpected end of stream in a quoted scalar";
+    public static final String UNTERMINATED_FLOW_MESSAGE = "found unexpected end of stream in a flow collection";
+
+    private static final String QUOTE_CONTEXT = "while scanning a quoted scalar";
+    private static final String FLOW_CONTEXT = "while parsing a flow collection";
+    private static final int BUFFER_SIZE = 8 * 1024;
+
+    private enum LineEnd {
+
+        /**
+         * Nothing which influences the next line, e.g. a quoted scalar or an alias.
+         */
+        OTHER,
+
+        /**
+         * A key or a sequence entry without a value, the next line may start a nested collection.
+         */
+        OPENER,
+
+        /**
+         * A plain scalar, which continues on the next line if that line is indented further than its parent.
+         */
+        PLAIN
+
+    }
+
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private char[] line = new char[256];
+    private int length;
+    private int lineNumber = 0;
+
+    private boolean checking = true;
+    private int[] mappingColumns = new int[16];
+    private int openMappings = 0;
+    private LineEnd lineEnd = LineEnd.OTHER;
+    private int lineEndColumn;
+
+    private boolean inBlockScalar = false;
+    private int blockScalarParent;
+    private int blockScalarIndent;
+
+    private char quote = 0;
+    private int quoteLine;
+    private int quoteColumn;
+
+    private int flowDepth = 0;
+    private boolean flowTokenStart;
+    private boolean flowAfterJsonNode;
+    private boolean flowInPlain;
+    private int flowLine;
+    private int flowColumn;
+
+    private YamlPrescanner() {
+
+    }
+
+    /**
+     * @throws YamlValidationException at the first problem found
+     */
+    static void scan(Reader reader) throws IOException {
+
+        new YamlPrescanner().scanLines(reader);
+    }
+
+    private void scanLines(Reader reader) throws IOException {
+
+        boolean firstCharacter = true;
+        boolean afterCarriageReturn = false;
+        int read;
+
+        while ((read = reader.read(buffer, 0, buffer.length)) != -1) {
+            for (int i = 0; i < read; i++) {
+                char character = buffer[i];
+                if (firstCharacter) {
+                    firstCharacter = false;
+                    if (character == '\uFEFF') {
+                        continue;
+                    }
+                }
+                if (afterCarriageReturn) {
+                    afterCarriageReturn = false;
+                    if (character == '\n') {
+                        continue;
+                    }
+                }
+                if (character == '\n' || character == '\r' || character == '\u0085' || character == '\u2028' || character == '\u2029') {
+                    afterCarriageReturn = character == '\r';
+                    endLine();
+                } else {
+                    append(character);
+                }
+            }
+        }
+
+        scanLine();
+        endStream();
+    }
+
+    private void append(char character) {
+
+        if (length == line.length) {
+            line = Arrays.copyOf(line, length * 2);
+        }
+        line[length++] = character;
+    }
+
+    private void endLine() {
+
+        scanLine();
+        length = 0;
+        lineNumber++;
+    }
+
+    /**
+     * The end of the stream is at the end of the last line, like the parser reports it.
+     */
+    private void endStream() {
+
+        if (quote != 0) {
+            throw new YamlValidationException(QUOTE_CONTEXT, mark(quoteLine, quoteColumn), UNTERMINATED_QUOTE_MESSAGE,
+                    mark(lineNumber, column(length)));
+        }
+        if (flowDepth > 0) {
+            throw new YamlValidationException(FLOW_CONTEXT, mark(flowLine, flowColumn), UNTERMINATED_FLOW_MESSAGE,
+                    mark(lineNumber, column(length)));
+        }
+    }
+
+    private void scanLine() {
+
+        if (quote != 0) {
+            int end = continueQuotedScalar(0);
+            if (end >= 0) {
+                if (flowDepth > 0) {
+                    flowTokenStart = false;
+                    flowAfterJsonNode = true;
+                    scanFlow(end);
+                } else {
+                    scanRest(end);
+                }
+            }
+        } else if (flowDepth > 0) {
+            scanFlow(0);
+        } else if (isDocumentMarker()) {
+            startDocument();
+        } else if (inBlockScalar && isBlockScalarContent()) {
+            return;
+        } else if (checking) {
+            scanBlockLine();
+        }
+    }
+
+    private boolean isDocumentMarker() {
+
+        if (length < 3 || !(startsWith("---") || startsWith("..."))) {
+            return false;
+        }
+        return length == 3 || line[3] == ' ' || line[3] == '\t';
+    }
+
+    private boolean startsWith(String marker) {
+
+        for (int i = 0; i < marker.length(); i++) {
+            if (line[i] != marker.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void startDocument() {
+
+        boolean documentStart = line[0] == '-';
+        reset();
+        checking = true;
+
+        if (documentStart) {
+            scanValue(3, -1);
+        }
+    }
+
+    /**
+     * Content is every line indented further than the parent of the block scalar, up to the first line indented less
+     * than the first line of the content. With an explicit indentation indicator every line indented further than the
+     * parent is content, the indicator may allow less indentation than the first line has.
+     */
+    private boolean isBlockScalarContent() {
+
+        int indent = countSpaces(0);
+
+        if (skipWhitespace(indent) == length) {
+            return true;
+        }
+        if (blockScalarIndent < 0 && indent > blockScalarParent) {
+            blockScalarIndent = indent;
+            return true;
+        }
+        if (blockScalarIndent >= 0 && indent >= blockScalarIndent) {
+            return true;
+        }
+
+        inBlockScalar = false;
+        return false;
+    }
+
+    private void scanBlockLine() {
+
+        int indent = countSpaces(0);
+        int content = skipWhitespace(indent);
+
+        if (content == length || line[content] == '#') {
+            return;
+        }
+        if (lineEnd == LineEnd.PLAIN && indent > lineEndColumn) {
+            // continuation of a multi-line plain scalar
+            return;
+        }
+        if (content > indent) {
+            throw new YamlValidationException(null, null, TAB_INDENTATION_MESSAGE, mark(lineNumber, indent));
+        }
+
+        int position = indent;
+        int dash = -1;
+
+        while (position < length && line[position] == '-' && (position + 1 == length || line[position + 1] == ' ' || line[position + 1] == '\t')) {
+            if (position + 1 < length && line[position + 1] == '\t') {
+                stopChecking();
+                return;
+            }
+            dash = position;
+            position = countSpaces(position + 1);
+        }
+
+        if (dash >= 0) {
+            closeMappingsIndentedMoreThan(dash);
+            if (position == length || line[position] == '#') {
+                endLine(LineEnd.OPENER, dash);
+                return;
+            }
+        }
+
+        scanNode(position, dash);
+    }
+
+    /**
+     * @param dash column of the last sequence entry indicator in front of the node, or -1
+     */
+    private void scanNode(int position, int dash) {
+
+        char first = line[position];
+
+        if (first == '"' || first == '\'') {
+            scanQuotedNode(position, dash);
+        } else if (first == '[' || first == '{') {
+            startFlow(position);
+        } else if ((first == '|' || first == '>') && dash >= 0) {
+            startBlockScalar(position, dash);
+        } else if (first == '*' && dash >= 0) {
+            endLine(LineEnd.OTHER, 0);
+        } else if (isIndicator(first)) {
+            stopChecking();
+        } else {
+            scanPlainNode(position, dash);
+        }
+    }
+
+    private static boolean isIndicator(char character) {
+
+        return "|>*?:&!%@`,]}#".indexOf(character) >= 0;
+    }
+
+    private void scanQuotedNode(int position, int dash) {
+
+        int end = startQuotedScalar(position);
+
+        if (end < 0) {
+            endLine(LineEnd.OTHER, 0);
+            return;
+        }
+
+        int rest = skipWhitespace(end);
+
+        if (isValueIndicator(rest)) {
+            scanKey(position, dash, rest + 1);
+        } else if (rest == length || line[rest] == '#') {
+            endLine(LineEnd.OTHER, 0);
+        } else {
+            stopChecking();
+        }
+    }
+
+    private void scanPlainNode(int position, int dash) {
+
+        for (int i = position; i < length; i++) {
+            if (isValueIndicator(i)) {
+                scanKey(position, dash, i + 1);
+                return;
+            }
+            if (line[i] == '#' && (line[i - 1] == ' ' || line[i - 1] == '\t')) {
+                break;
+            }
+        }
+
+        // a plain scalar which isn't a key only belongs to a sequence entry or is the root of the document
+        endLine(LineEnd.PLAIN, dash);
+    }
+
+    private boolean isValueIndicator(int position) {
+
+        return position < length && line[position] == ':'
+                && (position + 1 == length || line[position + 1] == ' ' || line[position + 1] == '\t');
+    }
+
+    private void scanKey(int column, int dash, int value) {
+
+        if (dash >= 0 || openMappings == 0) {
+            openMapping(column);
+        } else {
+            closeMappingsIndentedMoreThan(column);
+            if (openMappings == 0 || mappingColumns[openMappings - 1] < column) {
+                if (lineEnd != LineEnd.OPENER || lineEndColumn >= column) {
+                    throw new YamlValidationException(null, null, BAD_INDENTATION_MESSAGE, mark(lineNumber, column));
+                }
+                openMapping(column);
+            }
+        }
+
+        scanValue(value, column);
+    }
+
+    /**
+     * @param parent column of the key or sequence entry the value belongs to, or -1 for the root of a document
+     */
+    private void scanValue(int from, int parent) {
+
+        int position = skipWhitespace(from);
+
+        while (position < length && (line[position] == '&' || line[position] == '!')) {
+            while (position < length && line[position] != ' ' && line[position] != '\t') {
+                position++;
+            }
+            position = skipWhitespace(position);
+        }
+
+        if (position == length || line[position] == '#') {
+            endLine(LineEnd.OPENER, parent);
+            return;
+        }
+
+        char first = line[position];
+
+        if (first == '"' || first == '\'') {
+            int end = startQuotedScalar(position);
+            if (end >= 0) {
+                scanRest(end);
+            } else {
+                endLine(LineEnd.OTHER, 0);
+            }
+        } else if (first == '[' || first == '{') {
+            startFlow(position);
+        } else if (first == '|' || first == '>') {
+            startBlockScalar(position, parent);
+        } else if (first == '*') {
+            endLine(LineEnd.OTHER, 0);
+        } else {
+            endLine(LineEnd.PLAIN, parent);
+        }
+    }
+
+    /**
+     * Only a comment may follow a complete node on the same line, everything else isn't checked.
+     */
+    private void scanRest(int from) {
+
+        int rest = skipWhitespace(from);
+
+        if (rest == length || line[rest] == '#') {
+            endLine(LineEnd.OTHER, 0);
+        } else {
+            stopChecking();
+        }
+    }
+
+    private void startBlockScalar(int position, int parent) {
+
+        inBlockScalar = true;
+        blockScalarParent = parent;
+        blockScalarIndent = -1;
+
+        for (int i = position + 1; i < length && line[i] != ' ' && line[i] != '\t'; i++) {
+            if (Character.isDigit(line[i])) {
+                blockScalarIndent = parent + 1;
+            }
+        }
+        endLine(LineEnd.OTHER, 0);
+    }
+
+    /**
+     * @return the position after the closing quote, or -1 if the scalar continues on the next line
+     */
+    private int startQuotedScalar(int position) {
+
+        quote = line[position];
+        quoteLine = lineNumber;
+        quoteColumn = column(position);
+
+        return continueQuotedScalar(position + 1);
+    }
+
+    private int continueQuotedScalar(int from) {
+
+        for (int i = from; i < length; i++) {
+            char character = line[i];
+            if (quote == '"' && character == '\\') {
+                i++;
+            } else if (character == quote) {
+                if (quote == '\'' && i + 1 < length && line[i + 1] == '\'') {
+                    i++;
+                } else {
+                    quote = 0;
+                    return i + 1;
+                }
+            }
+        }
+        return -1;
+    }
+
+    private void startFlow(int position) {
+
+        flowDepth = 0;
+        flowTokenStart = true;
+        flowAfterJsonNode = false;
+        flowInPlain = false;
+        flowLine = lineNumber;
+        flowColumn = column(position);
+        endLine(LineEnd.OTHER, 0);
+        scanFlow(position);
+    }
+
+    /**
+     * Tracks the nesting of flow collections. A quote only starts a quoted scalar where a token starts, inside a
+     * plain scalar or a tag it is just a character, and so is a number sign inside a plain scalar. Like for the parser,
+     * a colon directly after a quoted scalar or a flow collection always separates a value.
+     */
+    private void scanFlow(int from) {
+
+        for (int i = from; i < length; i++) {
+            char character = line[i];
+            boolean afterJsonNode = flowAfterJsonNode;
+            flowAfterJsonNode = false;
+            if (character == ' ' || character == '\t') {
+                flowAfterJsonNode = afterJsonNode;
+            } else if (character == '#' && (!flowInPlain || i == 0 || line[i - 1] == ' ' || line[i - 1] == '\t')) {
+                return;
+            } else if ((character == '"' || character == '\'') && flowTokenStart) {
+                int end = startQuotedScalar(i);
+                if (end < 0) {
+                    return;
+                }
+                i = end - 1;
+                flowTokenStart = false;
+                flowAfterJsonNode = true;
+            } else if ((character == '!' || character == '&') && flowTokenStart) {
+                // node properties end at whitespace, the node after them starts a token
+                while (i + 1 < length && line[i + 1] != ' ' && line[i + 1] != '\t' && (character == '!' || ",[]{}".indexOf(line[i + 1]) < 0)) {
+                    i++;
+                }
+            } else if (character == '[' || character == '{') {
+                flowDepth++;
+                flowTokenStart = true;
+                flowInPlain = false;
+            } else if (character == ']' || character == '}') {
+                flowDepth--;
+                flowTokenStart = false;
+                flowInPlain = false;
+                if (flowDepth == 0) {
+                    scanRest(i + 1);
+                    return;
+                }
+                flowAfterJsonNode = true;
+            } else if (character == ',') {
+                flowTokenStart = true;
+                flowInPlain = false;
+            } else if (character == ':' && (afterJsonNode || i + 1 == length || " \t,[]{}".indexOf(line[i + 1]) >= 0)) {
+                flowTokenStart = true;
+                flowInPlain = false;
+            } else {
+                flowTokenStart = false;
+                flowInPlain = true;
+            }
+        }
+    }
+
+    private void openMapping(int column) {
+
+        if (openMappings == 0 || mappingColumns[openMappings - 1] != column) {
+            if (openMappings == mappingColumns.length) {
+                mappingColumns = Arrays.copyOf(mappingColumns, openMappings * 2);
+            }
+            mappingColumns[openMappings++] = column;
+        }
+    }
+
+    private void closeMappingsIndentedMoreThan(int column) {
+
+        while (openMappings > 0 && mappingColumns[openMappings - 1] > column) {
+            openMappings--;
+        }
+    }
+
+    private void endLine(LineEnd end, int column) {
+
+        lineEnd = end;
+        lineEndColumn = column;
+    }
+
+    private void stopChecking() {
+
+        reset();
+        checking = false;
+    }
+
+    private void reset() {
+
+        openMappings = 0;
+        lineEnd = LineEnd.OTHER;
+        inBlockScalar = false;
+        quote = 0;
+        flowDepth = 0;
+    }
+
+    private int countSpaces(int from) {
+
+        int position = from;
+        while (position < length && line[position] == ' ') {
+            position++;
+        }
+        return position;
+    }
+
+    private int skipWhitespace(int from) {
+
+        int position = from;
+        while (position < length && (line[position] == ' ' || line[position] == '\t')) {
+            position++;
+        }
+        return position;
+    }
+
+    /**
+     * @return the column of the position like the parser counts it, in code points
+     */
+    private int column(int position) {
+
+        return Character.codePointCount(line, 0, position);
+    }
+
+    /**
+     * Only a mark on the current line shows a snippet, earlier lines aren't kept.
+     */
+    private Mark mark(int markLine, int markColumn) {
+
+        int[] snippet = markLine == lineNumber ? new String(line, 0, length).codePoints().toArray() : new int[0];
+
+        return new Mark("'reader'", 0, markLine, markColumn, snippet, markLine == lineNumber ? markColumn : 0);
+    }
+
+}
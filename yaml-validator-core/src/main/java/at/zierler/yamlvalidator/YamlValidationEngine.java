@@ -0,0 +1,463 @@
+package at.zierler.yamlvalidator;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Validates the YAML files of some search paths on a pool of threads, for callers without a build tool to
+ * distribute the work. Every thread validates with its own {@link YamlFileValidator}, schemas are compiled once
+ * per run and contents the {@link ValidationResultCache} knows to be valid aren't parsed again. Files found in
+ * several search paths are validated once, files with the content of a file validated before in the same run with
+ * the same settings take over its result.
+ */
+public class YamlValidationEngine {
+
+    private final YamlFileScanner scanner;
+    private final SchemaMapping schemaMapping;
+    private final ParserBackendMapping backendMapping;
+    private final boolean allowDuplicates;
+    private final ValidationMode validationMode;
+    private final ValidationLimits limits;
+    private final long parallelDocumentsMinBytes;
+    private final boolean prescan;
+
+    /**
+     * @param parallelDocumentsMinBytes size from which the documents of a file are validated in parallel
+     * @param prescan                   whether obviously broken files are rejected before they are parsed
+     */
+    public YamlValidationEngine(YamlFileScanner scanner, SchemaMapping schemaMapping, ParserBackendMapping backendMapping, boolean allowDuplicates,
+                                ValidationMode validationMode, ValidationLimits limits, long parallelDocumentsMinBytes, boolean prescan) {
+
+        this.scanner = scanner;
+        this.schemaMapping = schemaMapping;
+        this.backendMapping = backendMapping;
+        this.allowDuplicates = allowDuplicates;
+        this.validationMode = validationMode;
+        this.limits = limits;
+        this.parallelDocumentsMinBytes = parallelDocumentsMinBytes;
+        this.prescan = prescan;
+    }
+
+    public Result validate(Collection<Path> searchPaths, int threads, int maxFailures, ValidationResultCache resultCache) throws IOException {
+
+        return validate(searchPaths, file -> true, threads, maxFailures, resultCache);
+    }
+
+    /**
+     * @param filter selects which of the files found in the search paths are validated, by their real path
+     * @param resultCache cache of valid contents, or {@code null} to parse every file
+     * @return the results in the order the files were found in
+     */
+    public Result validate(Collection<Path> searchPaths, Predicate<Path> filter, int threads, int maxFailures,
+                           ValidationResultCache resultCache) throws IOException {
+
+        Set<Path> files = new LinkedHashSet<>();
+        int duplicatePaths = 0;
+        for (Path searchPath : searchPaths) {
+            for (Path file : scanner.scan(searchPath.toRealPath())) {
+                if (filter.test(file) && !files.add(file)) {
+                    duplicatePaths++;
+                }
+            }
+        }
+
+        ThreadLocal<YamlFileValidator> validators = ThreadLocal.withInitial(
+                () -> new YamlFileValidator(allowDuplicates, validationMode, limits, prescan));
+        Run run = new Run(validators::get, new ConcurrentHashMap<>(), new ConcurrentHashMap<>(), resultCache);
+        AtomicInteger failures = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+        try {
+            List<Future<Result>> fileResults = new ArrayList<>();
+            for (Path file : files) {
+                fileResults.add(executor.submit(() -> {
+                    ResultListener listener = new ResultListener(failures, maxFailures);
+                    if (listener.isFailureBudgetExhausted()) {
+                        listener.result.skippedFiles++;
+                    } else {
+                        run.validate(file, listener);
+                    }
+                    return listener.result;
+                }));
+            }
+
+            Result result = new Result();
+            for (Future<Result> fileResult : fileResults) {
+                result.add(fileResult.get());
+            }
+
+            result.duplicatePaths = duplicatePaths;
+            result.resultCacheFailure = run.rememberValidContents();
+            return result;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while validating YAML files.");
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Starts a run for callers which distribute the files themselves, like the workers of a build, and validate
+     * them one by one with {@link Run#validate(Path, Listener)}. Several runs may share the known contents and the
+     * compiled schemas, which have to be thread-safe then.
+     *
+     * @param validator     validator of all files of the run, which is only used by one thread at a time
+     * @param knownContents results of the contents validated before, by the hash of the content and the settings
+     * @param schemas       schemas compiled before, by their file
+     * @param resultCache   cache of valid contents, or {@code null} to parse every file
+     */
+    public Run startRun(YamlFileValidator validator, Map<ByteBuffer, KnownContent> knownContents, Map<Path, JsonSchema> schemas,
+                        ValidationResultCache resultCache) {
+
+        return new Run(() -> validator, knownContents, schemas, resultCache);
+    }
+
+    /**
+     * Is told about every file of a {@link Run}, by the thread validating it, and decides when to stop.
+     */
+    public interface Listener {
+
+        default void starting(String file) {
+
+        }
+
+        default void documentValidated(String file, int documentIndex) {
+
+        }
+
+        /**
+         * @param knownFile the file the same content was validated in before
+         */
+        default void duplicateContent(String file, String knownFile) {
+
+        }
+
+        /**
+         * @param statistics statistics of the file, or {@code null} for an archive which couldn't be read
+         * @param failure    why the file is invalid, or {@code null} if it is valid
+         */
+        void validated(FileValidationStatistics statistics, ValidationFailure failure);
+
+        /**
+         * @return whether no more files and archive entries are validated, which is checked after every failure
+         */
+        boolean isFailureBudgetExhausted();
+
+    }
+
+    /**
+     * Validates files and remembers the results of their contents, so a file with the content of a file
+     * validated before takes over its result.
+     */
+    public final class Run {
+
+        private final Supplier<YamlFileValidator> validators;
+        private final Map<ByteBuffer, KnownContent> knownContents;
+        private final Map<Path, JsonSchema> schemas;
+        private final ValidationResultCache resultCache;
+        private final Queue<byte[]> newValidContentHashes = new ConcurrentLinkedQueue<>();
+
+        private Run(Supplier<YamlFileValidator> validators, Map<ByteBuffer, KnownContent> knownContents, Map<Path, JsonSchema> schemas,
+                    ValidationResultCache resultCache) {
+
+            this.validators = validators;
+            this.knownContents = knownContents;
+            this.schemas = schemas;
+            this.resultCache = resultCache;
+        }
+
+        /**
+         * Validates a YAML file, or the YAML entries of an archive until the failure budget is exhausted.
+         */
+        public void validate(Path file, Listener listener) {
+
+            if (scanner.isArchive(file)) {
+                validateArchive(file, listener);
+                return;
+            }
+
+            listener.starting(file.toString());
+            long startNanos = System.nanoTime();
+            YamlFileInput input;
+
+            try {
+                input = YamlFileInput.read(file, limits.getMaxFileBytes());
+            } catch (Exception e) {
+                listener.validated(new FileValidationStatistics(file.toString(), file.toFile().length(), 0, System.nanoTime() - startNanos,
+                        FileValidationStatistics.Result.INVALID), ValidationFailure.of(file, e));
+                return;
+            }
+
+            validateContent(file.toString(), file, input, startNanos, listener);
+        }
+
+        /**
+         * Entries are validated while the archive is streamed, the schemas are matched against their paths inside it.
+         */
+        private void validateArchive(Path archive, Listener listener) {
+
+            try {
+                new ArchiveReader(scanner).read(archive, (name, entryName, bytes, content) -> {
+                    validateArchiveEntry(name, entryName, bytes, content, listener);
+                    return !listener.isFailureBudgetExhausted();
+                });
+            } catch (IOException | RuntimeException e) {
+                listener.validated(null, ValidationFailure.of(archive, e));
+            }
+        }
+
+        private void validateArchiveEntry(String name, String entryName, long bytes, InputStream content, Listener listener) throws IOException {
+
+            listener.starting(name);
+            long startNanos = System.nanoTime();
+            YamlFileInput input;
+
+            try {
+                input = YamlFileInput.read(content, bytes, limits.getMaxFileBytes());
+            } catch (RuntimeException e) {
+                listener.validated(new FileValidationStatistics(name, Math.max(bytes, 0), 0, System.nanoTime() - startNanos,
+                        FileValidationStatistics.Result.INVALID), ValidationFailure.of(name, e));
+                return;
+            }
+
+            validateContent(name, FileSystems.getDefault().getPath(entryName), input, startNanos, listener);
+        }
+
+        /**
+         * A content known from the same file was validated by an earlier run which shared the known contents, so
+         * it is reported as cached.
+         *
+         * @param schemaPath path the schema and the parser backend of the content are found by
+         */
+        private void validateContent(String name, Path schemaPath, YamlFileInput input, long startNanos, Listener listener) {
+
+            YamlFileValidator validator = validators.get();
+            int[] documents = {0};
+            ValidationFailure failure = null;
+            FileValidationStatistics.Result validResult = FileValidationStatistics.Result.VALID;
+
+            try {
+                JsonSchema schema = findSchema(schemaPath);
+                ParserBackend backend = backendMapping.findBackend(schemaPath);
+                byte[] contentHash = ValidationResultCache.hashContent(input.getContent(), validator.describeSettings(schema, backend));
+                KnownContent knownContent = knownContents.get(ByteBuffer.wrap(contentHash));
+
+                if (knownContent != null) {
+                    if (knownContent.file.equals(name)) {
+                        validResult = FileValidationStatistics.Result.CACHED;
+                    } else {
+                        listener.duplicateContent(name, knownContent.file);
+                        validResult = FileValidationStatistics.Result.DUPLICATE;
+                    }
+                    documents[0] = knownContent.documents;
+                    failure = knownContent.failure != null ? knownContent.failure.withFile(name) : null;
+                } else if (resultCache != null && resultCache.isKnownValid(contentHash)) {
+                    validResult = FileValidationStatistics.Result.CACHED;
+                } else {
+                    failure = validateUncachedContent(validator, name, input, schema, backend, documents, listener);
+                    knownContents.putIfAbsent(ByteBuffer.wrap(contentHash), new KnownContent(name, documents[0], failure));
+                    if (resultCache != null && failure == null) {
+                        newValidContentHashes.add(contentHash);
+                    }
+                }
+            } catch (Exception e) {
+                failure = ValidationFailure.of(name, e);
+            }
+
+            FileValidationStatistics.Result result = failure != null ? FileValidationStatistics.Result.INVALID : validResult;
+            listener.validated(new FileValidationStatistics(name, input.getBytes(), documents[0], System.nanoTime() - startNanos, result), failure);
+        }
+
+        private ValidationFailure validateUncachedContent(YamlFileValidator validator, String name, YamlFileInput input, JsonSchema schema,
+                                                          ParserBackend backend, int[] documents, Listener listener) {
+
+            try {
+                validator.validateYamlContent(input, schema, backend, parallelDocumentsMinBytes, documentIndex -> {
+                    documents[0] = documentIndex;
+                    listener.documentValidated(name, documentIndex);
+                });
+                return null;
+            } catch (Exception e) {
+                return ValidationFailure.of(name, e);
+            }
+        }
+
+        private JsonSchema findSchema(Path file) {
+
+            Path schemaFile = schemaMapping.findSchemaFile(file);
+
+            return schemaFile != null ? schemas.computeIfAbsent(schemaFile, JsonSchema::compile) : null;
+        }
+
+        /**
+         * Adds the contents found valid by the run to the result cache.
+         *
+         * @return why the valid contents couldn't be remembered, or {@code null}
+         */
+        public Exception rememberValidContents() {
+
+            if (resultCache == null) {
+                return null;
+            }
+
+            try {
+                resultCache.addValid(newValidContentHashes);
+                return null;
+            } catch (IOException | RuntimeException e) {
+                return e;
+            }
+        }
+
+    }
+
+    /**
+     * Result of an earlier validation of the same content with the same settings.
+     */
+    public static final class KnownContent {
+
+        private final String file;
+        private final int documents;
+        private final ValidationFailure failure;
+
+        private KnownContent(String file, int documents, ValidationFailure failure) {
+
+            this.file = file;
+            this.documents = documents;
+            this.failure = failure;
+        }
+
+    }
+
+    /**
+     * Collects the results of one file of {@link #validate(Collection, Predicate, int, int, ValidationResultCache)},
+     * counting its failures towards the failures of all threads.
+     */
+    private static final class ResultListener implements Listener {
+
+        private final Result result = new Result();
+        private final AtomicInteger failures;
+        private final int maxFailures;
+
+        private ResultListener(AtomicInteger failures, int maxFailures) {
+
+            this.failures = failures;
+            this.maxFailures = maxFailures;
+        }
+
+        @Override
+        public void duplicateContent(String file, String knownFile) {
+
+            result.duplicateContents++;
+        }
+
+        @Override
+        public void validated(FileValidationStatistics statistics, ValidationFailure failure) {
+
+            if (statistics != null) {
+                result.statistics.add(statistics);
+            }
+            if (failure != null) {
+                result.failures.add(failure);
+                failures.incrementAndGet();
+            }
+        }
+
+        @Override
+        public boolean isFailureBudgetExhausted() {
+
+            return failures.get() >= maxFailures;
+        }
+
+    }
+
+    /**
+     * Statistics and failures of the validated files, the number of files skipped once the maximum number of
+     * failures was reached and the number of validations saved by de-duplication.
+     */
+    public static final class Result {
+
+        private final List<FileValidationStatistics> statistics = new ArrayList<>();
+        private final List<ValidationFailure> failures = new ArrayList<>();
+        private int skippedFiles;
+        private int duplicatePaths;
+        private int duplicateContents;
+        private Exception resultCacheFailure;
+
+        private Result() {
+
+        }
+
+        private void add(Result result) {
+
+            statistics.addAll(result.statistics);
+            failures.addAll(result.failures);
+            skippedFiles += result.skippedFiles;
+            duplicateContents += result.duplicateContents;
+        }
+
+        public List<FileValidationStatistics> getStatistics() {
+
+            return Collections.unmodifiableList(statistics);
+        }
+
+        public List<ValidationFailure> getFailures() {
+
+            return Collections.unmodifiableList(failures);
+        }
+
+        public int getSkippedFiles() {
+
+            return skippedFiles;
+        }
+
+        /**
+         * @return how many files were found more than once in the search paths and validated only once
+         */
+        public int getDuplicatePaths() {
+
+            return duplicatePaths;
+        }
+
+        /**
+         * @return how many files took over the result of a file with the same content
+         */
+        public int getDuplicateContents() {
+
+            return duplicateContents;
+        }
+
+        /**
+         * @return why the valid contents couldn't be added to the result cache, or {@code null}
+         */
+        public Exception getResultCacheFailure() {
+
+            return resultCacheFailure;
+        }
+
+    }
+
+}
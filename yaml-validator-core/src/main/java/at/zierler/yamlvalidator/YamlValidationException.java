@@ -0,0 +1,41 @@
+package at.zierler.yamlvalidator;
+
+import org.yaml.snakeyaml.error.Mark;
+import org.yaml.snakeyaml.error.MarkedYAMLException;
+
+/**
+ * Problem found by the validator itself, instead of the SnakeYAML parser, with the location it was found at.
+ */
+public class YamlValidationException extends MarkedYAMLException {
+
+    private static final long serialVersionUID = 1L;
+
+    YamlValidationException(String context, Mark contextMark, String problem, Mark problemMark) {
+
+        super(context, contextMark, problem, problemMark);
+    }
+
+    private YamlValidationException(MarkedYAMLException exception, int lines) {
+
+        super(exception.getContext(), moveDown(exception.getContextMark(), lines),
+                exception.getProblem(), moveDown(exception.getProblemMark(), lines), exception);
+    }
+
+    /**
+     * @return the same problem, located the given number of lines further down, for problems found in a part of a file
+     */
+    static YamlValidationException movedDown(MarkedYAMLException exception, int lines) {
+
+        return new YamlValidationException(exception, lines);
+    }
+
+    private static Mark moveDown(Mark mark, int lines) {
+
+        if (mark == null) {
+            return null;
+        }
+
+        return new Mark(mark.getName(), mark.getIndex(), mark.getLine() + lines, mark.getColumn(), mark.getBuffer(), mark.getPointer());
+    }
+
+}
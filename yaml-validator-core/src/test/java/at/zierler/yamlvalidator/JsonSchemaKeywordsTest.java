@@ -0,0 +1,163 @@
+package at.zierler.yamlvalidator;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.yaml.snakeyaml.Yaml;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.fail;
+
+public class JsonSchemaKeywordsTest {
+
+    @Rule
+    public final TemporaryFolder schemaDirectory = new TemporaryFolder();
+
+    @Test
+    public void shouldValidateAgainstLocalReference() throws IOException {
+
+        String schema = "{\"properties\": {\"port\": {\"$ref\": \"#/definitions/port\"}}, " +
+                "\"definitions\": {\"port\": {\"type\": \"integer\"}}}";
+
+        assertValid(schema, "port: 8080");
+        assertInvalid(schema, "port: http", "$.port: expected integer, found string");
+    }
+
+    @Test
+    public void shouldValidateRecursiveLocalReference() throws IOException {
+
+        String schema = "{\"type\": \"object\", \"additionalProperties\": {\"$ref\": \"#\"}}";
+
+        assertValid(schema, "a:\n  b:\n    c: {}");
+        assertInvalid(schema, "a:\n  b:\n    c: 1", "$.a.b.c: expected object, found integer");
+    }
+
+    @Test
+    public void shouldIgnoreSiblingsOfReference() throws IOException {
+
+        String schema = "{\"properties\": {\"port\": {\"$ref\": \"#/definitions/port\", \"maximum\": 10}}, " +
+                "\"definitions\": {\"port\": {\"type\": \"integer\"}}}";
+
+        assertValid(schema, "port: 8080");
+    }
+
+    @Test
+    public void shouldRejectRemoteReference() throws IOException {
+
+        Path schema = writeSchema("{\"properties\": {\"port\": {\"$ref\": \"http://example.com/port.json\"}}}");
+
+        try {
+            JsonSchema.compile(schema);
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage(), is(String.format("Invalid JSON schema %s: Only local references are supported, " +
+                    "found 'http://example.com/port.json'.", schema)));
+        }
+    }
+
+    @Test
+    public void shouldRequireAllSchemasOfAllOf() throws IOException {
+
+        String schema = "{\"allOf\": [{\"type\": \"integer\"}, {\"minimum\": 10}]}";
+
+        assertValid(schema, "10");
+        assertInvalid(schema, "5", "$: value must be at least 10");
+    }
+
+    @Test
+    public void shouldRequireAnySchemaOfAnyOf() throws IOException {
+
+        String schema = "{\"anyOf\": [{\"type\": \"integer\"}, {\"type\": \"boolean\"}]}";
+
+        assertValid(schema, "1");
+        assertValid(schema, "true");
+        assertInvalid(schema, "one", "$: value doesn't match any schema of anyOf");
+    }
+
+    @Test
+    public void shouldRequireExactlyOneSchemaOfOneOf() throws IOException {
+
+        String schema = "{\"oneOf\": [{\"type\": \"number\"}, {\"type\": \"integer\"}]}";
+
+        assertValid(schema, "1.5");
+        assertInvalid(schema, "1", "$: value matches several schemas of oneOf, expected exactly one");
+        assertInvalid(schema, "one", "$: value matches no schemas of oneOf, expected exactly one");
+    }
+
+    @Test
+    public void shouldValidatePropertiesMatchingPatternProperties() throws IOException {
+
+        String schema = "{\"patternProperties\": {\"^x-\": {\"type\": \"string\"}}, \"additionalProperties\": false}";
+
+        assertValid(schema, "x-first: a\nx-second: b");
+        assertInvalid(schema, "x-first: 1", "$.x-first: expected string, found integer");
+        assertInvalid(schema, "first: a", "$.first: property 'first' is not allowed");
+    }
+
+    @Test
+    public void shouldValidateAdditionalPropertiesAgainstTheirSchema() throws IOException {
+
+        String schema = "{\"properties\": {\"name\": {\"type\": \"string\"}}, \"additionalProperties\": {\"type\": \"integer\"}}";
+
+        assertValid(schema, "name: server\nport: 8080");
+        assertInvalid(schema, "name: server\nport: http", "$.port: expected integer, found string");
+    }
+
+    @Test
+    public void shouldSupportBooleanExclusiveBoundsOfDraft4() throws IOException {
+
+        String schema = "{\"minimum\": 0, \"exclusiveMinimum\": true, \"maximum\": 10, \"exclusiveMaximum\": true}";
+
+        assertValid(schema, "5");
+        assertInvalid(schema, "0", "$: value must be greater than 0");
+        assertInvalid(schema, "10", "$: value must be less than 10");
+    }
+
+    @Test
+    public void shouldKeepBoundsInclusiveWithFalseExclusiveBoundsOfDraft4() throws IOException {
+
+        String schema = "{\"minimum\": 0, \"exclusiveMinimum\": false, \"maximum\": 10, \"exclusiveMaximum\": false}";
+
+        assertValid(schema, "0");
+        assertValid(schema, "10");
+        assertInvalid(schema, "-1", "$: value must be at least 0");
+    }
+
+    @Test
+    public void shouldSupportNumericExclusiveBoundsOfDraft6() throws IOException {
+
+        String schema = "{\"exclusiveMinimum\": 0, \"exclusiveMaximum\": 10}";
+
+        assertValid(schema, "0.5");
+        assertInvalid(schema, "0", "$: value must be greater than 0");
+        assertInvalid(schema, "10.0", "$: value must be less than 10");
+    }
+
+    private void assertValid(String schema, String document) throws IOException {
+
+        JsonSchema.compile(writeSchema(schema)).validate(new Yaml().compose(new StringReader(document)), 1, 0);
+    }
+
+    private void assertInvalid(String schema, String document, String violation) throws IOException {
+
+        try {
+            JsonSchema.compile(writeSchema(schema)).validate(new Yaml().compose(new StringReader(document)), 1, 0);
+            fail();
+        } catch (YamlValidationException e) {
+            assertThat(e.getProblem(), is(String.format(JsonSchema.SCHEMA_VIOLATIONS_MESSAGE, 1, "schema.json", violation)));
+        }
+    }
+
+    private Path writeSchema(String schema) throws IOException {
+
+        return Files.write(schemaDirectory.getRoot().toPath().resolve("schema.json"), schema.getBytes(StandardCharsets.UTF_8));
+    }
+
+}
@@ -0,0 +1,73 @@
+package at.zierler.yamlvalidator;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class ValidationResultCacheTest {
+
+    @Rule
+    public final TemporaryFolder gradleUserHome = new TemporaryFolder();
+
+    @Test
+    public void shouldHashContentTogetherWithSettings() {
+
+        byte[] content = "key: value".getBytes(StandardCharsets.UTF_8);
+
+        byte[] hash = ValidationResultCache.hashContent(ByteBuffer.wrap(content), "settings");
+
+        assertThat(Arrays.equals(hash, ValidationResultCache.hashContent(ByteBuffer.wrap(content.clone()), "settings")), is(true));
+        assertThat(Arrays.equals(hash, ValidationResultCache.hashContent(ByteBuffer.wrap(content), "other settings")), is(false));
+        assertThat(Arrays.equals(hash, hash("key: other")), is(false));
+    }
+
+    @Test
+    public void shouldKnowAddedContentsAndAppendThemToIndexFile() throws IOException {
+
+        ValidationResultCache resultCache = ValidationResultCache.forGradleUserHome(gradleUserHome.getRoot().toPath(), 100);
+        byte[] validHash = hash("valid");
+
+        resultCache.refresh();
+        resultCache.addValid(Collections.singletonList(validHash));
+
+        assertThat(resultCache.isKnownValid(validHash), is(true));
+        assertThat(resultCache.isKnownValid(hash("unknown")), is(false));
+        assertThat(Files.size(gradleUserHome.getRoot().toPath().resolve(ValidationResultCache.INDEX_FILE_PATH)), is(32L));
+    }
+
+    @Test
+    public void shouldKeepMostRecentlyAddedHalfOfEntriesOnceMaximumIsExceeded() throws IOException {
+
+        ValidationResultCache resultCache = ValidationResultCache.forGradleUserHome(gradleUserHome.getRoot().toPath(), 4);
+        List<byte[]> hashes = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            hashes.add(hash("content " + i));
+        }
+
+        resultCache.addValid(hashes);
+
+        assertThat(resultCache.isKnownValid(hashes.get(0)), is(false));
+        assertThat(resultCache.isKnownValid(hashes.get(2)), is(false));
+        assertThat(resultCache.isKnownValid(hashes.get(3)), is(true));
+        assertThat(resultCache.isKnownValid(hashes.get(4)), is(true));
+        assertThat(Files.size(gradleUserHome.getRoot().toPath().resolve(ValidationResultCache.INDEX_FILE_PATH)), is(64L));
+    }
+
+    private static byte[] hash(String content) {
+
+        return ValidationResultCache.hashContent(ByteBuffer.wrap(content.getBytes(StandardCharsets.UTF_8)), "settings");
+    }
+
+}
@@ -0,0 +1,101 @@
+package at.zierler.yamlvalidator;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.fail;
+
+public class YamlFileInputTest {
+
+    @Rule
+    public final TemporaryFolder directory = new TemporaryFolder();
+
+    @Test
+    public void shouldReadFileAndStreamToSameContent() throws IOException {
+
+        byte[] content = "key: value\n".getBytes(StandardCharsets.UTF_8);
+        Path file = Files.write(directory.newFile("file.yaml").toPath(), content);
+
+        YamlFileInput fileInput = YamlFileInput.read(file, Long.MAX_VALUE);
+        YamlFileInput streamInput = YamlFileInput.read(new ByteArrayInputStream(content), -1, Long.MAX_VALUE);
+
+        assertThat(fileInput.getBytes(), is((long) content.length));
+        assertThat(streamInput.getBytes(), is((long) content.length));
+        assertThat(fileInput.getContent(), is(streamInput.getContent()));
+        assertThat(readFully(fileInput.reader()), is("key: value\n"));
+    }
+
+    @Test
+    public void shouldReadFileLargerThanOneReadCompletely() throws IOException {
+
+        byte[] content = new byte[3 * 1024 * 1024 + 1];
+        Arrays.fill(content, (byte) 'a');
+        Path file = Files.write(directory.newFile("large.yaml").toPath(), content);
+
+        YamlFileInput input = YamlFileInput.read(file, Long.MAX_VALUE);
+
+        assertThat(input.getContent(), is(ByteBuffer.wrap(content)));
+    }
+
+    @Test
+    public void shouldDetectEncodingAndSkipByteOrderMark() throws IOException {
+
+        byte[] content = "\uFEFFkey: value".getBytes(StandardCharsets.UTF_16LE);
+
+        YamlFileInput input = YamlFileInput.read(new ByteArrayInputStream(content), content.length, Long.MAX_VALUE);
+
+        assertThat(readFully(input.reader()), is("key: value"));
+        assertThat(input.decode().toString(), is("key: value"));
+        assertThat(input.getContent().remaining(), is(content.length));
+    }
+
+    @Test
+    public void shouldRejectFileLargerThanMaxFileBytesBeforeReadingIt() throws IOException {
+
+        Path file = Files.write(directory.newFile("file.yaml").toPath(), "key: value".getBytes(StandardCharsets.UTF_8));
+
+        try {
+            YamlFileInput.read(file, 5);
+            fail();
+        } catch (YamlLimitExceededException e) {
+            assertThat(e.getMessage(), is(String.format(YamlLimitExceededException.FILE_TOO_LARGE_MESSAGE, 10, 5)));
+        }
+    }
+
+    @Test
+    public void shouldRejectStreamOfUnknownSizeOnceItExceedsMaxFileBytes() throws IOException {
+
+        byte[] content = new byte[100_000];
+
+        try {
+            YamlFileInput.read(new ByteArrayInputStream(content), -1, 50_000);
+            fail();
+        } catch (YamlLimitExceededException e) {
+            assertThat(e.getMessage(), is(String.format(YamlLimitExceededException.FILE_TOO_LARGE_MESSAGE, 100_000, 50_000)));
+        }
+    }
+
+    private static String readFully(Reader reader) throws IOException {
+
+        StringBuilder content = new StringBuilder();
+        char[] buffer = new char[64];
+        int read;
+        while ((read = reader.read(buffer, 0, buffer.length)) != -1) {
+            content.append(buffer, 0, read);
+        }
+        return content.toString();
+    }
+
+}
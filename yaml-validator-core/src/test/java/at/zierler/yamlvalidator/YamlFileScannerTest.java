@@ -0,0 +1,98 @@
+package at.zierler.yamlvalidator;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class YamlFileScannerTest {
+
+    @Rule
+    public final TemporaryFolder directory = new TemporaryFolder();
+
+    private Path root;
+
+    @Before
+    public void createFiles() throws IOException {
+
+        root = directory.getRoot().toPath().toRealPath();
+        Files.createDirectories(root.resolve("config/node_modules"));
+        for (String file : Arrays.asList("top.yaml", "readme.txt", "bundle.jar", "config/nested.yml", "config/node_modules/module.yaml")) {
+            Files.createFile(root.resolve(file));
+        }
+    }
+
+    @Test
+    public void shouldFindYamlFilesAndArchivesButNotDescendIntoExcludedDirectories() throws IOException {
+
+        YamlFileScanner scanner = createScanner(true);
+
+        List<Path> files = scanner.scan(root);
+
+        assertThat(new HashSet<>(files), is(new HashSet<>(Arrays.asList(
+                root.resolve("top.yaml"), root.resolve("bundle.jar"), root.resolve("config/nested.yml")))));
+    }
+
+    @Test
+    public void shouldOnlyFindFilesDirectlyInDirectoryIfNotRecursive() throws IOException {
+
+        YamlFileScanner scanner = createScanner(false);
+
+        List<Path> files = scanner.scan(root);
+
+        assertThat(new HashSet<>(files), is(new HashSet<>(Arrays.asList(root.resolve("top.yaml"), root.resolve("bundle.jar")))));
+    }
+
+    @Test
+    public void shouldFindSymbolicLinksToYamlFiles() throws IOException {
+
+        Path target = directory.newFolder("elsewhere").toPath().toRealPath().resolve("target.yaml");
+        Files.createFile(target);
+        Path link = Files.createSymbolicLink(root.resolve("config/link.yaml"), target);
+
+        List<Path> files = createScanner(true).scan(root.resolve("config"));
+
+        assertThat(files.contains(link), is(true));
+    }
+
+    @Test
+    public void shouldTellWhetherFileIsFoundWithoutScanning() {
+
+        YamlFileScanner scanner = createScanner(true);
+
+        assertThat(scanner.isYamlFileIn(root, root.resolve("config/nested.yml")), is(true));
+        assertThat(scanner.isYamlFileIn(root, root.resolve("bundle.jar")), is(true));
+        assertThat(scanner.isYamlFileIn(root, root.resolve("readme.txt")), is(false));
+        assertThat(scanner.isYamlFileIn(root, root.resolve("config/node_modules/module.yaml")), is(false));
+        assertThat(scanner.isYamlFileIn(root.resolve("config"), root.resolve("top.yaml")), is(false));
+    }
+
+    @Test
+    public void shouldTellWhetherDirectoryIsExcluded() {
+
+        YamlFileScanner scanner = createScanner(true);
+
+        assertThat(scanner.isExcludedDirectory(root, root.resolve("config/node_modules")), is(true));
+        assertThat(scanner.isExcludedDirectory(root, root.resolve("config")), is(false));
+        assertThat(scanner.isExcludedDirectory(root, root), is(false));
+    }
+
+    private static YamlFileScanner createScanner(boolean recursive) {
+
+        return new YamlFileScanner(FileSystems.getDefault(), Arrays.asList("yaml", "yml"), Collections.emptyList(),
+                Collections.singletonList("**/node_modules"), recursive, Collections.singletonList("jar"));
+    }
+
+}
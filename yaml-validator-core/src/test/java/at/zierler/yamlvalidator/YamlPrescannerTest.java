@@ -0,0 +1,115 @@
+package at.zierler.yamlvalidator;
+
+import org.junit.Test;
+import org.yaml.snakeyaml.Yaml;
+import org.yaml.snakeyaml.error.Mark;
+import org.yaml.snakeyaml.error.YAMLException;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.fail;
+
+public class YamlPrescannerTest {
+
+    @Test
+    public void shouldAcceptBlockScalarsWhichLookLikeOtherConstructs() throws IOException {
+
+        assertAccepted("script: |\n  echo \"never closed\n    # not a comment\n  [ not a flow collection\nnext: value\n");
+        assertAccepted("text: >2\n    indented further\n  than the indicator\n");
+        assertAccepted("- |\n  a: b\n     c: d\n- other\n");
+    }
+
+    @Test
+    public void shouldAcceptNumberSignsInQuotedScalars() throws IOException {
+
+        assertAccepted("key: \"value # no comment\"\nother: 'it''s # no comment either'\n");
+        assertAccepted("key: \"first line\n  second # line\"\nnext: value\n");
+    }
+
+    @Test
+    public void shouldAcceptFlowCollectionsSpanningLines() throws IOException {
+
+        assertAccepted("list: [a,\n  b, {c: d,\n    e: 'f]'}]\nnext: value\n");
+        assertAccepted("list: [a#b, c] # comment\nmapping: {\"key\":value}\n");
+    }
+
+    @Test
+    public void shouldAcceptTabsInScalars() throws IOException {
+
+        assertAccepted("key: value\twith tab\nquoted: \"tab\there\"\nlist: [a\tb, c]\ntext: |\n  literal\twith tab\n");
+    }
+
+    @Test
+    public void shouldAcceptMultiLinePlainScalarsSequencesAndDocuments() throws IOException {
+
+        assertAccepted("key: first\n  continued\nlist:\n- a: 1\n  b: 2\n- c: 3\n");
+        assertAccepted("---\na: 1\n...\n---\n  b: 2\n");
+    }
+
+    @Test
+    public void shouldRejectTabInIndentation() throws IOException {
+
+        assertRejected("key:\n\tnested: value\n", YamlPrescanner.TAB_INDENTATION_MESSAGE, 1);
+        assertRejected("key:\n  nested:\n  \tother: value\n", YamlPrescanner.TAB_INDENTATION_MESSAGE, 2);
+    }
+
+    @Test
+    public void shouldRejectKeyIndentedLikeNoOpenMapping() throws IOException {
+
+        assertRejected("key:\n    nested: value\n  other: value\n", YamlPrescanner.BAD_INDENTATION_MESSAGE, 2);
+        assertRejected("a:\n  b:\n    c: 1\n   d: 2\n", YamlPrescanner.BAD_INDENTATION_MESSAGE, 3);
+    }
+
+    @Test
+    public void shouldRejectUnterminatedQuotedScalar() throws IOException {
+
+        assertRejected("first: value\nkey: \"never closed\n", YamlPrescanner.UNTERMINATED_QUOTE_MESSAGE, 1);
+        assertRejected("key: 'never\n  closed\n", YamlPrescanner.UNTERMINATED_QUOTE_MESSAGE, 0);
+    }
+
+    @Test
+    public void shouldRejectUnterminatedFlowCollection() throws IOException {
+
+        assertRejected("key: [a, b\n", YamlPrescanner.UNTERMINATED_FLOW_MESSAGE, 0);
+        assertRejected("first: value\nkey: {a: [b, c]\n", YamlPrescanner.UNTERMINATED_FLOW_MESSAGE, 1);
+    }
+
+    /**
+     * Parses the content as well, so the content is known to be valid.
+     */
+    private static void assertAccepted(String content) throws IOException {
+
+        new Yaml().loadAll(content).forEach(document -> {
+        });
+        YamlPrescanner.scan(new StringReader(content));
+    }
+
+    /**
+     * Parses the content as well, so the content is known to be invalid.
+     *
+     * @param line zero based line the problem starts at, i.e. the opening quote or bracket of unterminated ones
+     */
+    private static void assertRejected(String content, String problem, int line) throws IOException {
+
+        try {
+            new Yaml().loadAll(content).forEach(document -> {
+            });
+            fail();
+        } catch (YAMLException e) {
+            // rejected by the parser as well
+        }
+
+        try {
+            YamlPrescanner.scan(new StringReader(content));
+            fail();
+        } catch (YamlValidationException e) {
+            assertThat(e.getProblem(), is(problem));
+            Mark start = e.getContextMark() != null ? e.getContextMark() : e.getProblemMark();
+            assertThat(start.getLine(), is(line));
+        }
+    }
+
+}
@@ -0,0 +1,191 @@
+package at.zierler.yamlvalidator;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class YamlValidationEngineTest {
+
+    private static final ValidationLimits LIMITS = new ValidationLimits(Long.MAX_VALUE, 50, 50, Integer.MAX_VALUE, 0);
+
+    @Rule
+    public final TemporaryFolder yamlDirectory = new TemporaryFolder();
+
+    private final YamlValidationEngine engine = new YamlValidationEngine(
+            new YamlFileScanner(FileSystems.getDefault(), Arrays.asList("yaml", "yml"), Collections.emptyList(), Collections.emptyList(), false),
+            new SchemaMapping(FileSystems.getDefault(), null, Collections.emptyMap()),
+            new ParserBackendMapping(FileSystems.getDefault(), null, Collections.emptyMap()),
+            false, ValidationMode.LOAD, LIMITS, Long.MAX_VALUE, false);
+
+    @Test
+    public void shouldValidateFileFoundInSeveralSearchPathsOnce() throws IOException {
+
+        Path validFile = write("valid.yaml", "key: value");
+        Path invalidFile = write("invalid.yaml", "key: value\nkey: other");
+
+        YamlValidationEngine.Result result = engine.validate(Arrays.asList(yamlDirectory.getRoot().toPath(), validFile), 2, Integer.MAX_VALUE, null);
+
+        assertThat(result.getStatistics().size(), is(2));
+        assertThat(result.getDuplicatePaths(), is(1));
+        assertThat(result.getFailures().size(), is(1));
+        assertThat(result.getFailures().get(0).getFile(), is(invalidFile.toRealPath().toString()));
+        assertThat(result.getFailures().get(0).getLine(), is(2));
+    }
+
+    @Test
+    public void shouldTakeOverResultOfFileWithSameContent() throws IOException {
+
+        write("first.yaml", "key: value");
+        write("second.yaml", "key: value");
+
+        YamlValidationEngine.Result result = engine.validate(Collections.singletonList(yamlDirectory.getRoot().toPath()), 1, Integer.MAX_VALUE, null);
+
+        assertThat(result.getDuplicateContents(), is(1));
+        assertThat(countResults(result.getStatistics(), FileValidationStatistics.Result.VALID), is(1L));
+        assertThat(countResults(result.getStatistics(), FileValidationStatistics.Result.DUPLICATE), is(1L));
+    }
+
+    @Test
+    public void shouldSkipRemainingFilesOnceMaxFailuresAreReached() throws IOException {
+
+        write("first.yaml", "a: 1\na: 2");
+        write("second.yaml", "b: 1\nb: 2");
+        write("third.yaml", "c: 1\nc: 2");
+
+        YamlValidationEngine.Result result = engine.validate(Collections.singletonList(yamlDirectory.getRoot().toPath()), 1, 1, null);
+
+        assertThat(result.getFailures().size(), is(1));
+        assertThat(result.getSkippedFiles(), is(2));
+    }
+
+    @Test
+    public void shouldNotParseContentKnownToBeValidByResultCache() throws IOException {
+
+        write("file.yaml", "key: value");
+        ValidationResultCache resultCache = ValidationResultCache.forGradleUserHome(yamlDirectory.newFolder("gradle-user-home").toPath(), 100);
+        List<Path> searchPaths = Collections.singletonList(yamlDirectory.getRoot().toPath());
+
+        YamlValidationEngine.Result firstResult = engine.validate(searchPaths, 1, Integer.MAX_VALUE, resultCache);
+        YamlValidationEngine.Result secondResult = engine.validate(searchPaths, 1, Integer.MAX_VALUE, resultCache);
+
+        assertThat(firstResult.getResultCacheFailure(), is(nullValue()));
+        assertThat(firstResult.getStatistics().get(0).getResult(), is(FileValidationStatistics.Result.VALID));
+        assertThat(secondResult.getStatistics().get(0).getResult(), is(FileValidationStatistics.Result.CACHED));
+    }
+
+    @Test
+    public void shouldReportContentKnownFromSameFileAsCachedInRunSharingKnownContents() throws IOException {
+
+        Path file = write("file.yaml", "key: value");
+        Map<ByteBuffer, YamlValidationEngine.KnownContent> knownContents = new HashMap<>();
+        YamlFileValidator validator = new YamlFileValidator(false, ValidationMode.LOAD, LIMITS);
+
+        RecordingListener firstListener = new RecordingListener();
+        engine.startRun(validator, knownContents, new HashMap<>(), null).validate(file, firstListener);
+        RecordingListener secondListener = new RecordingListener();
+        engine.startRun(validator, knownContents, new HashMap<>(), null).validate(file, secondListener);
+
+        assertThat(firstListener.statistics.get(0).getResult(), is(FileValidationStatistics.Result.VALID));
+        assertThat(firstListener.validatedDocuments, is(1));
+        assertThat(secondListener.statistics.get(0).getResult(), is(FileValidationStatistics.Result.CACHED));
+        assertThat(secondListener.statistics.get(0).getDocuments(), is(1));
+        assertThat(secondListener.validatedDocuments, is(0));
+        assertThat(secondListener.startedFiles, is(Collections.singletonList(file.toString())));
+    }
+
+    @Test
+    public void shouldStopValidatingEntriesOfArchiveOnceFailureBudgetIsExhausted() throws IOException {
+
+        Path archive = yamlDirectory.getRoot().toPath().resolve("bundle.zip");
+        try (ZipOutputStream entries = new ZipOutputStream(Files.newOutputStream(archive))) {
+            for (String entryName : Arrays.asList("first.yaml", "second.yaml")) {
+                entries.putNextEntry(new ZipEntry(entryName));
+                entries.write((entryName + ": 1\n" + entryName + ": 2").getBytes(StandardCharsets.UTF_8));
+                entries.closeEntry();
+            }
+        }
+        YamlValidationEngine archiveEngine = new YamlValidationEngine(
+                new YamlFileScanner(FileSystems.getDefault(), Collections.singletonList("yaml"), Collections.emptyList(), Collections.emptyList(),
+                        false, Collections.singletonList("zip")),
+                new SchemaMapping(FileSystems.getDefault(), null, Collections.emptyMap()),
+                new ParserBackendMapping(FileSystems.getDefault(), null, Collections.emptyMap()),
+                false, ValidationMode.LOAD, LIMITS, Long.MAX_VALUE, false);
+        RecordingListener listener = new RecordingListener();
+        listener.maxFailures = 1;
+
+        archiveEngine.startRun(new YamlFileValidator(false, ValidationMode.LOAD, LIMITS), new HashMap<>(), new HashMap<>(), null)
+                .validate(archive, listener);
+
+        assertThat(listener.failures.size(), is(1));
+        assertThat(listener.startedFiles, is(Collections.singletonList(archive + ArchiveReader.ENTRY_SEPARATOR + "first.yaml")));
+    }
+
+    private Path write(String fileName, String content) throws IOException {
+
+        File file = yamlDirectory.newFile(fileName);
+        return Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static long countResults(List<FileValidationStatistics> statistics, FileValidationStatistics.Result result) {
+
+        return statistics.stream().filter(file -> file.getResult() == result).count();
+    }
+
+    private static final class RecordingListener implements YamlValidationEngine.Listener {
+
+        private final List<String> startedFiles = new ArrayList<>();
+        private final List<FileValidationStatistics> statistics = new ArrayList<>();
+        private final List<ValidationFailure> failures = new ArrayList<>();
+        private int validatedDocuments;
+        private int maxFailures = Integer.MAX_VALUE;
+
+        @Override
+        public void starting(String file) {
+
+            startedFiles.add(file);
+        }
+
+        @Override
+        public void documentValidated(String file, int documentIndex) {
+
+            validatedDocuments++;
+        }
+
+        @Override
+        public void validated(FileValidationStatistics fileStatistics, ValidationFailure failure) {
+
+            statistics.add(fileStatistics);
+            if (failure != null) {
+                failures.add(failure);
+            }
+        }
+
+        @Override
+        public boolean isFailureBudgetExhausted() {
+
+            return failures.size() >= maxFailures;
+        }
+
+    }
+
+}